@@ -24,7 +24,9 @@ public interface ArtemisConstants {
     String AUTH_STRING = "auth";
     String LOGIN_STRING = "login";
     String WEBCONSOLE_URI_PREFIX = "wconsj";
+    String JOLOKIA_ENDPOINT = "/console/jolokia/";
     String JOLOKIA_CALL_ENDPOINT = "/console/jolokia/exec/org.apache.activemq.artemis";
+    String JOLOKIA_BROKER_MBEAN = "org.apache.activemq.artemis:broker=\"amq-broker\"";
     String JOLOKIA_BROKER_PARAM = ":broker=" + URLEncoder.encode("\"amq-broker\"");
     String JOLOKIA_ADDRESSETTINGS_ENDPOINT = "/getAddressSettingsAsJSON/";
     String JOLOKIA_STATUS_ENDPOINT = "/Status";
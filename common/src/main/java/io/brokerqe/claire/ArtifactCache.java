@@ -0,0 +1,208 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content addressed cache of downloaded artifacts (JDBC drivers, client binaries, resource files), shared by all
+ * runs of the current user. Every artifact is stored once under its SHA-256 checksum and verified on every use, urls
+ * only point to checksums, so a corrupted or partial file is never used and is downloaded again. Files are written
+ * to a temporary file and moved in place atomically, and every url is guarded by a file lock, so parallel forks can
+ * share the cache safely. Once cached, an artifact is used without any network access.
+ */
+public final class ArtifactCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactCache.class);
+    private static final String BLOBS_DIR = "sha256";
+    private static final String URLS_DIR = "urls";
+    private static final String EXTRACTED_DIR = "extracted";
+    private static final String LOCKS_DIR = "locks";
+    // file locks are held per JVM, threads of one JVM are serialized before taking them
+    private static final Map<String, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private static Path cacheDir = Paths.get(Constants.ARTIFACT_CACHE_DIR);
+
+    private ArtifactCache() {
+        super();
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    /**
+     * Changes the cache directory, intended for tests.
+     */
+    static void setCacheDir(Path directory) {
+        cacheDir = directory;
+    }
+
+    /**
+     * @return cached file downloaded from the url
+     */
+    public static Path get(String url) {
+        return get(url, null);
+    }
+
+    /**
+     * @param expectedSha256 checksum the artifact has to match, or null to trust the first download
+     * @return cached file downloaded from the url
+     */
+    public static Path get(String url, String expectedSha256) {
+        String urlKey = sha256(url.getBytes(StandardCharsets.UTF_8));
+        return withLock(urlKey, () -> {
+            Path urlFile = directory(URLS_DIR).resolve(urlKey);
+            if (Files.exists(urlFile)) {
+                String checksum = Files.readString(urlFile).trim();
+                Path blob = directory(BLOBS_DIR).resolve(checksum);
+                if ((expectedSha256 == null || expectedSha256.equalsIgnoreCase(checksum)) && isValid(blob, checksum)) {
+                    LOGGER.debug("[Cache] Using cached {} ({})", url, blob);
+                    return blob;
+                }
+                LOGGER.warn("[Cache] Cached {} does not match its checksum, downloading it again", url);
+            }
+            Path blob = download(url, expectedSha256);
+            writeAtomically(urlFile, blob.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            return blob;
+        });
+    }
+
+    /**
+     * Zip archive from the url, extracted once into the cache.
+     * @return directory with the extracted archive, must not be modified
+     */
+    public static Path getExtracted(String url) {
+        String checksum = get(url).getFileName().toString();
+        return withLock(EXTRACTED_DIR + "-" + checksum, () -> {
+            Path extracted = directory(EXTRACTED_DIR).resolve(checksum);
+            if (!Files.isDirectory(extracted)) {
+                LOGGER.debug("[Cache] Extracting {} into {}", url, extracted);
+                Path tmpDir = Files.createTempDirectory(directory(EXTRACTED_DIR), checksum);
+                TestUtils.unzip(directory(BLOBS_DIR).resolve(checksum).toString(), tmpDir.toString());
+                Files.move(tmpDir, extracted, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return extracted;
+        });
+    }
+
+    /**
+     * Copies the cached file to the target, unless the target already has the same content. The target is replaced
+     * atomically, so that other forks never see it partially written.
+     */
+    public static void copy(Path cachedFile, Path target) {
+        try {
+            if (Files.exists(target) && Files.mismatch(cachedFile, target) == -1) {
+                LOGGER.debug("[Cache] {} is up to date", target);
+                return;
+            }
+            Path tmpFile = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+            Files.copy(cachedFile, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on copying %s to %s: %s", cachedFile, target, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    private static Path download(String url, String expectedSha256) throws IOException {
+        LOGGER.info("[Cache] Downloading {}", url);
+        Path tmpFile = Files.createTempFile(directory(BLOBS_DIR), "download", ".tmp");
+        MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(new URL(url).openStream(), digest);
+             OutputStream outputStream = Files.newOutputStream(tmpFile)) {
+            inputStream.transferTo(outputStream);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(checksum)) {
+            Files.deleteIfExists(tmpFile);
+            String errMsg = String.format("Error on downloading %s: sha256 %s does not match expected %s", url, checksum,
+                    expectedSha256.toLowerCase(Locale.ROOT));
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg);
+        }
+        Path blob = directory(BLOBS_DIR).resolve(checksum);
+        Files.move(tmpFile, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("[Cache] Stored {} as {}", url, blob);
+        return blob;
+    }
+
+    private static boolean isValid(Path blob, String checksum) throws IOException {
+        if (!Files.exists(blob)) {
+            return false;
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(blob), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest()).equals(checksum);
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        Files.write(tmpFile, content);
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <T> T withLock(String key, IOSupplier<T> action) {
+        ReentrantLock localLock = LOCAL_LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        localLock.lock();
+        try (FileChannel channel = FileChannel.open(directory(LOCKS_DIR).resolve(key + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            return action.get();
+        } catch (IOException e) {
+            String errMsg = String.format("Error on artifact cache %s: %s", cacheDir, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private static Path directory(String name) throws IOException {
+        return Files.createDirectories(cacheDir.resolve(name));
+    }
+
+    private static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
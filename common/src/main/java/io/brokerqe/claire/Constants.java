@@ -16,8 +16,10 @@ public interface Constants {
     String TAG_JAAS = "jaas";
     String TAG_JDBC = "jdbc";
     String TAG_OPERATOR = "operator";
+    String TAG_PERFORMANCE = "performance";
     String TAG_SMOKE = "smoke";
     String TAG_SMOKE_CLIENTS = "smoke-clients";
+    String TAG_SOAK = "soak";
     String TAG_TLS = "tls";
 
     // Environment Variables
@@ -109,6 +111,33 @@ public interface Constants {
     String TAR_TMP_FILE_PREFIX = "/container_files_";
     String STANDALONE_MODULE_PROPERTIES_FILE = "standalone.properties";
 
+    String EV_COLLECT_TEST_DATA_EXCLUDES = "COLLECT_TEST_DATA_EXCLUDES";
+    String PROP_COLLECT_TEST_DATA_EXCLUDES = "collect.test.data.excludes";
+    String DEFAULT_COLLECT_TEST_DATA_EXCLUDES = "data/journal,data/paging,data/large-messages";
+    String EV_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB = "COLLECT_TEST_DATA_MAX_FILE_SIZE_KB";
+    String PROP_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB = "collect.test.data.max_file_size_kb";
+    String DEFAULT_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB = "51200";
+    String EV_METRICS_SAMPLE_INTERVAL_MS = "METRICS_SAMPLE_INTERVAL_MS";
+    String PROP_METRICS_SAMPLE_INTERVAL_MS = "metrics.sample.interval_ms";
+    String DEFAULT_METRICS_SAMPLE_INTERVAL_MS = "1000";
+    String EV_FLIGHT_RECORDING = "FLIGHT_RECORDING";
+    String PROP_FLIGHT_RECORDING = "flight.recording";
+    String DEFAULT_FLIGHT_RECORDING = "false";
+    String EV_SOAK_DURATION_MINUTES = "SOAK_DURATION_MINUTES";
+    String PROP_SOAK_DURATION_MINUTES = "soak.duration_minutes";
+    String DEFAULT_SOAK_DURATION_MINUTES = "0";
+    String EV_SOAK_RATE = "SOAK_RATE";
+    String PROP_SOAK_RATE = "soak.rate";
+    String DEFAULT_SOAK_RATE = "1000";
+    String EV_CERTIFICATE_KEY_TYPE = "CERTIFICATE_KEY_TYPE";
+    String PROP_CERTIFICATE_KEY_TYPE = "certificate.key_type";
+    String DEFAULT_CERTIFICATE_KEY_TYPE = "RSA_4096";
+    String EV_CERTIFICATE_CACHE = "CERTIFICATE_CACHE";
+    String PROP_CERTIFICATE_CACHE = "certificate.cache";
+    String DEFAULT_CERTIFICATE_CACHE = "false";
+    String CERTIFICATE_CACHE_DIR = System.getProperty("user.home") + "/.cache/claire/certificates";
+    String ARTIFACT_CACHE_DIR = System.getProperty("user.home") + "/.cache/claire/artifacts";
+
     boolean DEFAULT_LOG_CONTAINERS = false;
     String EV_LOG_CONTAINERS = "LOG_CONTAINERS";
     String PROP_LOG_CONTAINERS = "log.containers";
@@ -29,6 +29,21 @@ public abstract class Environment {
     public String getCertificatesLocation() {
         return getTmpDirLocation() + Constants.FILE_SEPARATOR + Constants.CERTS_GENERATION_DIR;
     }
+    /**
+     * @return name of the {@link io.brokerqe.claire.security.KeyType} of generated certificates, from the environment
+     * variable or the system property
+     */
+    public String getCertificateKeyType() {
+        return System.getenv().getOrDefault(Constants.EV_CERTIFICATE_KEY_TYPE,
+                System.getProperty(Constants.PROP_CERTIFICATE_KEY_TYPE, Constants.DEFAULT_CERTIFICATE_KEY_TYPE));
+    }
+    /**
+     * @return whether generated certificates are cached on disk and reused by later runs, disabled by default
+     */
+    public boolean isCertificateCache() {
+        return Boolean.parseBoolean(System.getenv().getOrDefault(Constants.EV_CERTIFICATE_CACHE,
+                System.getProperty(Constants.PROP_CERTIFICATE_CACHE, Constants.DEFAULT_CERTIFICATE_CACHE)));
+    }
     public abstract String getKeycloakVersion();
     public abstract boolean isCollectTestData();
     public abstract int getCustomExtraDelay();
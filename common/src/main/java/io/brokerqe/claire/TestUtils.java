@@ -38,7 +38,6 @@ import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -47,8 +46,6 @@ import java.io.StringWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -310,20 +307,12 @@ public final class TestUtils {
     }
 
     // ========== Network Operations ==========
+    /**
+     * Downloads the url through the {@link ArtifactCache} and copies it to the output file.
+     */
     public static void getFileFromUrl(String stringUrl, String outputFile) {
-        if (!Files.exists(Paths.get(outputFile))) {
-            LOGGER.debug("Downloading {} to {}", stringUrl, outputFile);
-            try {
-                URL url = new URL(stringUrl);
-                ReadableByteChannel readableByteChannel = Channels.newChannel(url.openStream());
-                FileOutputStream fileOutputStream = new FileOutputStream(outputFile);
-                fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            LOGGER.debug("[SKIP] Downloading of {} to {} skipped. File exists", stringUrl, outputFile);
-        }
+        LOGGER.debug("Getting {} to {}", stringUrl, outputFile);
+        ArtifactCache.copy(ArtifactCache.get(stringUrl), Paths.get(outputFile));
     }
     // Make insecure HTTPS Requests
     // https://stackoverflow.com/questions/2793150/how-to-use-java-net-urlconnection-to-fire-and-handle-http-requests
@@ -527,30 +516,44 @@ public final class TestUtils {
      */
     public static void unTar(final String inputFile, final String outputDir) {
         Path input = Paths.get(inputFile);
+        LOGGER.debug("Untaring {} to dir {}.", input, outputDir);
+        try (InputStream is = Files.newInputStream(input)) {
+            unTar(is, outputDir);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on extracting file with tar: %s", e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    /**
+     * Untar a tar stream into the output directory, creating any missing parent directory.
+     *
+     * @param is            the tar input stream, it is not closed by this method
+     * @param outputDir     the output directory file.
+     */
+    public static void unTar(final InputStream is, final String outputDir) {
         Path output = Paths.get(outputDir);
-        LOGGER.debug("Untaring {} to dir {}.", input, output);
         try {
-            final InputStream is = Files.newInputStream(input);
             final TarArchiveInputStream tarInputStream = (TarArchiveInputStream) new ArchiveStreamFactory()
                     .createArchiveInputStream("tar", is);
             TarArchiveEntry entry;
             while ((entry = (TarArchiveEntry) tarInputStream.getNextEntry()) != null) {
                 final File outputFile = new File(output.toFile(), entry.getName());
-                if (entry.isDirectory()) {
-                    if (!outputFile.exists()) {
-                        if (!outputFile.mkdirs()) {
-                            String errMsg = String.format("Couldn't create directory %s.", outputFile.getAbsolutePath());
-                            LOGGER.error(errMsg);
-                            throw new ClaireRuntimeException(errMsg);
-                        }
+                final File parentDir = entry.isDirectory() ? outputFile : outputFile.getParentFile();
+                if (!parentDir.exists()) {
+                    if (!parentDir.mkdirs()) {
+                        String errMsg = String.format("Couldn't create directory %s.", parentDir.getAbsolutePath());
+                        LOGGER.error(errMsg);
+                        throw new ClaireRuntimeException(errMsg);
+                    }
+                }
+                if (!entry.isDirectory()) {
+                    try (OutputStream outputFileStream = Files.newOutputStream(outputFile.toPath())) {
+                        IOUtils.copy(tarInputStream, outputFileStream);
                     }
-                } else {
-                    final OutputStream outputFileStream = Files.newOutputStream(outputFile.toPath());
-                    IOUtils.copy(tarInputStream, outputFileStream);
-                    outputFileStream.close();
                 }
             }
-            tarInputStream.close();
         } catch (IOException | ArchiveException e) {
             String errMsg = String.format("Error on extracting file with tar: %s", e.getMessage());
             LOGGER.error(errMsg);
@@ -0,0 +1,120 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.clients;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Pseudo random content of a given size, generated on the fly from a seed, so that large message bodies never have to
+ * be held in memory as a whole. The same size and seed always give the same content, which lets the receiving side
+ * verify a body while it is being read, see {@link #verifier(long, long)}.
+ */
+public class GeneratedInputStream extends InputStream {
+
+    private static final int VERIFY_BUFFER_SIZE = 8192;
+
+    private final long size;
+    private final long seed;
+    private long position;
+
+    public GeneratedInputStream(long size, long seed) {
+        this.size = size;
+        this.seed = seed;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public int read() {
+        if (position >= size) {
+            return -1;
+        }
+        int value = (int) (block(position >>> 3) >>> ((position & 7) * 8)) & 0xFF;
+        position++;
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= size) {
+            return -1;
+        }
+        int count = (int) Math.min(length, size - position);
+        int filled = 0;
+        while (filled < count) {
+            // one value per 8 byte block, the first and the last block may be read only partially
+            long value = block(position >>> 3);
+            int shift = (int) (position & 7);
+            int blockBytes = Math.min(Long.BYTES - shift, count - filled);
+            for (int i = 0; i < blockBytes; i++) {
+                buffer[offset + filled + i] = (byte) (value >>> ((shift + i) * 8));
+            }
+            filled += blockBytes;
+            position += blockBytes;
+        }
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+
+    private long block(long blockIndex) {
+        // splitmix64, so that any block can be generated without the previous ones
+        long z = seed + blockIndex * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return stream which compares everything written into it with the generated content and fails on the first
+     * difference, or on close when less or more bytes than the size were written
+     */
+    public static OutputStream verifier(long size, long seed) {
+        GeneratedInputStream expected = new GeneratedInputStream(size, seed);
+        byte[] expectedBytes = new byte[VERIFY_BUFFER_SIZE];
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                int verified = 0;
+                while (verified < length) {
+                    long start = expected.position;
+                    int generated = expected.read(expectedBytes, 0, Math.min(expectedBytes.length, length - verified));
+                    if (generated < 0) {
+                        throw new IOException("Content differs from the generated one at byte " + start);
+                    }
+                    int from = offset + verified;
+                    int mismatch = Arrays.mismatch(buffer, from, from + generated, expectedBytes, 0, generated);
+                    if (mismatch >= 0) {
+                        throw new IOException("Content differs from the generated one at byte " + (start + mismatch));
+                    }
+                    verified += generated;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (expected.position != size) {
+                    throw new IOException("Received " + expected.position + " bytes instead of " + size);
+                }
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@
  */
 package io.brokerqe.claire.database;
 
+import io.brokerqe.claire.ArtifactCache;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.TestUtils;
 import org.apache.commons.io.FileUtils;
@@ -15,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -69,24 +71,16 @@ public class JdbcData {
 
     private String getJdbcDriver(String driverUrl, String driverFileName) {
         String destinationFilename = TestUtils.getProjectRelativeFile(Constants.ARTEMIS_DEFAULT_CFG_LIB_DIR) + "/" + driverFileName;
-        String filename = driverUrl.substring(driverUrl.lastIndexOf("/") + 1);
-        String driverArchivePath = "/tmp/" + filename;
-        String driverUnarchivedPath = "/tmp/" + filename + "-" + TestUtils.getRandomString(2);
-        TestUtils.getFileFromUrl(driverUrl, driverArchivePath);
-        if (driverUrl.endsWith(".zip")) {
-            TestUtils.unzip(driverArchivePath, driverUnarchivedPath);
-        }
-        Path file = TestUtils.findFile(driverUnarchivedPath, driverFileName);
-        TestUtils.copyFile(file.toString(), destinationFilename);
+        Path driverDir = ArtifactCache.getExtracted(driverUrl);
+        Path file = TestUtils.findFile(driverDir.toString(), driverFileName);
+        ArtifactCache.copy(file, Paths.get(destinationFilename));
         return destinationFilename;
     }
 
     private String getJdbcDriver(String driverUrl) {
         String filename = driverUrl.substring(driverUrl.lastIndexOf("/") + 1);
-        String driverPath = "/tmp/" + filename;
-        TestUtils.getFileFromUrl(driverUrl, driverPath);
         String destinationFilename = TestUtils.getProjectRelativeFile(Constants.ARTEMIS_DEFAULT_CFG_LIB_DIR) + "/" + filename;
-        TestUtils.copyFile(driverPath, destinationFilename);
+        ArtifactCache.copy(ArtifactCache.get(driverUrl), Paths.get(destinationFilename));
         return destinationFilename;
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends samples into a directory with one binary file per column. Timestamps are stored in
+ * {@value #TIMESTAMPS_FILE} as big-endian longs (ms since epoch), values of every metric in its own
+ * {@code c<N>.bin} file as big-endian doubles, so a single series can be read without touching the others and
+ * row N of any column is at byte offset N * 8. The column name of every file is listed in {@value #INDEX_FILE}.
+ * Metrics which appear later are backfilled, and metrics missing in a sample are written, as NaN.
+ */
+public class ColumnarMetricsWriter implements AutoCloseable {
+
+    static final String TIMESTAMPS_FILE = "timestamps.bin";
+    static final String INDEX_FILE = "columns.tsv";
+
+    private final Path directory;
+    private final DataOutputStream timestamps;
+    private final Writer index;
+    private final Map<String, DataOutputStream> columns = new LinkedHashMap<>();
+    private long rows;
+
+    public ColumnarMetricsWriter(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            timestamps = openColumn(TIMESTAMPS_FILE);
+            index = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on creating metrics store in %s: %s", directory, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized void append(long timestamp, Map<String, Double> values) {
+        try {
+            for (String column : values.keySet()) {
+                if (!columns.containsKey(column)) {
+                    addColumn(column);
+                }
+            }
+            timestamps.writeLong(timestamp);
+            for (Map.Entry<String, DataOutputStream> column : columns.entrySet()) {
+                Double value = values.get(column.getKey());
+                column.getValue().writeDouble(value == null ? Double.NaN : value);
+            }
+            rows++;
+            flush();
+        } catch (IOException e) {
+            String errMsg = String.format("Error on writing metrics sample into %s: %s", directory, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    private void addColumn(String column) throws IOException {
+        String fileName = "c" + columns.size() + ".bin";
+        DataOutputStream output = openColumn(fileName);
+        for (long row = 0; row < rows; row++) {
+            output.writeDouble(Double.NaN);
+        }
+        columns.put(column, output);
+        index.write(fileName + "\t" + column + "\n");
+    }
+
+    private DataOutputStream openColumn(String fileName) throws IOException {
+        OutputStream file = Files.newOutputStream(directory.resolve(fileName), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new DataOutputStream(new BufferedOutputStream(file));
+    }
+
+    private void flush() throws IOException {
+        index.flush();
+        timestamps.flush();
+        for (DataOutputStream column : columns.values()) {
+            column.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            index.close();
+            timestamps.close();
+            for (DataOutputStream column : columns.values()) {
+                column.close();
+            }
+        } catch (IOException e) {
+            String errMsg = String.format("Error on closing metrics store in %s: %s", directory, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Merges metrics of several sources into one sample. A failing source is skipped (its columns are NaN in the
+ * sample), the sample fails only when all sources fail.
+ */
+public class CompositeMetricsSource implements Supplier<Map<String, Double>>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeMetricsSource.class);
+
+    private final List<Supplier<Map<String, Double>>> sources;
+
+    @SafeVarargs
+    public CompositeMetricsSource(Supplier<Map<String, Double>>... sources) {
+        this(List.of(sources));
+    }
+
+    public CompositeMetricsSource(List<Supplier<Map<String, Double>>> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    @Override
+    public Map<String, Double> get() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        RuntimeException lastError = null;
+        int failed = 0;
+        for (Supplier<Map<String, Double>> source : sources) {
+            try {
+                metrics.putAll(source.get());
+            } catch (RuntimeException e) {
+                LOGGER.trace("Metrics source {} failed: {}", source.getClass().getSimpleName(), e.getMessage());
+                lastError = e;
+                failed++;
+            }
+        }
+        if (failed == sources.size() && lastError != null) {
+            throw new ClaireRuntimeException("All metrics sources failed: " + lastError.getMessage(), lastError);
+        }
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        for (Supplier<Map<String, Double>> source : sources) {
+            if (source instanceof AutoCloseable closeableSource) {
+                try {
+                    closeableSource.close();
+                } catch (Exception e) {
+                    LOGGER.debug("Failed to close metrics source {}: {}", source.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
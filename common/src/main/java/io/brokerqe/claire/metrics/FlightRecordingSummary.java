@@ -0,0 +1,293 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hot methods, allocation sites, monitor contention and thread parks aggregated from a Java Flight Recorder recording
+ * (recorded with the "profile" settings). Allocation sites, contended monitors and parks are attributed to the first
+ * frame outside the JDK, so they point to the broker code rather than to {@code Arrays.copyOf} or {@code LockSupport}.
+ * Parks of idle pool threads waiting for a task are only counted, they would hide the parks on contended locks.
+ */
+public final class FlightRecordingSummary {
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String ALLOCATION_IN_NEW_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    private static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String THREAD_PARK = "jdk.ThreadPark";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+    // idle threads of executors and pools waiting for work
+    private static final List<String> IDLE_PARK_METHODS = List.of("java.util.concurrent.ThreadPoolExecutor.getTask",
+            "java.util.concurrent.ForkJoinPool.awaitWork");
+    private static final List<String> IDLE_QUEUE_METHODS = List.of("take", "poll", "takeFirst", "pollFirst");
+
+    private final Path recording;
+    private final Map<String, Aggregate> hotMethods = new HashMap<>();
+    // JDK 16+ records sampled allocations, older JDKs only the TLAB events, never sum both
+    private final Map<String, Aggregate> sampledAllocations = new HashMap<>();
+    private final Map<String, Aggregate> tlabAllocations = new HashMap<>();
+    private final Map<String, Aggregate> lockContention = new HashMap<>();
+    private final Map<String, Aggregate> threadParks = new HashMap<>();
+    private final Aggregate idleParks = new Aggregate("idle");
+    private long executionSamples;
+    private Instant start;
+    private Instant end;
+
+    private FlightRecordingSummary(Path recording) {
+        this.recording = recording;
+    }
+
+    public static FlightRecordingSummary read(Path recording) {
+        FlightRecordingSummary summary = new FlightRecordingSummary(recording);
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                summary.add(recordingFile.readEvent());
+            }
+        } catch (IOException e) {
+            String errMsg = String.format("Error on reading flight recording %s: %s", recording, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        return summary;
+    }
+
+    private void add(RecordedEvent event) {
+        if (start == null || event.getStartTime().isBefore(start)) {
+            start = event.getStartTime();
+        }
+        if (end == null || event.getEndTime().isAfter(end)) {
+            end = event.getEndTime();
+        }
+        switch (event.getEventType().getName()) {
+            case EXECUTION_SAMPLE -> {
+                executionSamples++;
+                aggregate(hotMethods, methodName(topFrame(event.getStackTrace())), 0);
+            }
+            case ALLOCATION_SAMPLE -> aggregate(sampledAllocations, site(event, "objectClass"), event.getLong("weight"));
+            case ALLOCATION_IN_NEW_TLAB -> aggregate(tlabAllocations, site(event, "objectClass"), event.getLong("tlabSize"));
+            case ALLOCATION_OUTSIDE_TLAB -> aggregate(tlabAllocations, site(event, "objectClass"), event.getLong("allocationSize"));
+            case MONITOR_ENTER -> aggregate(lockContention, site(event, "monitorClass"), event.getDuration().toNanos());
+            case THREAD_PARK -> {
+                if (isIdlePark(event.getStackTrace())) {
+                    idleParks.events++;
+                    idleParks.total += event.getDuration().toNanos();
+                } else {
+                    aggregate(threadParks, site(event, "parkedClass"), event.getDuration().toNanos());
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private static void aggregate(Map<String, Aggregate> aggregates, String key, long value) {
+        Aggregate aggregate = aggregates.computeIfAbsent(key, Aggregate::new);
+        aggregate.events++;
+        aggregate.total += value;
+    }
+
+    private static String site(RecordedEvent event, String classField) {
+        return className(event.getClass(classField)) + " at " + frameName(applicationFrame(event.getStackTrace()));
+    }
+
+    private static RecordedFrame topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        return stackTrace.getFrames().get(0);
+    }
+
+    private static RecordedFrame applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        return stackTrace.getFrames().stream()
+                .filter(frame -> frame.getMethod() != null && !isJdkClass(frame.getMethod().getType().getName()))
+                .findFirst()
+                .orElse(topFrame(stackTrace));
+    }
+
+    /**
+     * @return true for a thread waiting for a task in an executor or on a blocking queue
+     */
+    static boolean isIdlePark(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return false;
+        }
+        return stackTrace.getFrames().stream().anyMatch(frame -> isIdleParkMethod(methodName(frame)));
+    }
+
+    static boolean isIdleParkMethod(String methodName) {
+        if (IDLE_PARK_METHODS.contains(methodName)) {
+            return true;
+        }
+        int methodStart = methodName.lastIndexOf('.');
+        String className = methodName.substring(0, Math.max(methodStart, 0));
+        return className.startsWith("java.util.concurrent.") && (className.endsWith("Queue") || className.endsWith("Deque"))
+                && IDLE_QUEUE_METHODS.contains(methodName.substring(methodStart + 1));
+    }
+
+    private static boolean isJdkClass(String className) {
+        return JDK_PACKAGES.stream().anyMatch(className::startsWith);
+    }
+
+    private static String methodName(RecordedFrame frame) {
+        if (frame == null || frame.getMethod() == null) {
+            return "<unknown>";
+        }
+        RecordedMethod method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName();
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        String method = methodName(frame);
+        return frame == null || frame.getLineNumber() <= 0 ? method : method + ":" + frame.getLineNumber();
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? "<unknown>" : recordedClass.getName();
+    }
+
+    public Path getRecording() {
+        return recording;
+    }
+
+    public Duration getDuration() {
+        return start == null ? Duration.ZERO : Duration.between(start, end);
+    }
+
+    public long getExecutionSamples() {
+        return executionSamples;
+    }
+
+    /**
+     * @return methods on top of the sampled stacks, by number of samples
+     */
+    public List<Aggregate> getHotMethods(int limit) {
+        return top(hotMethods, limit, Comparator.comparingLong(Aggregate::getEvents));
+    }
+
+    /**
+     * @return "allocated class at site" by allocated bytes (estimated from samples or TLAB sizes)
+     */
+    public List<Aggregate> getAllocationSites(int limit) {
+        Map<String, Aggregate> allocations = sampledAllocations.isEmpty() ? tlabAllocations : sampledAllocations;
+        return top(allocations, limit, Comparator.comparingLong(Aggregate::getTotal));
+    }
+
+    /**
+     * @return "monitor class at site" by total time threads were blocked entering a monitor (ns)
+     */
+    public List<Aggregate> getLockContention(int limit) {
+        return top(lockContention, limit, Comparator.comparingLong(Aggregate::getTotal));
+    }
+
+    /**
+     * @return "parked on class at site" by total time threads were parked (ns), idle pool threads excluded
+     */
+    public List<Aggregate> getThreadParks(int limit) {
+        return top(threadParks, limit, Comparator.comparingLong(Aggregate::getTotal));
+    }
+
+    /**
+     * @return parks of idle threads waiting for a task, not attributed to any site
+     */
+    public Aggregate getIdleParks() {
+        return idleParks;
+    }
+
+    private static List<Aggregate> top(Map<String, Aggregate> aggregates, int limit, Comparator<Aggregate> comparator) {
+        return aggregates.values().stream().sorted(comparator.reversed()).limit(limit).toList();
+    }
+
+    public JSONObject toJson(int limit) {
+        JSONArray methods = new JSONArray();
+        for (Aggregate method : getHotMethods(limit)) {
+            double percent = executionSamples == 0 ? 0 : method.getEvents() * 100.0 / executionSamples;
+            methods.put(new JSONObject().put("method", method.getName()).put("samples", method.getEvents())
+                    .put("percent", Math.round(percent * 100) / 100.0));
+        }
+        JSONArray allocations = new JSONArray();
+        for (Aggregate site : getAllocationSites(limit)) {
+            allocations.put(new JSONObject().put("site", site.getName()).put("events", site.getEvents()).put("bytes", site.getTotal()));
+        }
+        JSONArray locks = new JSONArray();
+        for (Aggregate site : getLockContention(limit)) {
+            locks.put(new JSONObject().put("site", site.getName()).put("events", site.getEvents())
+                    .put("total_ms", Duration.ofNanos(site.getTotal()).toMillis()));
+        }
+        JSONArray parks = new JSONArray();
+        for (Aggregate site : getThreadParks(limit)) {
+            parks.put(new JSONObject().put("site", site.getName()).put("events", site.getEvents())
+                    .put("total_ms", Duration.ofNanos(site.getTotal()).toMillis()));
+        }
+        return new JSONObject()
+                .put("recording", recording.getFileName().toString())
+                .put("duration_ms", getDuration().toMillis())
+                .put("execution_samples", executionSamples)
+                .put("hot_methods", methods)
+                .put("allocation_sites", allocations)
+                .put("lock_contention", locks)
+                .put("thread_parks", parks)
+                .put("idle_parks", new JSONObject().put("events", idleParks.getEvents())
+                        .put("total_ms", Duration.ofNanos(idleParks.getTotal()).toMillis()));
+    }
+
+    public void write(Path summaryFile, int limit) {
+        try {
+            Files.writeString(summaryFile, toJson(limit).toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on writing flight recording summary %s: %s", summaryFile, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    public static final class Aggregate {
+        private final String name;
+        private long events;
+        private long total;
+
+        private Aggregate(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + events + " events, total " + total + ")";
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects latencies of a client operation (commit, acknowledge, connect, ...) measured in the test JVM and
+ * summarizes them as percentiles. All recorded values are kept, which is fine for the thousands of operations
+ * a benchmark times, not for per message latencies of long runs. Thread safe.
+ */
+public class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+
+    /**
+     * @param name prefix of the summary keys, e.g. "commit" gives commit_count, commit_p99_us, ...
+     */
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+    }
+
+    /**
+     * Records the time elapsed since the start, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+    }
+
+    /**
+     * @param percentile 0-100, nearest rank
+     * @return latency in microseconds, NaN when nothing was recorded
+     */
+    public synchronized double getPercentileUs(double percentile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * count / 100);
+        return toUs(sorted[Math.min(Math.max(rank, 1), count) - 1]);
+    }
+
+    public synchronized double getMeanUs() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return toUs(Arrays.stream(latenciesNanos, 0, count).sum()) / count;
+    }
+
+    /**
+     * @return count, mean, percentiles and max in microseconds, keys prefixed by the name of the recorder
+     */
+    public synchronized Map<String, String> summarize() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put(name + "_count", String.valueOf(count));
+        if (count == 0) {
+            return summary;
+        }
+        summary.put(name + "_avg_us", format(getMeanUs()));
+        for (double percentile : PERCENTILES) {
+            String key = String.format(Locale.ROOT, "%s_p%s_us", name, percentile % 1 == 0 ? String.valueOf((int) percentile) : percentile);
+            summary.put(key, format(getPercentileUs(percentile)));
+        }
+        summary.put(name + "_max_us", format(getPercentileUs(100)));
+        return summary;
+    }
+
+    private static double toUs(long nanos) {
+        return (double) nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
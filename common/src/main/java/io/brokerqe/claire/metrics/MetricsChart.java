@@ -0,0 +1,26 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * One chart of a metrics report: all columns matching the pattern, drawn as they are or (for counters) as a
+ * per-second rate.
+ *
+ * @param title chart title
+ * @param columns columns to draw
+ * @param rate draw per-second rate instead of the raw values
+ */
+public record MetricsChart(String title, Pattern columns, boolean rate) {
+
+    public static MetricsChart of(String title, String columnsRegex) {
+        return new MetricsChart(title, Pattern.compile(columnsRegex), false);
+    }
+
+    public static MetricsChart rateOf(String title, String columnsRegex) {
+        return new MetricsChart(title, Pattern.compile(columnsRegex), true);
+    }
+}
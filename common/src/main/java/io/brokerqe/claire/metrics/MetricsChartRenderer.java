@@ -0,0 +1,119 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.TestUtils;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders sampled metrics as a standalone html page with one inline svg line chart per {@link MetricsChart}, so
+ * it can be opened from the test logs without any tooling. X axis is time since the first sample.
+ */
+public final class MetricsChartRenderer {
+
+    private static final int MAX_SERIES_PER_CHART = 10;
+    private static final int WIDTH = 960;
+    private static final int HEIGHT = 280;
+    private static final int MARGIN = 50;
+    private static final String[] COLORS = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b", "#e377c2", "#7f7f7f", "#bcbd22", "#17becf"};
+
+    private MetricsChartRenderer() {
+    }
+
+    public static Path render(MetricsTimeSeries timeSeries, List<MetricsChart> charts, String title, Path htmlFile) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>").append(escape(title)).append("</title>")
+                .append("<style>body{font-family:sans-serif} text{font-size:11px}</style></head><body>\n")
+                .append("<h2>").append(escape(title)).append("</h2>\n")
+                .append("<p>").append(timeSeries.size()).append(" samples</p>\n");
+        for (MetricsChart chart : charts) {
+            renderChart(html, timeSeries, chart);
+        }
+        html.append("</body></html>\n");
+        TestUtils.createFile(htmlFile.toString(), html.toString());
+        return htmlFile;
+    }
+
+    private static void renderChart(StringBuilder html, MetricsTimeSeries timeSeries, MetricsChart chart) {
+        Map<String, double[]> series = new LinkedHashMap<>();
+        timeSeries.getColumns(chart.columns()).forEach((name, values) ->
+                series.put(name, chart.rate() ? timeSeries.getRate(name) : values));
+        html.append("<h3>").append(escape(chart.title())).append(chart.rate() ? " (per second)" : "").append("</h3>\n");
+        if (series.isEmpty() || timeSeries.size() < 2) {
+            html.append("<p>no data</p>\n");
+            return;
+        }
+        // keep the busiest series only, charts with hundreds of queues are unreadable anyway
+        Map<String, double[]> drawn = new LinkedHashMap<>();
+        series.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, double[]> entry) -> max(entry.getValue())).reversed())
+                .limit(MAX_SERIES_PER_CHART)
+                .forEach(entry -> drawn.put(entry.getKey(), entry.getValue()));
+
+        long[] timestamps = timeSeries.getTimestamps();
+        long start = timestamps[0];
+        double duration = Math.max(1, timestamps[timestamps.length - 1] - start);
+        double maxValue = Math.max(drawn.values().stream().mapToDouble(MetricsChartRenderer::max).max().orElse(1), 1e-9);
+        int plotWidth = WIDTH - 2 * MARGIN;
+        int plotHeight = HEIGHT - 2 * MARGIN;
+
+        html.append(String.format(Locale.ROOT, "<svg width=\"%d\" height=\"%d\">%n", WIDTH, HEIGHT + drawn.size() * 14));
+        html.append(String.format(Locale.ROOT, "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#999\"/>%n",
+                MARGIN, MARGIN, plotWidth, plotHeight));
+        html.append(String.format(Locale.ROOT, "<text x=\"2\" y=\"%d\">%s</text><text x=\"2\" y=\"%d\">0</text>%n",
+                MARGIN + 4, formatValue(maxValue), HEIGHT - MARGIN));
+        html.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">0s</text><text x=\"%d\" y=\"%d\">%.0fs</text>%n",
+                MARGIN, HEIGHT - MARGIN + 14, WIDTH - MARGIN - 30, HEIGHT - MARGIN + 14, duration / 1000));
+        int seriesIndex = 0;
+        for (Map.Entry<String, double[]> entry : drawn.entrySet()) {
+            String color = COLORS[seriesIndex % COLORS.length];
+            html.append("<polyline fill=\"none\" stroke=\"").append(color).append("\" points=\"");
+            double[] values = entry.getValue();
+            for (int i = 0; i < values.length; i++) {
+                if (Double.isFinite(values[i])) {
+                    double x = MARGIN + (timestamps[i] - start) / duration * plotWidth;
+                    double y = HEIGHT - MARGIN - values[i] / maxValue * plotHeight;
+                    html.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                }
+            }
+            html.append("\"/>\n");
+            html.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" fill=\"%s\">%s (max %s)</text>%n",
+                    MARGIN, HEIGHT + seriesIndex * 14, color, escape(entry.getKey()), formatValue(max(values))));
+            seriesIndex++;
+        }
+        html.append("</svg>\n");
+    }
+
+    private static double max(double[] values) {
+        double max = 0;
+        for (double value : values) {
+            if (Double.isFinite(value)) {
+                max = Math.max(max, value);
+            }
+        }
+        return max;
+    }
+
+    private static String formatValue(double value) {
+        if (value >= 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fG", value / 1_000_000_000);
+        } else if (value >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fM", value / 1_000_000);
+        } else if (value >= 1_000) {
+            return String.format(Locale.ROOT, "%.1fk", value / 1_000);
+        }
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically reads broker metrics from a source (JMX, Prometheus endpoint, ...) on a background thread and
+ * appends them into a {@link ColumnarMetricsWriter} store, until closed. A failing scrape is logged and skipped,
+ * sampling never fails the test which it observes. Sources which are {@link AutoCloseable} are closed with the sampler.
+ * <pre>
+ * try (MetricsSampler sampler = new MetricsSampler("broker", dir, Constants.DURATION_1_SECOND, source).start()) {
+ *     // run the load
+ *     sampler.render(charts);
+ * }
+ * </pre>
+ */
+public class MetricsSampler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsSampler.class);
+
+    private final String name;
+    private final Path directory;
+    private final long intervalMs;
+    private final Supplier<Map<String, Double>> source;
+    private final ColumnarMetricsWriter writer;
+    private final ScheduledExecutorService scheduler;
+    private long failedSamples;
+
+    public MetricsSampler(String name, Path directory, long intervalMs, Supplier<Map<String, Double>> source) {
+        this.name = name;
+        this.directory = directory;
+        this.intervalMs = intervalMs;
+        this.source = source;
+        this.writer = new ColumnarMetricsWriter(directory);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-sampler-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public MetricsSampler start() {
+        LOGGER.info("[{}] Sampling metrics every {} ms into {}", name, intervalMs, directory);
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getSamples() {
+        return writer.getRows();
+    }
+
+    public synchronized long getFailedSamples() {
+        return failedSamples;
+    }
+
+    /**
+     * Takes a sample right now, besides the scheduled ones (e.g. at the start and end of a test phase).
+     */
+    public void sample() {
+        try {
+            Map<String, Double> values = source.get();
+            writer.append(System.currentTimeMillis(), values);
+        } catch (Exception e) {
+            synchronized (this) {
+                failedSamples++;
+            }
+            LOGGER.debug("[{}] Failed to sample metrics: {}", name, e.getMessage());
+        }
+    }
+
+    public MetricsTimeSeries getTimeSeries() {
+        return MetricsTimeSeries.read(directory);
+    }
+
+    /**
+     * Renders sampled metrics as html charts next to the samples.
+     *
+     * @return path to the rendered html file
+     */
+    public Path render(List<MetricsChart> charts) {
+        Path htmlFile = directory.resolve(name + ".html");
+        MetricsChartRenderer.render(getTimeSeries(), charts, name, htmlFile);
+        LOGGER.info("[{}] Rendered {} metrics samples ({} failed) into {}", name, getSamples(), getFailedSamples(), htmlFile);
+        return htmlFile;
+    }
+
+    private void closeSource() {
+        if (source instanceof AutoCloseable closeableSource) {
+            try {
+                closeableSource.close();
+            } catch (Exception e) {
+                LOGGER.debug("[{}] Failed to close metrics source: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(intervalMs + Constants.DURATION_30_SECONDS, TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
+            throw new ClaireRuntimeException("Interrupted while stopping metrics sampler " + name, e);
+        } finally {
+            writer.close();
+            closeSource();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.DoubleStream;
+
+/**
+ * Samples read back from a directory written by {@link ColumnarMetricsWriter}.
+ */
+public final class MetricsTimeSeries {
+
+    private final long[] timestamps;
+    private final Map<String, double[]> columns;
+
+    MetricsTimeSeries(long[] timestamps, Map<String, double[]> columns) {
+        this.timestamps = timestamps;
+        this.columns = columns;
+    }
+
+    public static MetricsTimeSeries read(Path directory) {
+        try {
+            long[] timestamps = toLongs(Files.readAllBytes(directory.resolve(ColumnarMetricsWriter.TIMESTAMPS_FILE)));
+            Map<String, double[]> columns = new LinkedHashMap<>();
+            for (String line : Files.readAllLines(directory.resolve(ColumnarMetricsWriter.INDEX_FILE))) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    double[] values = toDoubles(Files.readAllBytes(directory.resolve(line.substring(0, tab))), timestamps.length);
+                    columns.put(line.substring(tab + 1), values);
+                }
+            }
+            return new MetricsTimeSeries(timestamps, columns);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on reading metrics store %s: %s", directory, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public List<String> getColumnNames() {
+        return List.copyOf(columns.keySet());
+    }
+
+    public double[] getColumn(String name) {
+        return columns.get(name);
+    }
+
+    public Map<String, double[]> getColumns(Pattern namePattern) {
+        Map<String, double[]> matching = new LinkedHashMap<>();
+        columns.forEach((name, values) -> {
+            if (namePattern.matcher(name).matches()) {
+                matching.put(name, values);
+            }
+        });
+        return Collections.unmodifiableMap(matching);
+    }
+
+    /**
+     * @return per-second rate between consecutive samples of a counter column; first value and counter resets are NaN
+     */
+    public double[] getRate(String name) {
+        double[] values = columns.get(name);
+        double[] rates = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            double increase = i == 0 ? Double.NaN : values[i] - values[i - 1];
+            long elapsedMs = i == 0 ? 0 : timestamps[i] - timestamps[i - 1];
+            rates[i] = increase < 0 || elapsedMs <= 0 ? Double.NaN : increase * 1000.0 / elapsedMs;
+        }
+        return rates;
+    }
+
+    /**
+     * @return duration between the first and the last sample in ms
+     */
+    public long getDurationMs() {
+        return timestamps.length < 2 ? 0 : timestamps[timestamps.length - 1] - timestamps[0];
+    }
+
+    /**
+     * @return maximum of the column, NaN if the column is missing or has no values
+     */
+    public double max(String name) {
+        return values(name).max().orElse(Double.NaN);
+    }
+
+    /**
+     * @return average of the column, NaN if the column is missing or has no values
+     */
+    public double mean(String name) {
+        return values(name).average().orElse(Double.NaN);
+    }
+
+    /**
+     * Total increase of a counter column over all samples. When the counter drops (e.g. broker restart), the
+     * value after the drop is counted as the increase, as Prometheus does.
+     */
+    public double increase(String name) {
+        double[] values = columns.get(name);
+        if (values == null) {
+            return Double.NaN;
+        }
+        double increase = 0;
+        double previous = Double.NaN;
+        for (double value : values) {
+            if (Double.isFinite(value)) {
+                if (Double.isFinite(previous)) {
+                    increase += value >= previous ? value - previous : value;
+                }
+                previous = value;
+            }
+        }
+        return increase;
+    }
+
+    private DoubleStream values(String name) {
+        double[] values = columns.get(name);
+        return values == null ? DoubleStream.empty() : Arrays.stream(values).filter(Double::isFinite);
+    }
+
+    private static long[] toLongs(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] values = new long[bytes.length / Long.BYTES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getLong();
+        }
+        return values;
+    }
+
+    /**
+     * Columns are cut (or NaN-padded) to the number of timestamps, a sample might have been written only partially.
+     */
+    private static double[] toDoubles(byte[] bytes, int rows) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = buffer.remaining() >= Double.BYTES ? buffer.getDouble() : Double.NaN;
+        }
+        return values;
+    }
+}
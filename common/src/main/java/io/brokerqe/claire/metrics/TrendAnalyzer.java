@@ -0,0 +1,126 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Looks for steady growth in long running samples, like a memory leak, journal bloat or latency drift.
+ * Samples are split into equal windows and compared by window medians, so that the GC saw-tooth or a single
+ * spike does not count as growth. A series is flagged when the medians keep increasing in most of the window steps
+ * and the last window is noticeably above the first one.
+ */
+public class TrendAnalyzer {
+
+    private final int windows;
+    private final double minIncreasingRatio;
+    private final double minRelativeGrowth;
+
+    /**
+     * @param windows number of windows the samples are split into
+     * @param minIncreasingRatio share of window steps (0-1) with increasing median to consider the growth monotonic
+     * @param minRelativeGrowth growth of the last window median over the first one (0.2 = 20 %) to flag the series
+     */
+    public TrendAnalyzer(int windows, double minIncreasingRatio, double minRelativeGrowth) {
+        this.windows = windows;
+        this.minIncreasingRatio = minIncreasingRatio;
+        this.minRelativeGrowth = minRelativeGrowth;
+    }
+
+    /**
+     * Analyzes all columns of the time series matching the pattern.
+     */
+    public List<Trend> analyze(MetricsTimeSeries timeSeries, Pattern columns) {
+        List<Trend> trends = new ArrayList<>();
+        timeSeries.getColumns(columns).forEach((name, values) -> trends.add(analyze(name, timeSeries.getTimestamps(), values)));
+        return trends;
+    }
+
+    public Trend analyze(String name, long[] timestamps, double[] values) {
+        int count = 0;
+        long[] times = new long[values.length];
+        double[] finite = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (Double.isFinite(values[i])) {
+                times[count] = timestamps[i];
+                finite[count] = values[i];
+                count++;
+            }
+        }
+        if (count < windows * 2) {
+            return new Trend(name, count, Double.NaN, Double.NaN, Double.NaN, false);
+        }
+
+        double[] medians = new double[windows];
+        for (int window = 0; window < windows; window++) {
+            medians[window] = median(Arrays.copyOfRange(finite, window * count / windows, (window + 1) * count / windows));
+        }
+        int increasingSteps = 0;
+        for (int window = 1; window < windows; window++) {
+            if (medians[window] > medians[window - 1]) {
+                increasingSteps++;
+            }
+        }
+        double increasingRatio = (double) increasingSteps / (windows - 1);
+        double relativeGrowth = relativeGrowth(medians[0], medians[windows - 1]);
+        double slopePerHour = slope(times, finite, count) * 3_600_000;
+        boolean growing = increasingRatio >= minIncreasingRatio && relativeGrowth >= minRelativeGrowth;
+        return new Trend(name, count, slopePerHour, relativeGrowth, increasingRatio, growing);
+    }
+
+    private static double relativeGrowth(double first, double last) {
+        if (first == 0) {
+            return last > 0 ? Double.POSITIVE_INFINITY : 0;
+        }
+        return (last - first) / Math.abs(first);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    /**
+     * Least squares slope per ms.
+     */
+    private static double slope(long[] times, double[] values, int count) {
+        double meanTime = 0;
+        double meanValue = 0;
+        for (int i = 0; i < count; i++) {
+            meanTime += (double) (times[i] - times[0]) / count;
+            meanValue += values[i] / count;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < count; i++) {
+            double time = times[i] - times[0] - meanTime;
+            covariance += time * (values[i] - meanValue);
+            variance += time * time;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    /**
+     * @param samples number of finite samples analyzed
+     * @param slopePerHour linear regression slope in units per hour
+     * @param relativeGrowth growth of the last window median over the first one (0.2 = 20 %)
+     * @param increasingRatio share of window steps with increasing median
+     * @param growing whether the series grows steadily, NaN values and false when there are not enough samples
+     */
+    public record Trend(String name, int samples, double slopePerHour, double relativeGrowth, double increasingRatio,
+                        boolean growing) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: growth %.1f %%, %.0f %% increasing windows, slope %.2f/h%s", name,
+                    relativeGrowth * 100, increasingRatio * 100, slopePerHour, growing ? " - GROWING" : "");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.security;
+
+import io.brokerqe.claire.TestUtils;
+import org.bouncycastle.asn1.x509.Extension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Disk cache of generated certificates with their key pairs, so that repeated runs do not generate the same CA,
+ * broker and client certificates again. Entries are keyed by everything the certificate is generated from
+ * (distinguished name, extensions, issuer certificate, key type, validity) and are reused only on the day they were
+ * generated, so that the validity of a reused certificate stays as requested.
+ */
+public class CertificateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateCache.class);
+    private static final String KEYSTORE_TYPE = "PKCS12";
+    private static final String ENTRY_ALIAS = "entry";
+    private static final char[] PASSWORD = "claire".toCharArray();
+    // certificates are generated valid since a day ago
+    private static final Duration MAX_AGE = Duration.ofDays(2);
+
+    private final Path directory;
+
+    public CertificateCache(Path directory) {
+        this.directory = directory;
+        TestUtils.createDirectory(directory.toString());
+    }
+
+    /**
+     * @return key identifying a certificate generated from the given inputs, issuer null for self-signed
+     */
+    public static String createKey(String kind, KeyType keyType, String distinguishedName, List<Extension> extensions,
+                                   int validityDays, CertificateData issuer) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.join("|", kind, keyType.name(), distinguishedName, String.valueOf(validityDays))
+                    .getBytes(StandardCharsets.UTF_8));
+            if (extensions != null) {
+                for (Extension extension : extensions) {
+                    digest.update(extension.getEncoded());
+                }
+            }
+            if (issuer != null) {
+                digest.update(issuer.getCertificate().getEncoded());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (GeneralSecurityException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Optional<CertificateData.KeyAndCertificate> get(String key) {
+        Path file = directory.resolve(key + ".p12");
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+            keyStore.load(inputStream, PASSWORD);
+            X509Certificate certificate = (X509Certificate) keyStore.getCertificate(ENTRY_ALIAS);
+            if (certificate.getNotBefore().toInstant().isBefore(Instant.now().minus(MAX_AGE))) {
+                LOGGER.debug("[TLS] Cached certificate {} is outdated", file);
+                return Optional.empty();
+            }
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(ENTRY_ALIAS, PASSWORD);
+            LOGGER.debug("[TLS] Reusing cached certificate {} of {}", file, certificate.getSubjectX500Principal());
+            return Optional.of(new CertificateData.KeyAndCertificate(new KeyPair(certificate.getPublicKey(), privateKey), certificate));
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            LOGGER.warn("[TLS] Unable to read cached certificate {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, CertificateData.KeyAndCertificate keyAndCertificate) {
+        Path file = directory.resolve(key + ".p12");
+        try {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+            keyStore.load(null, PASSWORD);
+            keyStore.setKeyEntry(ENTRY_ALIAS, keyAndCertificate.keyPair().getPrivate(), PASSWORD,
+                    new Certificate[] {keyAndCertificate.certificate()});
+            // parallel test runs may store the same entry, readers must never see a partial file
+            Path tmpFile = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tmpFile)) {
+                keyStore.store(outputStream, PASSWORD);
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (GeneralSecurityException | IOException e) {
+            LOGGER.warn("[TLS] Unable to cache certificate {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.bouncycastle.asn1.x509.Extension;
 import javax.security.auth.x500.X500PrivateCredential;
 import java.nio.file.Paths;
 import java.security.KeyPair;
+import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.time.Instant;
@@ -17,6 +18,8 @@ import java.util.List;
 
 public class CertificateData {
 
+    private static final int CA_VALIDITY_DAYS = 30;
+
     private final String alias;
     private final X509Certificate certificate;
     private final X500PrivateCredential privateCredential;
@@ -32,38 +35,59 @@ public class CertificateData {
         this(alias, distinguishedName, extensions, 30, issuer);
     }
 
+    /** Cached, see {@link CertificateCache} **/
     public CertificateData(String alias, String distinguishedName, List<Extension> extensions, int validityDays, CertificateData issuer) {
-        this(alias, distinguishedName, extensions,
-                Date.from(Instant.now().minus(Duration.ofDays(1L))),
-                Date.from(Instant.now().plus(Duration.ofDays(validityDays))), issuer);
+        this(alias, distinguishedName, CertificateManager.getOrGenerate(false, distinguishedName, extensions, validityDays, issuer,
+                () -> generate(distinguishedName, extensions, validNotBefore(), validNotAfter(validityDays), issuer)));
     }
 
     public CertificateData(String alias, String distinguishedName, List<Extension> extensions, Date validNotBefore, Date validNotAfter, CertificateData issuer) {
-        this.alias = alias;
-        this.keyPair = CertificateManager.createKeyPairGenerator();
-        this.distinguishedName = distinguishedName;
-        this.certificate = CertificateManager.generate(keyPair, CertificateManager.SIGNATURE_ALGORITHM, distinguishedName, validNotBefore, validNotAfter, extensions, issuer);
-        this.privateCredential = CertificateManager.createPrivateCredential(certificate, keyPair, alias);
-        this.fileName = CertificateManager.getCurrentTestDirectory() + alias + ".crt";
-        CertificateManager.writeCertificateToFile(certificate, fileName);
+        this(alias, distinguishedName, generate(distinguishedName, extensions, validNotBefore, validNotAfter, issuer));
     }
 
-    /** Use this to generate CA certs **/
+    /** Use this to generate CA certs, cached, see {@link CertificateCache} **/
     public CertificateData(String alias, String distinguishedName, CertificateData issuer) {
-        this(alias, distinguishedName, issuer,
-                Date.from(Instant.now().minus(Duration.ofDays(1L))),
-                Date.from(Instant.now().plus(Duration.ofDays(30))));
+        this(alias, distinguishedName, CertificateManager.getOrGenerate(true, distinguishedName, null, CA_VALIDITY_DAYS, issuer,
+                () -> generateCA(distinguishedName, issuer, validNotBefore(), validNotAfter(CA_VALIDITY_DAYS))));
     }
+
     public CertificateData(String alias, String distinguishedName, CertificateData issuer, Date validNotBefore, Date validNotAfter) {
+        this(alias, distinguishedName, generateCA(distinguishedName, issuer, validNotBefore, validNotAfter));
+    }
+
+    private CertificateData(String alias, String distinguishedName, KeyAndCertificate keyAndCertificate) {
         this.alias = alias;
-        this.keyPair = CertificateManager.createKeyPairGenerator();
+        this.keyPair = keyAndCertificate.keyPair();
         this.distinguishedName = distinguishedName;
-        this.certificate = CertificateManager.generateCA(keyPair, CertificateManager.SIGNATURE_ALGORITHM, distinguishedName, validNotBefore, validNotAfter, issuer);
+        this.certificate = keyAndCertificate.certificate();
         this.privateCredential = CertificateManager.createPrivateCredential(certificate, keyPair, alias);
         this.fileName = CertificateManager.getCurrentTestDirectory() + alias + ".crt";
         CertificateManager.writeCertificateToFile(certificate, fileName);
     }
 
+    private static KeyAndCertificate generate(String distinguishedName, List<Extension> extensions, Date validNotBefore,
+                                              Date validNotAfter, CertificateData issuer) {
+        KeyPair keyPair = CertificateManager.createKeyPairGenerator();
+        PrivateKey signingKey = issuer == null ? keyPair.getPrivate() : issuer.getKeyPair().getPrivate();
+        return new KeyAndCertificate(keyPair, CertificateManager.generate(keyPair, KeyType.getSignatureAlgorithm(signingKey),
+                distinguishedName, validNotBefore, validNotAfter, extensions, issuer));
+    }
+
+    private static KeyAndCertificate generateCA(String distinguishedName, CertificateData issuer, Date validNotBefore, Date validNotAfter) {
+        KeyPair keyPair = CertificateManager.createKeyPairGenerator();
+        PrivateKey signingKey = issuer == null ? keyPair.getPrivate() : issuer.getKeyPair().getPrivate();
+        return new KeyAndCertificate(keyPair, CertificateManager.generateCA(keyPair, KeyType.getSignatureAlgorithm(signingKey),
+                distinguishedName, validNotBefore, validNotAfter, issuer));
+    }
+
+    private static Date validNotBefore() {
+        return Date.from(Instant.now().minus(Duration.ofDays(1L)));
+    }
+
+    private static Date validNotAfter(int validityDays) {
+        return Date.from(Instant.now().plus(Duration.ofDays(validityDays)));
+    }
+
     public String getAlias() {
         return alias;
     }
@@ -91,4 +115,7 @@ public class CertificateData {
     public String getBaseFileName() {
         return Paths.get(fileName).getFileName().toString();
     }
+
+    public record KeyAndCertificate(KeyPair keyPair, X509Certificate certificate) {
+    }
 }
@@ -46,7 +46,6 @@ import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -62,12 +61,15 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @SuppressWarnings({"checkstyle:ClassDataAbstractionCoupling", "checkstyle:ClassFanOutComplexity"})
 public class CertificateManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(CertificateManager.class);
-    protected static final String KEY_PAIR_ALGORITHM = "RSA";
     public static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
     public static final String KEYSTORE_TYPE_JKS = "JKS";
     public static final String DEFAULT_BROKER_ALIAS = "brokerUser";
@@ -75,8 +77,14 @@ public class CertificateManager {
     public static final String DEFAULT_CLIENT_ALIAS = "clientUser";
     public static final String DEFAULT_CLIENT_PASSWORD = "clientPass";
 
+    private static final KeyPairPool KEY_PAIR_POOL = new KeyPairPool(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final Map<String, Integer> CERTIFICATE_OCCURRENCES = new ConcurrentHashMap<>();
+    private static CertificateCache certificateCache;
+    private static KeyType keyType = KeyType.valueOf(Environment.get().getCertificateKeyType().toUpperCase(Locale.ROOT));
+
     private static String currentTestDirectory = Environment.get().getCertificatesLocation() + Constants.FILE_SEPARATOR;
     static {
+        Security.addProvider(new BouncyCastleProvider());
         TestUtils.createDirectory(currentTestDirectory);
     }
 
@@ -215,16 +223,60 @@ public class CertificateManager {
         }
     }
 
+    /**
+     * @return key pair of the current key type, pre-generated by the key pair pool when possible
+     */
     public static KeyPair createKeyPairGenerator() {
-        KeyPairGenerator keyPairGenerator;
-        try {
-            Security.addProvider(new BouncyCastleProvider());
-            keyPairGenerator = KeyPairGenerator.getInstance(KEY_PAIR_ALGORITHM);
-            keyPairGenerator.initialize(4096);
-            return keyPairGenerator.generateKeyPair();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+        return KEY_PAIR_POOL.take(keyType);
+    }
+
+    /**
+     * Selects the key type of certificates generated from now on, e.g. EC_P256 for tests which do not need
+     * 4096-bit RSA keys. Defaults to {@link Environment#getCertificateKeyType()}.
+     */
+    public static void setKeyType(KeyType type) {
+        keyType = type;
+        KEY_PAIR_POOL.prefill(type);
+    }
+
+    public static KeyType getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * Starts generating key pairs of the current key type in the background, call it ahead of generating certificates.
+     */
+    public static void prefillKeyPairs() {
+        KEY_PAIR_POOL.prefill(keyType);
+    }
+
+    /**
+     * @return certificate from the {@link CertificateCache} when enabled and generated before from the same inputs,
+     * otherwise the generated one, which gets cached. The n-th request of the same inputs in a run gets the n-th
+     * cached certificate, so a run sees distinct certificates just like without the cache.
+     */
+    static CertificateData.KeyAndCertificate getOrGenerate(boolean ca, String distinguishedName, List<Extension> extensions,
+                                                           int validityDays, CertificateData issuer,
+                                                           Supplier<CertificateData.KeyAndCertificate> generator) {
+        if (!Environment.get().isCertificateCache()) {
+            return generator.get();
+        }
+        String inputsKey = CertificateCache.createKey(ca ? "ca" : "cert", keyType, distinguishedName, extensions, validityDays, issuer);
+        String key = inputsKey + "-" + CERTIFICATE_OCCURRENCES.merge(inputsKey, 1, Integer::sum);
+        Optional<CertificateData.KeyAndCertificate> cached = certificateCache().get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        CertificateData.KeyAndCertificate generated = generator.get();
+        certificateCache().put(key, generated);
+        return generated;
+    }
+
+    private static synchronized CertificateCache certificateCache() {
+        if (certificateCache == null) {
+            certificateCache = new CertificateCache(Paths.get(Constants.CERTIFICATE_CACHE_DIR));
         }
+        return certificateCache;
     }
 
     /**
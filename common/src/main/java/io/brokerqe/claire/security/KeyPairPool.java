@@ -0,0 +1,112 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Key pairs generated ahead on background threads, as a 4096-bit RSA key pair takes seconds of CPU and TLS tests
+ * need several of them. A key type is pooled since it is first requested (or prefilled), a request on an empty pool
+ * generates the key pair on the calling thread.
+ */
+public class KeyPairPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private final int size;
+    private final ExecutorService executor;
+    private final Map<KeyType, ConcurrentLinkedQueue<KeyPair>> keyPairs = new ConcurrentHashMap<>();
+    private final Map<KeyType, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param size number of key pairs kept ready per key type
+     * @param threads number of background generator threads
+     */
+    public KeyPairPool(int size, int threads) {
+        this.size = size;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "key-pair-pool-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public KeyPair take(KeyType keyType) {
+        KeyPair keyPair = keyPairs(keyType).poll();
+        prefill(keyType);
+        if (keyPair == null) {
+            LOGGER.debug("[TLS] Key pair pool of {} is empty, generating key pair", keyType);
+            keyPair = keyType.generateKeyPair();
+        }
+        return keyPair;
+    }
+
+    /**
+     * Starts generating key pairs of the type in the background, up to the pool size.
+     */
+    public synchronized void prefill(KeyType keyType) {
+        ConcurrentLinkedQueue<KeyPair> ready = keyPairs(keyType);
+        AtomicInteger generating = pending.computeIfAbsent(keyType, type -> new AtomicInteger());
+        while (ready.size() + generating.get() < size) {
+            generating.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    ready.add(keyType.generateKeyPair());
+                } catch (RuntimeException e) {
+                    LOGGER.warn("[TLS] Failed to pre-generate {} key pair: {}", keyType, e.getMessage());
+                } finally {
+                    generating.decrementAndGet();
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+            });
+        }
+    }
+
+    public int getReadyCount(KeyType keyType) {
+        return keyPairs(keyType).size();
+    }
+
+    /**
+     * @return number of key pairs of the type being generated in the background
+     */
+    public int getPendingCount(KeyType keyType) {
+        AtomicInteger generating = pending.get(keyType);
+        return generating == null ? 0 : generating.get();
+    }
+
+    /**
+     * Waits until no key pair of the type is being generated in the background.
+     * @return whether the pool of the type is full, false when the timeout elapsed first
+     */
+    public synchronized boolean awaitFilled(KeyType keyType, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (getPendingCount(keyType) > 0) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return false;
+            }
+            wait(remainingMs);
+        }
+        return getReadyCount(keyType) >= size;
+    }
+
+    private ConcurrentLinkedQueue<KeyPair> keyPairs(KeyType keyType) {
+        return keyPairs.computeIfAbsent(keyType, type -> new ConcurrentLinkedQueue<>());
+    }
+}
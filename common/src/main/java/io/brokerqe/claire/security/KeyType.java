@@ -0,0 +1,60 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.security;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * Key pair types of generated certificates. RSA_4096 is the default, the cheaper ones are for tests which need
+ * a working TLS setup but do not care about the key strength.
+ */
+public enum KeyType {
+    RSA_4096("RSA", 4096, null),
+    RSA_2048("RSA", 2048, null),
+    EC_P256("EC", 256, "secp256r1");
+
+    private final String algorithm;
+    private final int keySize;
+    private final String curve;
+
+    KeyType(String algorithm, int keySize, String curve) {
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getKeySize() {
+        return keySize;
+    }
+
+    public KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(algorithm);
+            if (curve == null) {
+                keyPairGenerator.initialize(keySize);
+            } else {
+                keyPairGenerator.initialize(new ECGenParameterSpec(curve));
+            }
+            return keyPairGenerator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return signature algorithm matching the key which signs the certificate (the issuer key)
+     */
+    public static String getSignatureAlgorithm(Key signingKey) {
+        return "EC".equals(signingKey.getAlgorithm()) ? "SHA256withECDSA" : CertificateManager.SIGNATURE_ALGORITHM;
+    }
+}
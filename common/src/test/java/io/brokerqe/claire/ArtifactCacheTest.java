@@ -0,0 +1,70 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+class ArtifactCacheTest {
+
+    // sha256 of "driver"
+    private static final String DRIVER_SHA256 = "b4def8217cadae26d4da633fd2a4e58e326cbb5d570afdc3989484da07af3579";
+
+    @TempDir
+    Path tmpDir;
+    private Path source;
+    private String url;
+
+    @BeforeEach
+    void setup() throws IOException {
+        ArtifactCache.setCacheDir(tmpDir.resolve("cache"));
+        source = Files.writeString(tmpDir.resolve("driver.jar"), "driver");
+        url = source.toUri().toString();
+    }
+
+    @Test
+    void storesContentAddressedAndReusesOffline() throws IOException {
+        Path cached = ArtifactCache.get(url);
+        Assertions.assertThat(cached.getFileName().toString()).isEqualTo(DRIVER_SHA256);
+        Assertions.assertThat(cached).hasContent("driver");
+
+        // source is gone, the cached copy is used
+        Files.delete(source);
+        Assertions.assertThat(ArtifactCache.get(url, DRIVER_SHA256.toUpperCase(Locale.ROOT))).isEqualTo(cached);
+    }
+
+    @Test
+    void downloadsAgainWhenCachedFileIsCorrupted() throws IOException {
+        Path cached = ArtifactCache.get(url);
+        Files.writeString(cached, "truncat");
+        Assertions.assertThat(ArtifactCache.get(url)).hasContent("driver");
+    }
+
+    @Test
+    void rejectsUnexpectedChecksum() {
+        Assertions.assertThatThrownBy(() -> ArtifactCache.get(url, "00"))
+                .isInstanceOf(ClaireRuntimeException.class)
+                .hasMessageContaining("does not match expected");
+    }
+
+    @Test
+    void copiesOnlyChangedFiles() throws IOException {
+        Path target = tmpDir.resolve("lib").resolve("driver.jar");
+        Files.createDirectories(target.getParent());
+        ArtifactCache.copy(ArtifactCache.get(url), target);
+        Assertions.assertThat(target).hasContent("driver");
+        long modified = Files.getLastModifiedTime(target).toMillis();
+        ArtifactCache.copy(ArtifactCache.get(url), target);
+        Assertions.assertThat(Files.getLastModifiedTime(target).toMillis()).isEqualTo(modified);
+    }
+}
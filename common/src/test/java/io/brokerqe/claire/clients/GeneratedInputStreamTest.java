@@ -0,0 +1,98 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.clients;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+class GeneratedInputStreamTest {
+
+    // not a multiple of the 8 byte block, so that the last block is partial
+    private static final int SIZE = 10_003;
+    private static final long SEED = 42;
+
+    @Test
+    void generatesSameContentInAnyChunks() {
+        byte[] singleBytes = readSingleBytes(new GeneratedInputStream(SIZE, SEED));
+        Assertions.assertThat(singleBytes).hasSize(SIZE);
+        for (int chunkSize : new int[] {1, 3, 7, 8, 13, 4096, SIZE + 1}) {
+            Assertions.assertThat(readChunks(new GeneratedInputStream(SIZE, SEED), chunkSize))
+                    .as("content read in chunks of %d bytes", chunkSize)
+                    .isEqualTo(singleBytes);
+        }
+        Assertions.assertThat(readChunks(new GeneratedInputStream(SIZE, SEED + 1), 4096)).isNotEqualTo(singleBytes);
+    }
+
+    @Test
+    void endsAtSize() {
+        GeneratedInputStream stream = new GeneratedInputStream(5, SEED);
+        Assertions.assertThat(stream.available()).isEqualTo(5);
+        Assertions.assertThat(stream.read(new byte[8], 0, 8)).isEqualTo(5);
+        Assertions.assertThat(stream.available()).isZero();
+        Assertions.assertThat(stream.read(new byte[8], 0, 8)).isEqualTo(-1);
+        Assertions.assertThat(stream.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void verifierAcceptsGeneratedContent() throws IOException {
+        byte[] content = readChunks(new GeneratedInputStream(SIZE, SEED), 4096);
+        try (OutputStream verifier = GeneratedInputStream.verifier(SIZE, SEED)) {
+            // chunks not aligned to the blocks nor to the verifier buffer
+            int offset = 0;
+            for (int chunkSize = 1; offset < SIZE; chunkSize = chunkSize * 3 + 1) {
+                int length = Math.min(chunkSize, SIZE - offset);
+                verifier.write(content, offset, length);
+                offset += length;
+            }
+        }
+    }
+
+    @Test
+    void verifierFailsOnFlippedByte() {
+        byte[] content = readChunks(new GeneratedInputStream(SIZE, SEED), 4096);
+        content[9001] ^= 1;
+        OutputStream verifier = GeneratedInputStream.verifier(SIZE, SEED);
+        Assertions.assertThatThrownBy(() -> verifier.write(content, 0, content.length))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("at byte 9001");
+    }
+
+    @Test
+    void verifierFailsOnTruncatedOrLongerContent() throws IOException {
+        byte[] content = readChunks(new GeneratedInputStream(SIZE, SEED), 4096);
+        OutputStream truncated = GeneratedInputStream.verifier(SIZE, SEED);
+        truncated.write(content, 0, SIZE - 1);
+        Assertions.assertThatThrownBy(truncated::close)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Received " + (SIZE - 1) + " bytes instead of " + SIZE);
+
+        OutputStream longer = GeneratedInputStream.verifier(SIZE - 1, SEED);
+        Assertions.assertThatThrownBy(() -> longer.write(content, 0, SIZE))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("at byte " + (SIZE - 1));
+    }
+
+    private static byte[] readSingleBytes(GeneratedInputStream stream) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int value = stream.read(); value >= 0; value = stream.read()) {
+            content.write(value);
+        }
+        return content.toByteArray();
+    }
+
+    private static byte[] readChunks(GeneratedInputStream stream, int chunkSize) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        // offset 1 checks that the stream writes at the requested offset only
+        byte[] chunk = new byte[chunkSize + 1];
+        for (int read = stream.read(chunk, 1, chunkSize); read >= 0; read = stream.read(chunk, 1, chunkSize)) {
+            content.write(chunk, 1, read);
+        }
+        return content.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+class ColumnarMetricsWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWrittenSamples() {
+        try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(directory)) {
+            writer.append(1000, Map.of("queue{name=a}", 1.0, "heap", 100.0));
+            writer.append(2000, Map.of("queue{name=a}", 3.0, "heap", 150.0));
+            writer.append(3000, Map.of("queue{name=a}", 2.0, "heap", 120.0));
+            Assertions.assertThat(writer.getRows()).isEqualTo(3);
+        }
+
+        MetricsTimeSeries timeSeries = MetricsTimeSeries.read(directory);
+        Assertions.assertThat(timeSeries.size()).isEqualTo(3);
+        Assertions.assertThat(timeSeries.getTimestamps()).containsExactly(1000, 2000, 3000);
+        Assertions.assertThat(timeSeries.getColumnNames()).containsExactlyInAnyOrder("queue{name=a}", "heap");
+        Assertions.assertThat(timeSeries.getColumn("queue{name=a}")).containsExactly(1.0, 3.0, 2.0);
+        Assertions.assertThat(timeSeries.getColumn("heap")).containsExactly(100.0, 150.0, 120.0);
+        Assertions.assertThat(timeSeries.getColumns(Pattern.compile("queue\\{.*"))).containsOnlyKeys("queue{name=a}");
+        Assertions.assertThat(timeSeries.getDurationMs()).isEqualTo(2000);
+        Assertions.assertThat(timeSeries.max("heap")).isEqualTo(150.0);
+        Assertions.assertThat(timeSeries.getColumn("missing")).isNull();
+        Assertions.assertThat(timeSeries.max("missing")).isNaN();
+    }
+
+    @Test
+    void writesNaNForLateAndMissingMetrics() {
+        try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(directory)) {
+            writer.append(1000, Map.of("early", 1.0));
+            writer.append(2000, Map.of("early", 2.0, "late", 10.0));
+            writer.append(3000, Map.of("late", 20.0));
+            Map<String, Double> nullValue = new HashMap<>();
+            nullValue.put("early", null);
+            nullValue.put("late", 30.0);
+            writer.append(4000, nullValue);
+        }
+
+        MetricsTimeSeries timeSeries = MetricsTimeSeries.read(directory);
+        Assertions.assertThat(timeSeries.getColumn("early")).containsExactly(1.0, 2.0, Double.NaN, Double.NaN);
+        Assertions.assertThat(timeSeries.getColumn("late")).containsExactly(Double.NaN, 10.0, 20.0, 30.0);
+        Assertions.assertThat(timeSeries.mean("early")).isEqualTo(1.5);
+        Assertions.assertThat(timeSeries.increase("late")).isEqualTo(20.0);
+    }
+
+    @Test
+    void padsPartiallyWrittenSample() throws IOException {
+        try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(directory)) {
+            writer.append(1000, Map.of("value", 1.0));
+            writer.append(2000, Map.of("value", 2.0));
+        }
+        // the process died after the timestamp of the third sample was written, but before its values
+        Files.write(directory.resolve(ColumnarMetricsWriter.TIMESTAMPS_FILE), new byte[] {0, 0, 0, 0, 0, 0, 0x0b, (byte) 0xb8},
+                StandardOpenOption.APPEND);
+
+        MetricsTimeSeries timeSeries = MetricsTimeSeries.read(directory);
+        Assertions.assertThat(timeSeries.getTimestamps()).containsExactly(1000, 2000, 3000);
+        Assertions.assertThat(timeSeries.getColumn("value")).containsExactly(1.0, 2.0, Double.NaN);
+    }
+
+    @Test
+    void readsCountersAsRates() {
+        try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(directory)) {
+            writer.append(1000, Map.of("sent_total", 0.0));
+            writer.append(3000, Map.of("sent_total", 100.0));
+            // broker restart resets the counter
+            writer.append(4000, Map.of("sent_total", 20.0));
+        }
+
+        MetricsTimeSeries timeSeries = MetricsTimeSeries.read(directory);
+        Assertions.assertThat(timeSeries.getRate("sent_total")).containsExactly(Double.NaN, 50.0, Double.NaN);
+        Assertions.assertThat(timeSeries.increase("sent_total")).isEqualTo(120.0);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FlightRecordingSummaryTest {
+
+    @Test
+    void idlePoolAndQueueWaitsAreIdleParks() {
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.ThreadPoolExecutor.getTask")).isTrue();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.ForkJoinPool.awaitWork")).isTrue();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.LinkedBlockingQueue.take")).isTrue();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod(
+                "java.util.concurrent.ScheduledThreadPoolExecutor$DelayedWorkQueue.poll")).isTrue();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.LinkedBlockingDeque.pollFirst")).isTrue();
+    }
+
+    @Test
+    void lockWaitsAreNotIdleParks() {
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.locks.ReentrantLock.lock")).isFalse();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("java.util.concurrent.LinkedBlockingQueue.put")).isFalse();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod(
+                "org.apache.activemq.artemis.utils.collections.LinkedListImpl.poll")).isFalse();
+        Assertions.assertThat(FlightRecordingSummary.isIdleParkMethod("<unknown>")).isFalse();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class LatencyRecorderTest {
+
+    @Test
+    void summarizesPercentilesInMicroseconds() {
+        LatencyRecorder recorder = new LatencyRecorder("commit");
+        // 1-2000 us, more than the initial capacity
+        for (int i = 2000; i > 0; i--) {
+            recorder.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        Map<String, String> summary = recorder.summarize();
+        Assertions.assertThat(summary)
+                .containsEntry("commit_count", "2000")
+                .containsEntry("commit_avg_us", "1000.50")
+                .containsEntry("commit_p50_us", "1000.00")
+                .containsEntry("commit_p99_us", "1980.00")
+                .containsEntry("commit_p99.9_us", "1998.00")
+                .containsEntry("commit_max_us", "2000.00");
+    }
+
+    @Test
+    void emptyAndReset() {
+        LatencyRecorder recorder = new LatencyRecorder("ack");
+        Assertions.assertThat(recorder.getPercentileUs(99)).isNaN();
+        Assertions.assertThat(recorder.summarize()).containsExactly(Map.entry("ack_count", "0"));
+        recorder.record(5_000);
+        Assertions.assertThat(recorder.getPercentileUs(0)).isEqualTo(5.0);
+        recorder.reset();
+        Assertions.assertThat(recorder.getCount()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntToDoubleFunction;
+
+class TrendAnalyzerTest {
+
+    private static final int SAMPLES = 200;
+    private final TrendAnalyzer analyzer = new TrendAnalyzer(10, 0.75, 0.2);
+
+    @Test
+    void flagsSteadyGrowthUnderSawTooth() {
+        // heap growing by 50 % over the run, with a GC saw-tooth on top of it
+        TrendAnalyzer.Trend trend = analyzer.analyze("heap", timestamps(), values(i -> 100 + i * 0.25 + (i % 7) * 10));
+        Assertions.assertThat(trend.growing()).isTrue();
+        Assertions.assertThat(trend.relativeGrowth()).isGreaterThan(0.2);
+        Assertions.assertThat(trend.slopePerHour()).isPositive();
+    }
+
+    @Test
+    void ignoresStableSeriesWithSpike() {
+        TrendAnalyzer.Trend trend = analyzer.analyze("threads", timestamps(), values(i -> i == SAMPLES - 1 ? 1000 : 50 + i % 3));
+        Assertions.assertThat(trend.growing()).isFalse();
+    }
+
+    @Test
+    void ignoresOneStepIncrease() {
+        // warm-up like jump to a new plateau, not a steady growth
+        TrendAnalyzer.Trend trend = analyzer.analyze("journal", timestamps(), values(i -> i < 30 ? 10 : 100));
+        Assertions.assertThat(trend.growing()).isFalse();
+    }
+
+    @Test
+    void skipsNaNsAndShortSeries() {
+        double[] values = values(i -> i % 2 == 0 ? Double.NaN : i);
+        Assertions.assertThat(analyzer.analyze("sparse", timestamps(), values).samples()).isEqualTo(SAMPLES / 2);
+
+        TrendAnalyzer.Trend shortTrend = analyzer.analyze("short", new long[] {1, 2, 3}, new double[] {1, 2, 3});
+        Assertions.assertThat(shortTrend.growing()).isFalse();
+        Assertions.assertThat(shortTrend.relativeGrowth()).isNaN();
+    }
+
+    private static long[] timestamps() {
+        long[] timestamps = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            timestamps[i] = 1_000_000L + i * 60_000L;
+        }
+        return timestamps;
+    }
+
+    private static double[] values(IntToDoubleFunction value) {
+        double[] values = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            values[i] = value.applyAsDouble(i);
+        }
+        return values;
+    }
+}
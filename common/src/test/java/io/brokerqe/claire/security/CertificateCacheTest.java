@@ -0,0 +1,97 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.security;
+
+import org.assertj.core.api.Assertions;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+class CertificateCacheTest {
+
+    private static final String DN = "C=CZ, L=Brno, O=ArtemisCloud, OU=Broker, CN=localhost";
+
+    @TempDir
+    Path tmpDir;
+    private CertificateCache cache;
+    private String key;
+
+    @BeforeEach
+    void setup() {
+        cache = new CertificateCache(tmpDir.resolve("certificates"));
+        key = CertificateCache.createKey("broker", KeyType.EC_P256, DN, null, 30, null);
+    }
+
+    @Test
+    void keyDependsOnEveryInput() throws IOException {
+        List<Extension> extensions = List.of(new Extension(Extension.basicConstraints, true, new BasicConstraints(true).getEncoded()));
+        Assertions.assertThat(CertificateCache.createKey("broker", KeyType.EC_P256, DN, null, 30, null)).isEqualTo(key);
+        Assertions.assertThat(List.of(
+                CertificateCache.createKey("client", KeyType.EC_P256, DN, null, 30, null),
+                CertificateCache.createKey("broker", KeyType.RSA_2048, DN, null, 30, null),
+                CertificateCache.createKey("broker", KeyType.EC_P256, DN + "2", null, 30, null),
+                CertificateCache.createKey("broker", KeyType.EC_P256, DN, extensions, 30, null),
+                CertificateCache.createKey("broker", KeyType.EC_P256, DN, null, 31, null)))
+                .doesNotContain(key)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void missingEntryIsMiss() {
+        Assertions.assertThat(cache.get(key)).isEmpty();
+    }
+
+    @Test
+    void storedEntryIsHit() throws Exception {
+        KeyPair keyPair = KeyType.EC_P256.generateKeyPair();
+        X509Certificate certificate = selfSigned(keyPair, Instant.now().minus(Duration.ofDays(1)));
+        cache.put(key, new CertificateData.KeyAndCertificate(keyPair, certificate));
+
+        CertificateData.KeyAndCertificate cached = cache.get(key).orElseThrow();
+        Assertions.assertThat(cached.certificate()).isEqualTo(certificate);
+        Assertions.assertThat(cached.keyPair().getPrivate().getEncoded()).isEqualTo(keyPair.getPrivate().getEncoded());
+        Assertions.assertThat(cached.keyPair().getPublic()).isEqualTo(keyPair.getPublic());
+        Assertions.assertThat(cache.get(CertificateCache.createKey("client", KeyType.EC_P256, DN, null, 30, null))).isEmpty();
+    }
+
+    @Test
+    void outdatedEntryIsMiss() throws Exception {
+        KeyPair keyPair = KeyType.EC_P256.generateKeyPair();
+        X509Certificate certificate = selfSigned(keyPair, Instant.now().minus(Duration.ofDays(3)));
+        cache.put(key, new CertificateData.KeyAndCertificate(keyPair, certificate));
+        Assertions.assertThat(cache.get(key)).isEmpty();
+    }
+
+    @Test
+    void corruptedEntryIsMiss() throws IOException {
+        Files.writeString(tmpDir.resolve("certificates").resolve(key + ".p12"), "truncat");
+        Assertions.assertThat(cache.get(key)).isEmpty();
+    }
+
+    private static X509Certificate selfSigned(KeyPair keyPair, Instant notBefore) throws Exception {
+        X500Name name = new X500Name(DN);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(notBefore),
+                Date.from(notBefore.plus(Duration.ofDays(30))), name, keyPair.getPublic());
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate())));
+    }
+}
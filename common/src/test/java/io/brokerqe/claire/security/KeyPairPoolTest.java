@@ -0,0 +1,76 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+import java.util.HashSet;
+import java.util.Set;
+
+class KeyPairPoolTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final long PREFILL_TIMEOUT_MS = 30000;
+
+    private KeyPairPool pool;
+
+    @BeforeEach
+    void setup() {
+        pool = new KeyPairPool(POOL_SIZE, 2);
+    }
+
+    @Test
+    void emptyPoolGeneratesOnCallingThread() {
+        Assertions.assertThat(pool.getReadyCount(KeyType.EC_P256)).isZero();
+        KeyPair keyPair = pool.take(KeyType.EC_P256);
+        Assertions.assertThat(keyPair.getPrivate().getAlgorithm()).isEqualTo("EC");
+    }
+
+    @Test
+    void prefillFillsUpToPoolSize() throws InterruptedException {
+        pool.prefill(KeyType.EC_P256);
+        awaitReady(KeyType.EC_P256);
+        // a second prefill of a full pool does not generate more
+        pool.prefill(KeyType.EC_P256);
+        Assertions.assertThat(pool.getPendingCount(KeyType.EC_P256)).isZero();
+        Assertions.assertThat(pool.getReadyCount(KeyType.EC_P256)).isEqualTo(POOL_SIZE);
+    }
+
+    @Test
+    void keyPairsArePooledPerKeyType() throws InterruptedException {
+        pool.prefill(KeyType.EC_P256);
+        awaitReady(KeyType.EC_P256);
+        Assertions.assertThat(pool.getReadyCount(KeyType.RSA_2048)).isZero();
+
+        KeyPair rsa = pool.take(KeyType.RSA_2048);
+        Assertions.assertThat(rsa.getPrivate()).isInstanceOf(RSAKey.class);
+        Assertions.assertThat(((RSAKey) rsa.getPrivate()).getModulus().bitLength()).isEqualTo(2048);
+        Assertions.assertThat(pool.take(KeyType.EC_P256).getPrivate()).isInstanceOf(ECKey.class);
+    }
+
+    @Test
+    void exhaustedPoolStillHandsOutDistinctKeyPairs() throws InterruptedException {
+        pool.prefill(KeyType.EC_P256);
+        awaitReady(KeyType.EC_P256);
+
+        Set<KeyPair> taken = new HashSet<>();
+        for (int i = 0; i < POOL_SIZE * 3; i++) {
+            taken.add(pool.take(KeyType.EC_P256));
+        }
+        Assertions.assertThat(taken).hasSize(POOL_SIZE * 3);
+        // every take refills the pool in the background
+        awaitReady(KeyType.EC_P256);
+    }
+
+    private void awaitReady(KeyType keyType) throws InterruptedException {
+        Assertions.assertThat(pool.awaitFilled(keyType, PREFILL_TIMEOUT_MS)).isTrue();
+        Assertions.assertThat(pool.getReadyCount(keyType)).isEqualTo(POOL_SIZE);
+    }
+}
@@ -6,6 +6,7 @@ package io.brokerqe.claire;
 
 import io.brokerqe.claire.executor.ExecutorOperator;
 import io.brokerqe.claire.helpers.DataStorer;
+import io.brokerqe.claire.helpers.PodLogWatcher;
 import io.brokerqe.claire.security.CertificateManager;
 import io.brokerqe.claire.security.KeyStoreData;
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -61,6 +62,7 @@ import java.util.Base64;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -759,6 +761,34 @@ public class KubeClient {
         }
     }
 
+    /**
+     * Follows the log of the pod over a single streaming connection. Close the returned watcher when done.
+     */
+    public PodLogWatcher watchLogsFromPod(Pod pod) {
+        return watchLogsFromPod(pod, null);
+    }
+
+    public PodLogWatcher watchLogsFromPod(Pod pod, String containerName) {
+        String watcherName = pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName();
+        if (containerName == null) {
+            return new PodLogWatcher(watcherName, getKubernetesClient().pods().inNamespace(pod.getMetadata().getNamespace()).resource(pod));
+        } else {
+            return new PodLogWatcher(watcherName + "/" + containerName,
+                    getKubernetesClient().pods().inNamespace(pod.getMetadata().getNamespace()).resource(pod).inContainer(containerName));
+        }
+    }
+
+    /**
+     * Waits until the pattern shows up in the pod log, streaming the log only once.
+     *
+     * @return the first matching log line
+     */
+    public String waitForLogInPod(Pod pod, Pattern pattern, long timeoutMs) {
+        try (PodLogWatcher watcher = watchLogsFromPod(pod)) {
+            return watcher.waitFor(pattern, timeoutMs);
+        }
+    }
+
     public void createConfigMap(String namespaceName, ConfigMap configMap) {
         configMap = client.configMaps().inNamespace(namespaceName).resource(configMap).createOrReplace();
         DataStorer.dumpResourceToFile(configMap);
@@ -9,35 +9,50 @@ import io.amq.broker.v1beta1.ActiveMQArtemisAddress;
 import io.amq.broker.v1beta1.ActiveMQArtemisSecurity;
 import io.brokerqe.claire.junit.TestSeparator;
 import io.brokerqe.claire.operator.ArtemisCloudClusterOperator;
-import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.Event;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.MicroTime;
-import io.fabric8.kubernetes.api.model.PersistentVolume;
-import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.Secret;
-import io.fabric8.kubernetes.api.model.Service;
-import io.fabric8.kubernetes.api.model.apps.Deployment;
-import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
-import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
 import io.fabric8.kubernetes.client.utils.Serialization;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 public class OperatorTestDataCollector extends TestDataCollector {
     static final Logger LOGGER = LoggerFactory.getLogger(OperatorTestDataCollector.class);
+    private static final int MAX_COLLECTOR_THREADS = 16;
+    private static final long COLLECTION_TIMEOUT = Constants.DURATION_5_MINUTES;
+    private static final List<String> BROKER_ETC_FILES = List.of("artemis-roles.properties", "artemis.profile",
+            "broker.xml", "jolokia-access.xml", "login.config", "artemis-users.properties", "bootstrap.xml",
+            "jgroups-ping.xml", "logging.properties", "management.xml");
+    // collect /amq/extra/ mounted configuration files + possibly /etc/<cr-name>-secret-name
+    private static final String BROKER_EXTRA_DIR = "amq/extra";
+
     KubeClient kubeClient;
+    private ExecutorService executor;
 
     private ArtemisCloudClusterOperator getOperatorDifferentNamespace() {
         LOGGER.error("Not implemented yet!");
@@ -48,101 +63,154 @@ public class OperatorTestDataCollector extends TestDataCollector {
     protected void collectTestData() {
         List<String> testNamespaces = getTestNamespaces();
         boolean useClusterDir = ResourceManager.getKubeClients().size() > 1;
-        for (KubeClient kubeClientTmp : ResourceManager.getKubeClients()) {
-            this.kubeClient = kubeClientTmp;
-            ResourceManager.setKubeClient(kubeClientTmp);
-            String archiveDirTmp = archiveDir + Constants.FILE_SEPARATOR;
-//        kubeClient = (KubeClient) getTestInstanceDeclaredField(testInstance, "client");
-            if (useClusterDir) {
+        long deadline = System.currentTimeMillis() + COLLECTION_TIMEOUT;
+        executor = Executors.newFixedThreadPool(MAX_COLLECTOR_THREADS);
+        try {
+            for (KubeClient kubeClientTmp : ResourceManager.getKubeClients()) {
+                this.kubeClient = kubeClientTmp;
+                ResourceManager.setKubeClient(kubeClientTmp);
+                String archiveDirTmp = archiveDir + Constants.FILE_SEPARATOR;
+//            kubeClient = (KubeClient) getTestInstanceDeclaredField(testInstance, "client");
                 String clusterName = kubeClient.getKubernetesClient().getMasterUrl().getHost();
-                archiveDirTmp += clusterName;
-                LOGGER.info("[{}] Error detected! Will gather data from namespace: {}", clusterName, String.join(" ", testNamespaces));
-            } else {
-                LOGGER.info("Error detected! Will gather data from namespace: {}", String.join(" ", testNamespaces));
-            }
+                if (useClusterDir) {
+                    archiveDirTmp += clusterName;
+                    LOGGER.info("[{}] Error detected! Will gather data from namespace: {}", clusterName, String.join(" ", testNamespaces));
+                } else {
+                    LOGGER.info("Error detected! Will gather data from namespace: {}", String.join(" ", testNamespaces));
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    LOGGER.warn("[{}] Debug data gathering budget of {}s exhausted - skipping", clusterName, COLLECTION_TIMEOUT / 1000);
+                    continue;
+                }
 
-            for (String testNamespace : testNamespaces) {
-                archiveDirTmp += Constants.FILE_SEPARATOR + testNamespace;
-                TestUtils.createDirectory(archiveDirTmp);
-                LOGGER.debug("[{}] Gathering debug data for failed {}#{} into {}", testNamespace, testClass, testMethod, archiveDirTmp);
-
-                List<Deployment> deployments = kubeClient.getKubernetesClient().apps().deployments().inNamespace(testNamespace).list().getItems();
-                List<StatefulSet> statefulSets = kubeClient.getKubernetesClient().apps().statefulSets().inNamespace(testNamespace).list().getItems();
-                List<ReplicaSet> replicaSets = kubeClient.getKubernetesClient().apps().replicaSets().inNamespace(testNamespace).list().getItems();
-                List<ConfigMap> configMaps = kubeClient.getKubernetesClient().configMaps().inNamespace(testNamespace).list().getItems();
-                List<PersistentVolumeClaim> persistentVolumeClaims = kubeClient.getKubernetesClient().persistentVolumeClaims().inNamespace(testNamespace).list().getItems();
-                List<PersistentVolume> persistentVolumes = kubeClient.getKubernetesClient().persistentVolumes().list().getItems();
-                List<Service> services = kubeClient.getKubernetesClient().services().inNamespace(testNamespace).list().getItems();
-                List<Secret> secrets = kubeClient.getKubernetesClient().secrets().inNamespace(testNamespace).list().getItems();
-                List<Event> events = kubeClient.getKubernetesClient().v1().events().inNamespace(testNamespace).list().getItems();
-                List<Pod> pods = kubeClient.getKubernetesClient().pods().inNamespace(testNamespace).list().getItems();
-                List<ActiveMQArtemis> artemises = ResourceManager.getArtemisClient().inNamespace(testNamespace).list().getItems();
-                List<ActiveMQArtemisAddress> artemisAddresses = ResourceManager.getArtemisAddressClient().inNamespace(testNamespace).list().getItems();
-                List<ActiveMQArtemisSecurity> artemisSecurities = ResourceManager.getArtemisSecurityClient().inNamespace(testNamespace).list().getItems();
-
-                writeHasMetadataObject(deployments, archiveDirTmp);
-                writeHasMetadataObject(statefulSets, archiveDirTmp);
-                writeHasMetadataObject(replicaSets, archiveDirTmp);
-                writeHasMetadataObject(configMaps, archiveDirTmp);
-                writeHasMetadataObject(persistentVolumeClaims, archiveDirTmp);
-                writeHasMetadataObject(persistentVolumes, archiveDirTmp);
-                writeHasMetadataObject(services, archiveDirTmp);
-                writeHasMetadataObject(secrets, archiveDirTmp);
-                writeHasMetadataObject(pods, archiveDirTmp);
-                writeHasMetadataObject(artemises, archiveDirTmp);
-                writeHasMetadataObject(artemisAddresses, archiveDirTmp);
-                writeHasMetadataObject(artemisSecurities, archiveDirTmp);
-                writeEvents(events, archiveDirTmp);
-                collectPodLogs(pods, archiveDirTmp);
-                collectBrokerPodFiles(pods, archiveDirTmp);
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (String testNamespace : testNamespaces) {
+                    String namespaceDir = archiveDirTmp + Constants.FILE_SEPARATOR + testNamespace;
+                    TestUtils.createDirectory(namespaceDir);
+                    LOGGER.debug("[{}] Gathering debug data for failed {}#{} into {}", testNamespace, testClass, testMethod, namespaceDir);
+                    futures.addAll(collectNamespaceData(kubeClient.getKubernetesClient(), testNamespace, namespaceDir));
+                }
+                awaitCollection(clusterName, futures, deadline);
             }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void collectBrokerPodFiles(List<Pod> pods, String archiveLocation) {
-        List<String> fileList = List.of("artemis-roles.properties", "artemis.profile", "broker.xml", "jolokia-access.xml",
-                "login.config", "artemis-users.properties", "bootstrap.xml", "jgroups-ping.xml", "logging.properties", "management.xml");
-        final String amqBrokerEtcHome = ArtemisConstants.CONTAINER_BROKER_HOME_ETC_DIR;
-        for (Pod pod : pods) {
-            if (pod.getMetadata().getLabels().containsKey(ArtemisConstants.LABEL_ACTIVEMQARTEMIS)) {
-                String dirName = archiveLocation + Constants.FILE_SEPARATOR + "broker_etc" + Constants.FILE_SEPARATOR + pod.getMetadata().getName();
-                TestUtils.createDirectory(dirName);
-
-                for (String file : fileList) {
-                    String outputFileName = dirName + Constants.FILE_SEPARATOR + file;
-                    String podFileName = amqBrokerEtcHome + file;
-                    kubeClient.getKubernetesClient().pods().inNamespace(pod.getMetadata().getNamespace())
-                         .withName(pod.getMetadata().getName()).file(podFileName).copy(Paths.get(outputFileName));
-                }
-                // collect /amq/extra/ mounted configuration files + possibly /etc/<cr-name>-secret-name
-                String output = kubeClient.executeCommandInPod(pod, "find /amq/extra/ -type f", Constants.DURATION_10_SECONDS);
-                for (String file : output.split("\n")) {
-                    String outputDirName = dirName + Constants.FILE_SEPARATOR + "container" + Constants.FILE_SEPARATOR + Paths.get(file).getFileName();
-                    kubeClient.getKubernetesClient().pods().inNamespace(pod.getMetadata().getNamespace())
-                            .withName(pod.getMetadata().getName()).file(file).copy(Paths.get(outputDirName));
-                }
+    private List<CompletableFuture<Void>> collectNamespaceData(KubernetesClient client, String namespace, String archiveLocation) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(runAsync(namespace, "deployments", () ->
+                writeHasMetadataObject(client.apps().deployments().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "statefulsets", () ->
+                writeHasMetadataObject(client.apps().statefulSets().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "replicasets", () ->
+                writeHasMetadataObject(client.apps().replicaSets().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "configmaps", () ->
+                writeHasMetadataObject(client.configMaps().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "persistentvolumeclaims", () ->
+                writeHasMetadataObject(client.persistentVolumeClaims().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "persistentvolumes", () ->
+                writeHasMetadataObject(client.persistentVolumes().list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "services", () ->
+                writeHasMetadataObject(client.services().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "secrets", () ->
+                writeHasMetadataObject(client.secrets().inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "activemqartemises", () ->
+                writeHasMetadataObject(client.resources(ActiveMQArtemis.class).inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "activemqartemisaddresses", () ->
+                writeHasMetadataObject(client.resources(ActiveMQArtemisAddress.class).inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "activemqartemissecurities", () ->
+                writeHasMetadataObject(client.resources(ActiveMQArtemisSecurity.class).inNamespace(namespace).list().getItems(), archiveLocation)));
+        futures.add(runAsync(namespace, "events", () ->
+                writeEvents(client.v1().events().inNamespace(namespace).list().getItems(), archiveLocation)));
+
+        // pods are listed once, then their logs and broker files are fetched in parallel
+        futures.add(CompletableFuture.supplyAsync(() -> client.pods().inNamespace(namespace).list().getItems(), executor)
+                .thenCompose(pods -> {
+                    List<CompletableFuture<Void>> podFutures = new ArrayList<>();
+                    podFutures.add(runAsync(namespace, "pods", () -> writeHasMetadataObject(pods, archiveLocation)));
+                    for (Pod pod : pods) {
+                        String podName = pod.getMetadata().getName();
+                        podFutures.add(runAsync(namespace, "logs of pod " + podName, () -> collectPodLogs(client, pod, archiveLocation)));
+                        if (pod.getMetadata().getLabels().containsKey(ArtemisConstants.LABEL_ACTIVEMQARTEMIS)) {
+                            podFutures.add(runAsync(namespace, "broker files of pod " + podName, () -> collectBrokerPodFiles(client, pod, archiveLocation)));
+                        }
+                    }
+                    return CompletableFuture.allOf(podFutures.toArray(new CompletableFuture[0]));
+                })
+                .exceptionally(e -> logCollectionError(namespace, "pods", e)));
+        return futures;
+    }
+
+    private CompletableFuture<Void> runAsync(String namespace, String description, Runnable task) {
+        return CompletableFuture.runAsync(task, executor).exceptionally(e -> logCollectionError(namespace, description, e));
+    }
+
+    private Void logCollectionError(String namespace, String description, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        LOGGER.error("[{}] Unable to gather {} - skipping. {}", namespace, description, cause.getMessage());
+        return null;
+    }
+
+    private void awaitCollection(String clusterName, List<CompletableFuture<Void>> futures, long deadline) {
+        CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        try {
+            allFutures.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            long unfinished = futures.stream().filter(future -> !future.isDone()).count();
+            LOGGER.warn("[{}] Debug data gathering did not finish within {}s budget, abandoning {} unfinished task(s)",
+                    clusterName, COLLECTION_TIMEOUT / 1000, unfinished);
+            futures.forEach(future -> future.cancel(true));
+        } catch (ExecutionException e) {
+            LOGGER.error("[{}] Unable to gather debug data: {}", clusterName, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Streams broker etc files and mounted extra configuration out of the pod in a single tar archive.
+     */
+    private void collectBrokerPodFiles(KubernetesClient client, Pod pod, String archiveLocation) {
+        String namespace = pod.getMetadata().getNamespace();
+        String podName = pod.getMetadata().getName();
+        String dirName = archiveLocation + Constants.FILE_SEPARATOR + "broker_etc" + Constants.FILE_SEPARATOR + podName;
+        TestUtils.createDirectory(dirName);
+
+        String tarCmd = "tar -cf - --ignore-failed-read -C " + ArtemisConstants.CONTAINER_BROKER_HOME_ETC_DIR + " "
+                + String.join(" ", BROKER_ETC_FILES) + " -C / " + BROKER_EXTRA_DIR + " 2>/dev/null";
+        try (ExecWatch execWatch = client.pods().inNamespace(namespace).withName(podName).redirectingOutput()
+                .exec("/bin/bash", "-c", tarCmd)) {
+            TestUtils.unTar(execWatch.getOutput(), dirName);
+            // drain tar record padding, so the exec can finish
+            execWatch.getOutput().transferTo(OutputStream.nullOutputStream());
+            Integer exitCode = execWatch.exitCode().get(Constants.DURATION_10_SECONDS, TimeUnit.MILLISECONDS);
+            if (exitCode != null && exitCode != 0) {
+                LOGGER.warn("[{}] Broker files archive of pod {} finished with exit code {}", namespace, podName, exitCode);
             }
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            LOGGER.error("[{}] Unable to get broker files of pod {} - skipping. {}", namespace, podName, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void collectPodLogs(List<Pod> pods, String archiveLocation) {
-        for (Pod pod : pods) {
-            String dirName = archiveLocation + Constants.FILE_SEPARATOR + "logs";
-            String containerName = null;
-            List<Container> containers = pod.getSpec().getContainers();
-            containers.addAll(pod.getSpec().getInitContainers());
-            try {
-                for (Container container : containers) {
-                    containerName = container.getName();
-                    String fileName = dirName + Constants.FILE_SEPARATOR + "pod_" + pod.getMetadata().getName() + "_c_" + containerName + ".log";
-                    String containerLog = kubeClient.getKubernetesClient().pods().inNamespace(pod.getMetadata().getNamespace())
-                            .withName(pod.getMetadata().getName()).inContainer(containerName).getLog();
-
-                    TestUtils.createDirectory(dirName);
-                    TestUtils.createFile(fileName, containerLog);
-                }
-            } catch (KubernetesClientException e) {
-                LOGGER.error("[{}] Unable to get pod/container logs {} - skipping. {}", pod.getMetadata().getNamespace(), pod.getMetadata().getName() + "/" + containerName, e.getMessage());
+    private void collectPodLogs(KubernetesClient client, Pod pod, String archiveLocation) {
+        String namespace = pod.getMetadata().getNamespace();
+        String podName = pod.getMetadata().getName();
+        String dirName = archiveLocation + Constants.FILE_SEPARATOR + "logs";
+        List<Container> containers = new ArrayList<>(pod.getSpec().getContainers());
+        containers.addAll(pod.getSpec().getInitContainers());
+        TestUtils.createDirectory(dirName);
+        for (Container container : containers) {
+            String containerName = container.getName();
+            String fileName = dirName + Constants.FILE_SEPARATOR + "pod_" + podName + "_c_" + containerName + ".log";
+            try (InputStream containerLog = client.pods().inNamespace(namespace).withName(podName).inContainer(containerName)
+                    .getLogInputStream()) {
+                Files.copy(containerLog, Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING);
+            } catch (KubernetesClientException | IOException e) {
+                LOGGER.error("[{}] Unable to get pod/container logs {} - skipping. {}", namespace, podName + "/" + containerName, e.getMessage());
             }
         }
     }
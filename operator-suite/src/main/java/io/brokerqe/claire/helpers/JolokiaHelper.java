@@ -5,6 +5,10 @@
 package io.brokerqe.claire.helpers;
 
 import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,12 +19,26 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class JolokiaHelper {
 
     static final Logger LOGGER = LoggerFactory.getLogger(JolokiaHelper.class);
 
+    // HttpClient keeps a connection pool, so it is shared by all requests to all brokers
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(Constants.DURATION_30_SECONDS))
+            .build();
 
     private static URI getJolokiaAddress(String host, String requestPath) {
         String jolokiaParams = ArtemisConstants.JOLOKIA_CALL_ENDPOINT + ArtemisConstants.JOLOKIA_BROKER_PARAM + requestPath;
@@ -37,26 +55,37 @@ public class JolokiaHelper {
         return getJolokiaAddress(host, ArtemisConstants.JOLOKIA_ADDRESSETTINGS_ENDPOINT + queue + "/");
     }
 
+    private static URI getJolokiaBulkAddress(String host) {
+        try {
+            return new URI("http://" + host + ArtemisConstants.JOLOKIA_ENDPOINT);
+        } catch (URISyntaxException e) {
+            LOGGER.error("URISyntaxException; incorrect host? Params: host={}\n message: {}", host, e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String getBasicAuth(String user, String pass) {
+        String userpass = user + ":" + pass;
+        return "Basic " + Base64.getEncoder().encodeToString(userpass.getBytes(StandardCharsets.UTF_8));
+    }
+
     public static String getAddressSettings(String host, String queue) {
         return getAddressSettings(host, queue, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS);
     }
 
     public static Boolean checkJolokiaConnection(String host) {
         HttpRequest request = null;
-        String userpass = ArtemisConstants.ADMIN_NAME + ":" + ArtemisConstants.ADMIN_PASS;
-        String basicAuth = new String(Base64.getEncoder().encode(userpass.getBytes()));
         try {
             request = HttpRequest.newBuilder(getJolokiaAddress(host, ArtemisConstants.JOLOKIA_STATUS_ENDPOINT))
                     .header("Origin", ArtemisConstants.JOLOKIA_ORIGIN_HEADER)
-                    .header("Authorization", "Basic " + basicAuth)
+                    .header("Authorization", getBasicAuth(ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS))
                     .GET()
                     .build();
         } catch (Exception e) {
             return false;
         }
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<Void> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
             return response.statusCode() == HttpURLConnection.HTTP_OK;
         } catch (Exception e) {
             return false;
@@ -73,20 +102,17 @@ public class JolokiaHelper {
      */
     public static String getAddressSettings(String host, String queue, String user, String pass) {
         HttpRequest request = null;
-        String userpass =  ArtemisConstants.ADMIN_NAME + ":" + ArtemisConstants.ADMIN_PASS;
-        String basicAuth = new String(Base64.getEncoder().encode(userpass.getBytes()));
         try {
             request = HttpRequest.newBuilder(getJolokiaAddressCallURL(host, queue))
                     //   .header("Origin", JOLOKIA_ORIGIN_HEADER) - disabled!
-                    .header("Authorization", "Basic " + basicAuth)
+                    .header("Authorization", getBasicAuth(user, pass))
                     .GET()
                     .build();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() != HttpURLConnection.HTTP_OK) {
                 throw new RuntimeException("Unexpected response from Jolokia: " + response.statusCode());
             }
@@ -96,4 +122,71 @@ public class JolokiaHelper {
         }
     }
 
+    /**
+     * Gets address settings of all given addresses in a single Jolokia bulk request.
+     *
+     * @param host  hostname (and port) of broker web console
+     * @param addresses addresses (or queues) for which address settings are retrieved
+     * @return address settings JSON keyed by address, in the order of the given addresses
+     */
+    public static Map<String, JSONObject> getAddressSettings(String host, List<String> addresses) {
+        List<JolokiaRequest> requests = addresses.stream()
+                .map(address -> JolokiaRequest.exec(ArtemisConstants.JOLOKIA_BROKER_MBEAN, "getAddressSettingsAsJSON", address))
+                .toList();
+        List<JolokiaResponse> responses = bulkRequest(host, requests);
+        Map<String, JSONObject> settings = new LinkedHashMap<>();
+        for (int i = 0; i < addresses.size(); i++) {
+            settings.put(addresses.get(i), responses.get(i).getValueAsJson());
+        }
+        return settings;
+    }
+
+    public static List<JolokiaResponse> bulkRequest(String host, List<JolokiaRequest> requests) {
+        return bulkRequest(host, requests, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS);
+    }
+
+    public static List<JolokiaResponse> bulkRequest(String host, List<JolokiaRequest> requests, String user, String pass) {
+        try {
+            return bulkRequestAsync(host, requests, user, pass).get(Constants.DURATION_1_MINUTE, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            String errMsg = String.format("Error on Jolokia bulk request to %s: %s", host, e.getCause().getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e.getCause());
+        } catch (TimeoutException e) {
+            String errMsg = String.format("Jolokia bulk request to %s did not finish in time", host);
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException("Interrupted while waiting for Jolokia bulk request to " + host, e);
+        }
+    }
+
+    /**
+     * Sends all requests to Jolokia in a single HTTP round trip.
+     *
+     * @return responses in the order of the given requests
+     */
+    public static CompletableFuture<List<JolokiaResponse>> bulkRequestAsync(String host, List<JolokiaRequest> requests,
+                                                                          String user, String pass) {
+        JSONArray body = new JSONArray();
+        requests.forEach(request -> body.put(request.toJson()));
+        HttpRequest httpRequest = HttpRequest.newBuilder(getJolokiaBulkAddress(host))
+                .header("Authorization", getBasicAuth(user, pass))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        LOGGER.debug("[Jolokia] Sending bulk request with {} operations to {}", requests.size(), host);
+        return HTTP_CLIENT.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                throw new ClaireRuntimeException("Unexpected response from Jolokia: " + response.statusCode());
+            }
+            JSONArray results = new JSONArray(response.body());
+            List<JolokiaResponse> responses = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) {
+                responses.add(new JolokiaResponse(requests.get(i), results.getJSONObject(i)));
+            }
+            return responses;
+        });
+    }
 }
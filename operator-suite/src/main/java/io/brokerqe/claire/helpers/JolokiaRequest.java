@@ -0,0 +1,50 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.helpers;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+
+/**
+ * Single Jolokia read or exec operation, which can be sent alone or as part of a bulk request.
+ */
+public final class JolokiaRequest {
+
+    private final JSONObject json;
+
+    private JolokiaRequest(JSONObject json) {
+        this.json = json;
+    }
+
+    public static JolokiaRequest read(String mbean, String attribute) {
+        return new JolokiaRequest(new JSONObject()
+                .put("type", "read")
+                .put("mbean", mbean)
+                .put("attribute", attribute));
+    }
+
+    public static JolokiaRequest exec(String mbean, String operation, Object... arguments) {
+        return new JolokiaRequest(new JSONObject()
+                .put("type", "exec")
+                .put("mbean", mbean)
+                .put("operation", operation)
+                .put("arguments", new JSONArray(Arrays.asList(arguments))));
+    }
+
+    public String getMbean() {
+        return json.getString("mbean");
+    }
+
+    JSONObject toJson() {
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+}
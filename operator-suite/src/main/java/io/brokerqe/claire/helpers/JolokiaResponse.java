@@ -0,0 +1,88 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.helpers;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Typed result of a single Jolokia operation.
+ */
+public final class JolokiaResponse {
+
+    private final JolokiaRequest request;
+    private final int status;
+    private final Object value;
+    private final String error;
+
+    JolokiaResponse(JolokiaRequest request, JSONObject json) {
+        this.request = request;
+        this.status = json.optInt("status", -1);
+        this.value = json.opt("value");
+        this.error = json.optString("error", null);
+    }
+
+    public JolokiaRequest getRequest() {
+        return request;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == HttpURLConnection.HTTP_OK;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Object getValue() {
+        ensureSuccess();
+        return value == JSONObject.NULL ? null : value;
+    }
+
+    public String getValueAsString() {
+        Object result = getValue();
+        return result == null ? null : result.toString();
+    }
+
+    public long getValueAsLong() {
+        return ((Number) getValue()).longValue();
+    }
+
+    public boolean getValueAsBoolean() {
+        return (Boolean) getValue();
+    }
+
+    /**
+     * @return value as JSON object; values returned by operations as JSON encoded strings (e.g.
+     *         getAddressSettingsAsJSON) are parsed as well
+     */
+    public JSONObject getValueAsJson() {
+        Object result = getValue();
+        return result instanceof JSONObject jsonValue ? jsonValue : new JSONObject(result.toString());
+    }
+
+    public JSONArray getValueAsJsonArray() {
+        Object result = getValue();
+        return result instanceof JSONArray jsonValue ? jsonValue : new JSONArray(result.toString());
+    }
+
+    private void ensureSuccess() {
+        if (!isSuccess()) {
+            throw new ClaireRuntimeException(String.format("Jolokia request %s failed with status %d: %s", request, status, error));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? String.valueOf(value) : "status=" + status + ", error=" + error;
+    }
+}
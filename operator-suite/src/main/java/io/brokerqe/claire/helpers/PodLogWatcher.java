@@ -0,0 +1,155 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.helpers;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.exception.WaitException;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Follows a pod (container) log over a single streaming connection and evaluates registered patterns line by line as
+ * the log arrives. The log is streamed from its beginning, so patterns registered before {@link #start()} are
+ * evaluated against the whole log; patterns registered later only see lines that arrive after the registration.
+ */
+public class PodLogWatcher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PodLogWatcher.class);
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final String name;
+    private final Loggable loggable;
+    private final Map<Pattern, CompletableFuture<String>> patterns = new ConcurrentHashMap<>();
+    private LogWatch logWatch;
+    private volatile long linesRead;
+
+    public PodLogWatcher(String name, Loggable loggable) {
+        this.name = name;
+        this.loggable = loggable;
+    }
+
+    public synchronized PodLogWatcher start() {
+        if (logWatch == null) {
+            LOGGER.debug("[{}] Following pod log", name);
+            logWatch = loggable.watchLog(new LineMatchingOutputStream());
+        }
+        return this;
+    }
+
+    /**
+     * Registers the pattern to be looked for in following log lines.
+     *
+     * @param pattern precompiled pattern, matched with {@link Matcher#find()} against every log line
+     * @return future completed with the first matching line
+     */
+    public CompletableFuture<String> expect(Pattern pattern) {
+        return patterns.computeIfAbsent(pattern, p -> new CompletableFuture<>());
+    }
+
+    /**
+     * Waits until the pattern shows up in the log.
+     *
+     * @param pattern precompiled pattern
+     * @param timeoutMs max time to wait
+     * @return the first matching log line
+     */
+    public String waitFor(Pattern pattern, long timeoutMs) {
+        CompletableFuture<String> match = expect(pattern);
+        start();
+        try {
+            return match.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new WaitException("Timeout after " + timeoutMs + " ms waiting for " + pattern + " in log of " + name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException("Interrupted while waiting for " + pattern + " in log of " + name, e);
+        } catch (ExecutionException | CancellationException e) {
+            String errMsg = String.format("Error on following log of %s: %s", name, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (logWatch != null) {
+            logWatch.close();
+            logWatch = null;
+        }
+        patterns.values().forEach(future -> future.cancel(false));
+        LOGGER.debug("[{}] Stopped following pod log after {} lines", name, linesRead);
+    }
+
+    private void processLine(String line) {
+        linesRead++;
+        if (patterns.isEmpty()) {
+            return;
+        }
+        patterns.forEach((pattern, future) -> {
+            if (!future.isDone() && pattern.matcher(line).find()) {
+                LOGGER.debug("[{}] Found {} in log line: {}", name, pattern, line);
+                future.complete(line);
+            }
+        });
+        patterns.values().removeIf(CompletableFuture::isDone);
+    }
+
+    /**
+     * Splits the streamed log into lines without keeping more than one (bounded) line in memory.
+     */
+    private final class LineMatchingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                flushLine();
+            } else if (b != '\r') {
+                line.write(b);
+                if (line.size() >= MAX_LINE_LENGTH) {
+                    flushLine();
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (line.size() > 0) {
+                flushLine();
+            }
+        }
+
+        private void flushLine() {
+            processLine(line.toString(StandardCharsets.UTF_8));
+            line.reset();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.monitoring;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Single Prometheus time series sample: metric name, label set and value (with optional exposition timestamp).
+ */
+public final class MetricSeries {
+
+    private final String name;
+    private final SortedMap<String, String> labels;
+    private final double value;
+    private final Long timestamp;
+
+    public MetricSeries(String name, Map<String, String> labels, double value, Long timestamp) {
+        this.name = name;
+        this.labels = Collections.unmodifiableSortedMap(new TreeMap<>(labels));
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SortedMap<String, String> getLabels() {
+        return labels;
+    }
+
+    public String getLabel(String labelName) {
+        return labels.get(labelName);
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return timestamp in ms exposed with the sample, or null when the exporter did not provide one
+     */
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return true if this series has all the given labels with the same values (other labels are ignored)
+     */
+    public boolean hasLabels(Map<String, String> expectedLabels) {
+        for (Map.Entry<String, String> label : expectedLabels.entrySet()) {
+            if (!label.getValue().equals(labels.get(label.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricSeries other)) {
+            return false;
+        }
+        return Double.compare(value, other.value) == 0 && name.equals(other.name) && labels.equals(other.labels)
+                && Objects.equals(timestamp, other.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, labels, value, timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return name + labels + " " + value;
+    }
+}
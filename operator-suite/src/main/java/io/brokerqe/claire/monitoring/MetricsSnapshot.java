@@ -0,0 +1,166 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.monitoring;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All series scraped from one metrics endpoint at one point in time, indexed by metric name and label set.
+ * Two snapshots of the same endpoint can be diffed to get counter increases and per-second rates.
+ */
+public final class MetricsSnapshot {
+
+    private final long capturedAt;
+    private final Map<String, Map<Map<String, String>, MetricSeries>> seriesByName;
+    private final Map<String, String> types;
+
+    MetricsSnapshot(long capturedAt, Map<String, Map<Map<String, String>, MetricSeries>> seriesByName, Map<String, String> types) {
+        this.capturedAt = capturedAt;
+        this.seriesByName = seriesByName;
+        this.types = types;
+    }
+
+    /**
+     * @return local time (ms since epoch) at which the scrape finished
+     */
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public Set<String> getMetricNames() {
+        return Collections.unmodifiableSet(seriesByName.keySet());
+    }
+
+    /**
+     * @return metric type declared by '# TYPE' (counter, gauge, ...), or null if it was not declared
+     */
+    public String getType(String name) {
+        return types.get(name);
+    }
+
+    public int size() {
+        return seriesByName.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public boolean containsMetric(String name) {
+        return seriesByName.containsKey(name);
+    }
+
+    /**
+     * @return true if any metric name contains the given text
+     */
+    public boolean containsMetricLike(String namePart) {
+        return seriesByName.keySet().stream().anyMatch(name -> name.contains(namePart));
+    }
+
+    public boolean contains(String name, Map<String, String> labels) {
+        return getSeries(name, labels) != null;
+    }
+
+    /**
+     * @return true if at least one series of the metric has (at least) the given labels
+     */
+    public boolean containsMatching(String name, Map<String, String> labels) {
+        return !findSeries(name, labels).isEmpty();
+    }
+
+    public List<MetricSeries> getSeries(String name) {
+        return List.copyOf(seriesByName.getOrDefault(name, Map.of()).values());
+    }
+
+    /**
+     * @return series with exactly the given label set, or null
+     */
+    public MetricSeries getSeries(String name, Map<String, String> labels) {
+        return seriesByName.getOrDefault(name, Map.of()).get(labels);
+    }
+
+    /**
+     * @return all series of the metric having (at least) the given labels
+     */
+    public List<MetricSeries> findSeries(String name, Map<String, String> labels) {
+        return seriesByName.getOrDefault(name, Map.of()).values().stream()
+                .filter(series -> series.hasLabels(labels))
+                .toList();
+    }
+
+    /**
+     * @return value of the series with exactly the given label set, or null when there is no such series
+     */
+    public Double getValue(String name, Map<String, String> labels) {
+        MetricSeries series = getSeries(name, labels);
+        return series == null ? null : series.getValue();
+    }
+
+    /**
+     * @return sum of all series of the metric having (at least) the given labels
+     */
+    public double sum(String name, Map<String, String> labels) {
+        return findSeries(name, labels).stream().mapToDouble(MetricSeries::getValue).sum();
+    }
+
+    /**
+     * Increase of every series of the metric since the previous snapshot. Counter resets (value went down) are
+     * handled as in Prometheus, the whole current value is taken as the increase. Series missing in the previous
+     * snapshot are treated as starting at zero.
+     *
+     * @return increase keyed by label set
+     */
+    public Map<Map<String, String>, Double> diff(MetricsSnapshot previous, String name) {
+        Map<Map<String, String>, Double> increases = new LinkedHashMap<>();
+        for (MetricSeries series : seriesByName.getOrDefault(name, Map.of()).values()) {
+            Double before = previous.getValue(name, series.getLabels());
+            increases.put(series.getLabels(), increase(before, series.getValue()));
+        }
+        return increases;
+    }
+
+    /**
+     * @return per-second rate of every series of the metric between the previous snapshot and this one
+     */
+    public Map<Map<String, String>, Double> rates(MetricsSnapshot previous, String name) {
+        double seconds = secondsSince(previous);
+        Map<Map<String, String>, Double> rates = new LinkedHashMap<>();
+        diff(previous, name).forEach((labels, increase) -> rates.put(labels, increase / seconds));
+        return rates;
+    }
+
+    /**
+     * @return per-second rate of the single series with exactly the given label set, or null if it is not exposed
+     */
+    public Double rate(MetricsSnapshot previous, String name, Map<String, String> labels) {
+        Double current = getValue(name, labels);
+        if (current == null) {
+            return null;
+        }
+        return increase(previous.getValue(name, labels), current) / secondsSince(previous);
+    }
+
+    private double secondsSince(MetricsSnapshot previous) {
+        long elapsedMs = capturedAt - previous.capturedAt;
+        if (elapsedMs <= 0) {
+            throw new ClaireRuntimeException("Previous metrics snapshot is not older than the current one");
+        }
+        return elapsedMs / 1000.0;
+    }
+
+    private static double increase(Double before, double after) {
+        if (before == null || after < before) {
+            return after;
+        }
+        return after - before;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{capturedAt=" + capturedAt + ", metrics=" + seriesByName.size() + ", series=" + size() + "}";
+    }
+}
@@ -11,6 +11,8 @@ import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.KubeClient;
 import io.brokerqe.claire.ResourceManager;
 import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.metrics.MetricsSampler;
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
 import io.fabric8.kubernetes.api.model.LabelSelectorBuilder;
@@ -21,13 +23,18 @@ import io.fabric8.openshift.api.model.monitoring.v1.ServiceMonitorBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
-import java.util.HashMap;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Prometheus {
     private static final Logger LOGGER = LoggerFactory.getLogger(Prometheus.class);
@@ -35,6 +42,10 @@ public class Prometheus {
     private static final String PROMETHEUS_CONFIGMAP = "cluster-monitoring-config";
     private static final String SERVICE_MONITOR = "broker-service-monitor";
 
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(Constants.DURATION_30_SECONDS))
+            .build();
+
     protected final String namespace;
     protected final KubeClient kubeClient;
 
@@ -105,26 +116,43 @@ public class Prometheus {
         kubeClient.getKubernetesClient().resource(serviceMonitor).inNamespace(namespace).createOrReplace();
     }
 
-    public HashMap<String, String> getMetrics(int index, String brokerName) {
+    /**
+     * Scrapes the metrics endpoint of the broker pod. The response body is parsed while it is being received.
+     */
+    public MetricsSnapshot getMetrics(int index, String brokerName) {
+        String metricsUrl = getMetricsUrl(index, brokerName);
         try {
-            HttpURLConnection con = (HttpURLConnection) TestUtils.makeHttpRequest(getMetricsUrl(index, brokerName), Constants.GET);
-            BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-            String inputLine;
-            HashMap<String, String> result = new HashMap<>();
-            while ((inputLine = in.readLine()) != null) {
-                if (!inputLine.startsWith("#")) {
-                    String[] data = inputLine.split(" ");
-                    result.put(data[0], data[1]);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(metricsUrl))
+                    .timeout(Duration.ofMillis(Constants.DURATION_1_MINUTE))
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (Reader reader = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+                if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                    throw new ClaireRuntimeException("Unexpected response code " + response.statusCode() + " from " + metricsUrl);
                 }
+                MetricsSnapshot snapshot = PrometheusTextParser.parse(reader);
+                LOGGER.debug("[{}] Scraped {} from {}", namespace, snapshot, metricsUrl);
+                return snapshot;
             }
-            in.close();
-            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException("Interrupted while retrieving metrics from " + brokerName, e);
         } catch (Exception e) {
             LOGGER.info("Failed to retrieve metrics from {}: {}", brokerName, e.getMessage());
-            throw new RuntimeException(e);
+            throw new ClaireRuntimeException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Starts scraping the metrics endpoint of the broker pod in the background, e.g. for the whole duration of a test.
+     * Render the charts with {@code sampler.render(PrometheusMetricsSource.CHARTS)} before closing it.
+     */
+    public MetricsSampler startMetricsSampler(int index, String brokerName, Path directory, long intervalMs) {
+        PrometheusMetricsSource source = new PrometheusMetricsSource(this, index, brokerName);
+        return new MetricsSampler(brokerName + "-" + index, directory, intervalMs, source).start();
+    }
+
     public String getMetricsUrl(String brokerName) {
         return getMetricsUrl(0, brokerName);
     }
@@ -137,26 +165,4 @@ public class Prometheus {
         kubeClient.getKubernetesClient().configMaps().inNamespace(Constants.MONITORING_NAMESPACE).withName(PROMETHEUS_CONFIGMAP).delete();
         waitForPrometheusPodsDeletion();
     }
-
-    public boolean metricsContainKey(Map<String, String> metrics, String expectedKey) {
-        for (String key : metrics.keySet()) {
-            if (key.contains(expectedKey)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    public boolean metricsContainKeyValue(Map<String, String> metrics, String expectedRegexKey) {
-        Pattern pattern = Pattern.compile(expectedRegexKey);
-        for (String key : metrics.keySet()) {
-            Matcher matcher = pattern.matcher(key);
-            if (matcher.find()) {
-                LOGGER.debug("[metrics] Found pattern {} in key {}", expectedRegexKey, key);
-                LOGGER.debug("matcher group={}", matcher.group());
-                return true;
-            }
-        }
-        return false;
-    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.monitoring;
+
+import io.brokerqe.claire.metrics.MetricsChart;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Scrapes the metrics endpoint of a broker pod and flattens every series into a "name{label=value,...}" column,
+ * as a source of {@link io.brokerqe.claire.metrics.MetricsSampler}.
+ */
+public class PrometheusMetricsSource implements Supplier<Map<String, Double>> {
+
+    public static final List<MetricsChart> CHARTS = List.of(
+            MetricsChart.of("Queue depth", "artemis_message_count\\{.*"),
+            MetricsChart.of("Memory", "jvm_memory_used_bytes\\{.*area=heap.*|artemis_address_memory_usage(\\{.*)?"),
+            MetricsChart.of("Paging", "artemis_number_of_pages\\{.*"),
+            MetricsChart.rateOf("Throughput", "artemis_messages_(added|acknowledged)\\{.*")
+    );
+
+    private final Prometheus prometheus;
+    private final int podIndex;
+    private final String brokerName;
+
+    public PrometheusMetricsSource(Prometheus prometheus, int podIndex, String brokerName) {
+        this.prometheus = prometheus;
+        this.podIndex = podIndex;
+        this.brokerName = brokerName;
+    }
+
+    @Override
+    public Map<String, Double> get() {
+        MetricsSnapshot snapshot = prometheus.getMetrics(podIndex, brokerName);
+        Map<String, Double> columns = new LinkedHashMap<>();
+        for (String name : snapshot.getMetricNames()) {
+            for (MetricSeries series : snapshot.getSeries(name)) {
+                columns.put(toColumnName(series), series.getValue());
+            }
+        }
+        return columns;
+    }
+
+    static String toColumnName(MetricSeries series) {
+        if (series.getLabels().isEmpty()) {
+            return series.getName();
+        }
+        return series.getLabels().entrySet().stream()
+                .map(label -> label.getKey() + "=" + label.getValue())
+                .collect(Collectors.joining(",", series.getName() + "{", "}"));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.monitoring;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parser of the Prometheus text exposition format (version 0.0.4). Lines are parsed one by one as they are read,
+ * so the whole scrape is never held in memory as text. Label values may contain spaces, commas and escaped
+ * characters; special values (NaN, +Inf, -Inf) and optional timestamps are supported.
+ */
+public final class PrometheusTextParser {
+
+    private static final String TYPE_PREFIX = "# TYPE ";
+
+    private final Map<String, Map<Map<String, String>, MetricSeries>> seriesByName = new LinkedHashMap<>();
+    private final Map<String, String> types = new HashMap<>();
+    private final StringBuilder buffer = new StringBuilder();
+    private String line;
+    private int pos;
+    private int lineNumber;
+
+    private PrometheusTextParser() {
+    }
+
+    public static MetricsSnapshot parse(Reader reader) throws IOException {
+        PrometheusTextParser parser = new PrometheusTextParser();
+        BufferedReader lineReader = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+        String inputLine;
+        while ((inputLine = lineReader.readLine()) != null) {
+            parser.parseLine(inputLine);
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), parser.seriesByName, parser.types);
+    }
+
+    private void parseLine(String inputLine) {
+        line = inputLine;
+        pos = 0;
+        lineNumber++;
+        skipWhitespace();
+        if (pos == line.length()) {
+            return;
+        }
+        if (line.charAt(pos) == '#') {
+            if (line.startsWith(TYPE_PREFIX, pos)) {
+                String[] typeDeclaration = line.substring(pos + TYPE_PREFIX.length()).trim().split("\\s+");
+                if (typeDeclaration.length == 2) {
+                    types.put(typeDeclaration[0], typeDeclaration[1]);
+                }
+            }
+            return;
+        }
+
+        String name = readName();
+        Map<String, String> labels = Map.of();
+        skipWhitespace();
+        if (pos < line.length() && line.charAt(pos) == '{') {
+            labels = readLabels();
+        }
+        skipWhitespace();
+        double value = parseValue(readToken());
+        skipWhitespace();
+        Long timestamp = null;
+        if (pos < line.length()) {
+            timestamp = Long.parseLong(readToken());
+        }
+        MetricSeries series = new MetricSeries(name, labels, value, timestamp);
+        seriesByName.computeIfAbsent(name, key -> new LinkedHashMap<>()).put(series.getLabels(), series);
+    }
+
+    private String readName() {
+        int start = pos;
+        while (pos < line.length() && isNameChar(line.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw parseError("metric name expected");
+        }
+        return line.substring(start, pos);
+    }
+
+    private Map<String, String> readLabels() {
+        Map<String, String> labels = new HashMap<>();
+        pos++; // '{'
+        while (true) {
+            skipWhitespace();
+            expectMoreInput();
+            if (line.charAt(pos) == '}') {
+                pos++;
+                return labels;
+            }
+            String labelName = readName();
+            skipWhitespace();
+            expect('=');
+            skipWhitespace();
+            expect('"');
+            labels.put(labelName, readLabelValue());
+            skipWhitespace();
+            expectMoreInput();
+            if (line.charAt(pos) == ',') {
+                pos++;
+            }
+        }
+    }
+
+    private String readLabelValue() {
+        buffer.setLength(0);
+        while (true) {
+            expectMoreInput();
+            char c = line.charAt(pos++);
+            if (c == '"') {
+                return buffer.toString();
+            }
+            if (c == '\\') {
+                expectMoreInput();
+                char escaped = line.charAt(pos++);
+                buffer.append(escaped == 'n' ? '\n' : escaped);
+            } else {
+                buffer.append(c);
+            }
+        }
+    }
+
+    private String readToken() {
+        int start = pos;
+        while (pos < line.length() && !Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw parseError("value expected");
+        }
+        return line.substring(start, pos);
+    }
+
+    private double parseValue(String token) {
+        switch (token) {
+            case "NaN":
+                return Double.NaN;
+            case "+Inf":
+                return Double.POSITIVE_INFINITY;
+            case "-Inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                try {
+                    return Double.parseDouble(token);
+                } catch (NumberFormatException e) {
+                    throw parseError("invalid value '" + token + "'");
+                }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < line.length() && (line.charAt(pos) == ' ' || line.charAt(pos) == '\t')) {
+            pos++;
+        }
+    }
+
+    private void expect(char expected) {
+        expectMoreInput();
+        if (line.charAt(pos) != expected) {
+            throw parseError("'" + expected + "' expected");
+        }
+        pos++;
+    }
+
+    private void expectMoreInput() {
+        if (pos >= line.length()) {
+            throw parseError("unexpected end of line");
+        }
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) && c < 128 || c == '_' || c == ':';
+    }
+
+    private ClaireRuntimeException parseError(String reason) {
+        return new ClaireRuntimeException(String.format("Error on parsing Prometheus metrics line %d (%s) at position %d: %s",
+                lineNumber, reason, pos, line));
+    }
+}
@@ -6,6 +6,7 @@ package io.brokerqe.claire.security;
 
 import io.amq.broker.v1beta1.ActiveMQArtemis;
 import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.ArtifactCache;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.EnvironmentOperator;
 import io.brokerqe.claire.KubeClient;
@@ -30,6 +31,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -201,7 +203,9 @@ public class Keycloak {
             for (URL url : urls) {
                 // Load Yaml into Kubernetes resources
                 LOGGER.debug("[{}] [KC] Loading and creating keycloak resource/s from \n{}", namespace, url);
-                keycloakResources.addAll(kubeClient.getKubernetesClient().load(url.openStream()).items());
+                try (InputStream resource = Files.newInputStream(ArtifactCache.get(url.toString()))) {
+                    keycloakResources.addAll(kubeClient.getKubernetesClient().load(resource).items());
+                }
             }
             // Apply Kubernetes Resources
             kubeClient.getKubernetesClient().resourceList(keycloakResources).inNamespace(namespace).createOrReplace();
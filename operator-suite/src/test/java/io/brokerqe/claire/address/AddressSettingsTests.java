@@ -32,6 +32,7 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -208,10 +209,8 @@ public class AddressSettingsTests extends AbstractSystemTests {
 
         ResourceManager.createArtemis(testNamespace, broker);
         String brokerName = broker.getMetadata().getName();
-        String response = JolokiaHelper.getAddressSettings(getClient().getExternalAccessServiceUrl(testNamespace, brokerName + "-" + ArtemisConstants.WEBCONSOLE_URI_PREFIX + "-0-svc-rte"), "someQueue");
-        LOGGER.trace("Content: " + response);
-        JSONObject jsonResponse = new JSONObject(response);
-        JSONObject jsonValue = new JSONObject(jsonResponse.getString("value").replace("\\", ""));
+        String consoleHost = getClient().getExternalAccessServiceUrl(testNamespace, brokerName + "-" + ArtemisConstants.WEBCONSOLE_URI_PREFIX + "-0-svc-rte");
+        JSONObject jsonValue = JolokiaHelper.getAddressSettings(consoleHost, List.of("someQueue")).get("someQueue");
         LOGGER.trace("Object: " + jsonValue);
         assertThat("Addresssettings received are not same as expected values", verifyAddressSettingFromResource(jsonValue, KNOWN_GOOD_RESPONSE), is(true));
     }
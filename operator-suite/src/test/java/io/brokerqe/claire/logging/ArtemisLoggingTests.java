@@ -35,6 +35,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -54,6 +55,7 @@ public class ArtemisLoggingTests extends AbstractSystemTests {
     private static final String LOGGER_CONFIG_MAP_NAME = "artemis-cm-logging-config";
     private static final String LOGGER_SECRET_NAME = "artemis-secret-logging-config";
     private static final String LOGGING_PROPERTIES_KEY = "logging.properties";
+    private static final Pattern IS_LIVE_LOG_PATTERN = Pattern.compile(Pattern.quote(ArtemisConstants.IS_LIVE_LOG_MSG));
     private static final String LOGGING_MOUNT_ONLY_ONCE = "Spec.DeploymentPlan.ExtraMounts, entry with suffix -logging-config can only be supplied once";
 
     private static final String LOG4J_LAYOUT_TEMPLATE_JAR_URL = "https://repo1.maven.org/maven2/org/apache/logging/log4j/log4j-layout-template-json/2.19.0/log4j-layout-template-json-2.19.0.jar";
@@ -75,9 +77,8 @@ public class ArtemisLoggingTests extends AbstractSystemTests {
         ActiveMQArtemis artemis = ResourceManager.createArtemis(testNamespace, artemisName);
         Pod artemisPod = getClient().getFirstPodByPrefixName(testNamespace, artemisName);
 
-        String artemisLogs = getClient().getLogsFromPod(artemisPod);
         LOGGER.info("[{}] Ensure artemis pod logs contains INFO level", testNamespace);
-        assertThat(artemisLogs, containsString(ArtemisConstants.IS_LIVE_LOG_MSG));
+        getClient().waitForLogInPod(artemisPod, IS_LIVE_LOG_PATTERN, Constants.DURATION_1_MINUTE);
 
         assertLogIsNotInFilesystem(artemisPod);
 
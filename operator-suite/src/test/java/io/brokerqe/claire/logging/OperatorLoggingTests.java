@@ -11,6 +11,7 @@ import io.brokerqe.claire.ArtemisVersion;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.ResourceManager;
 import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.exception.WaitException;
 import io.brokerqe.claire.junit.TestValidSince;
 import io.fabric8.kubernetes.api.model.Pod;
 import org.junit.jupiter.api.AfterAll;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -41,6 +43,7 @@ public class OperatorLoggingTests extends AbstractSystemTests {
     final static String DEBUG = "DEBUG";
     final static String INFO = "INFO";
     final static String ERROR = "ERROR";
+    private static final Pattern ERROR_PATTERN = Pattern.compile(ERROR);
 
     @BeforeAll
     void setupClusterOperator() {
@@ -82,9 +85,14 @@ public class OperatorLoggingTests extends AbstractSystemTests {
         LOGGER.info("[{}] Deploying wrongly defined ActiveMQArtemisAddress", testNamespace);
         ActiveMQArtemisAddress wrongAddress = ResourceManager.createArtemisAddress(testNamespace, "lala", "lala", "wrongRoutingType");
         TestUtils.waitFor(ERROR + " message to show up in logs", Constants.DURATION_5_SECONDS, Constants.DURATION_2_MINUTES, () -> {
+            // operator pod might be rolled out meanwhile, so follow the log of the current one
             Pod pod = getClient().getFirstPodByPrefixName(testNamespace, operator.getOperatorName());
-            String log = getClient().getLogsFromPod(pod);
-            return log.contains(ERROR);
+            try {
+                getClient().waitForLogInPod(pod, ERROR_PATTERN, Constants.DURATION_30_SECONDS);
+                return true;
+            } catch (WaitException e) {
+                return false;
+            }
         });
         Pod operatorPod = getClient().getFirstPodByPrefixName(testNamespace, operator.getOperatorName());
         String operatorLog = getClient().getLogsFromPod(operatorPod);
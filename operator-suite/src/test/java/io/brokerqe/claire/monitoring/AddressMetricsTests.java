@@ -23,8 +23,8 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -39,11 +39,6 @@ public class AddressMetricsTests extends PrometheusTests {
         prometheus = new Prometheus(testNamespace);
         setupDefaultClusterOperator(testNamespace);
         prometheus.enablePrometheusUserMonitoring();
-        String[] threadStates = {"runnable", "blocked", "terminated", "waiting", "timed-waiting", "new"};
-        for (String item : threadStates) {
-            String key = "jvm_threads_states_threads\\{.*state=\"" + item + "\",.*\\}";
-            keysThreads.add(key);
-        }
     }
 
     @AfterAll
@@ -55,8 +50,9 @@ public class AddressMetricsTests extends PrometheusTests {
     @Test
     @TestValidSince(ArtemisVersion.VERSION_2_28)
     void autoDeletedAddressTest() {
-        String regularKey = "artemis_message_count" + getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
-        String durableKey = "artemis_durable_message_count" + getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
+        String regularKey = "artemis_message_count";
+        String durableKey = "artemis_durable_message_count";
+        Map<String, String> queueLabels = getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
         Acceptors amqpAcceptors = createAcceptor(MSG_ACCEPTOR_NAME, "amqp", 5672, true, false, null, true);
         AddressSetting addressSetting = new AddressSettingBuilder()
             .withAutoCreateAddresses(true)
@@ -87,9 +83,9 @@ public class AddressMetricsTests extends PrometheusTests {
 
         ResourceManager.createArtemis(testNamespace, broker);
 
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         LOGGER.info("[{}] checking for default metrics to not have messaging statistics included", testNamespace);
-        assertThat(String.format("Metrics published did have an unexpected key by default (%s)", durableKey), metrics.containsKey(durableKey), is(false));
+        assertThat(String.format("Metrics published did have an unexpected key by default (%s)", durableKey), metrics.contains(durableKey, queueLabels), is(false));
 
         Pod brokerPod = getClient().getFirstPodByPrefixName(testNamespace, MONITORING_BROKER_NAME);
         Service amqp = getClient().getFirstServiceBrokerAcceptor(testNamespace, MONITORING_BROKER_NAME, MSG_ACCEPTOR_NAME);
@@ -98,21 +94,21 @@ public class AddressMetricsTests extends PrometheusTests {
         metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
         LOGGER.info("[{}] Checking for metrics correctness after sending one message", testNamespace);
         LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
-        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", durableKey), metrics.containsKey(durableKey), is(true));
-        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", regularKey), metrics.containsKey(regularKey), is(true));
+        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", durableKey), metrics.contains(durableKey, queueLabels), is(true));
+        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", regularKey), metrics.contains(regularKey, queueLabels), is(true));
 
-        String messageRegularCount = metrics.get(regularKey);
-        String messageDurableCount = metrics.get(durableKey);
-        assertThat("Durable messages count was not 1", messageDurableCount, equalTo("1.0"));
-        assertThat("Regular messages count was not 1", messageRegularCount, equalTo("1.0"));
+        Double messageRegularCount = metrics.getValue(regularKey, queueLabels);
+        Double messageDurableCount = metrics.getValue(durableKey, queueLabels);
+        assertThat("Durable messages count was not 1", messageDurableCount, equalTo(1.0));
+        assertThat("Regular messages count was not 1", messageRegularCount, equalTo(1.0));
 
         messagingClientAmqp.receiveMessages();
         metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
         LOGGER.info("[{}] Checking for metrics correctness after consuming previously sent message", testNamespace);
-        messageDurableCount = metrics.get(durableKey);
-        messageRegularCount = metrics.get(regularKey);
-        assertThat("Durable message metrics were not updated after message consumption", messageDurableCount, equalTo("0.0")); //consumed
-        assertThat("Regular message metrics were not updated after message consumption", messageRegularCount, equalTo("0.0"));
+        messageDurableCount = metrics.getValue(durableKey, queueLabels);
+        messageRegularCount = metrics.getValue(regularKey, queueLabels);
+        assertThat("Durable message metrics were not updated after message consumption", messageDurableCount, equalTo(0.0)); //consumed
+        assertThat("Regular message metrics were not updated after message consumption", messageRegularCount, equalTo(0.0));
         ResourceManager.deleteArtemis(testNamespace, broker);
     }
 }
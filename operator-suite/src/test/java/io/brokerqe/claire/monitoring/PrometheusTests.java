@@ -16,6 +16,8 @@ import io.brokerqe.claire.TestUtils;
 import io.brokerqe.claire.clients.ClientType;
 import io.brokerqe.claire.clients.MessagingClient;
 import io.brokerqe.claire.junit.TestValidSince;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import io.brokerqe.claire.metrics.MetricsTimeSeries;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.Service;
 import org.json.JSONArray;
@@ -27,9 +29,11 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -53,28 +57,25 @@ public class PrometheusTests extends AbstractSystemTests {
     final String testNamespace = getRandomNamespaceName("monitoring-tests", 3);
     Prometheus prometheus;
 
-    static String getAddressParam(String address) {
-        return String.format("{address=\"%s\",broker=\"amq-broker\",}", address);
+    static Map<String, String> getAddressParam(String address) {
+        return Map.of("address", address, "broker", "amq-broker");
     }
 
-    static String getAddressQueueParam(String address, String queue) {
-        return String.format("{address=\"%s\",broker=\"amq-broker\",queue=\"%s\",}", address, queue);
+    static Map<String, String> getAddressQueueParam(String address, String queue) {
+        return Map.of("address", address, "broker", "amq-broker", "queue", queue);
     }
 
     List<String> keysGc = List.of("jvm_gc_live_data_size_bytes", "jvm_gc_max_data_size_bytes", "jvm_gc_memory_allocated_bytes_total", "jvm_gc_memory_promoted_bytes_total");
 
-    List<String> keysThreads = new ArrayList<>(List.of("jvm_threads_daemon_threads", "jvm_threads_live_threads", "jvm_threads_peak_threads"));
+    List<String> keysThreads = List.of("jvm_threads_daemon_threads", "jvm_threads_live_threads", "jvm_threads_peak_threads");
+
+    List<String> threadStates = List.of("runnable", "blocked", "terminated", "waiting", "timed-waiting", "new");
 
     @BeforeAll
     void setup() {
         prometheus = new Prometheus(testNamespace);
         setupDefaultClusterOperator(testNamespace);
         prometheus.enablePrometheusUserMonitoring();
-        String[] threadStates = {"runnable", "blocked", "terminated", "waiting", "timed-waiting", "new"};
-        for (String item : threadStates) {
-            String key = "jvm_threads_states_threads\\{.*state=\"" + item + "\",.*\\}";
-            keysThreads.add(key);
-        }
     }
 
     @AfterAll
@@ -83,14 +84,18 @@ public class PrometheusTests extends AbstractSystemTests {
         prometheus.disablePrometheusUserMonitoring();
     }
 
-    HashMap<String, String> getPluginMetrics(String brokerName) {
+    MetricsSnapshot getPluginMetrics(String brokerName) {
         TestUtils.waitFor("Broker Prometheus plugin to initialize", Constants.DURATION_5_SECONDS, Constants.DURATION_1_MINUTE, () -> {
-            HashMap<String, String> metrics = prometheus.getMetrics(0, brokerName);
+            MetricsSnapshot metrics = prometheus.getMetrics(0, brokerName);
             return metrics != null;
         });
         return prometheus.getMetrics(0, brokerName);
     }
 
+    static boolean threadStatePublished(MetricsSnapshot metrics, String state) {
+        return metrics.containsMatching("jvm_threads_states_threads", Map.of("state", state));
+    }
+
     private boolean checkPrometheusMetrics(Pod prometheusPod, String curlCmd) {
         boolean foundArtemis = false;
         String prometheusResponse = getClient().executeCommandInPod(prometheusPod, curlCmd, Constants.DURATION_1_MINUTE);
@@ -131,23 +136,16 @@ public class PrometheusTests extends AbstractSystemTests {
             .endSpec().build();
 
         ResourceManager.createArtemis(testNamespace, broker);
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         assertThat("Metrics are published by Broker Prometheus Plugin", metrics, is(notNullValue()));
         LOGGER.info("Verifying that metrics are exposed by plugin and default values are published");
-        String dlqSizeKey = ARTEMIS_METRIC_KEY + "_address_size" + getAddressParam("DLQ");
-        String expirySizeKey = ARTEMIS_METRIC_KEY + "_address_size" + getAddressParam("ExpiryQueue");
-        String expiryExpiredKey = ARTEMIS_METRIC_KEY + "_messages_expired" + getAddressQueueParam("ExpiryQueue", "ExpiryQueue");
-        String dlqPagingKey = ARTEMIS_METRIC_KEY + "_number_of_pages" + getAddressParam("DLQ");
-        String expiryPagingKey = ARTEMIS_METRIC_KEY + "_number_of_pages" + getAddressParam("ExpiryQueue");
-        String dlqKilledKey = ARTEMIS_METRIC_KEY + "_messages_killed" + getAddressQueueParam("DLQ", "DLQ");
-        String expiryKilledKey = ARTEMIS_METRIC_KEY + "_messages_killed" + getAddressQueueParam("ExpiryQueue", "ExpiryQueue");
-        assertThat("Default DLQ is not empty", metrics.get(dlqSizeKey), equalTo("0.0"));
-        assertThat("Default Expiry queue is not empty", metrics.get(expirySizeKey), equalTo("0.0"));
-        assertThat("Default Expiry queue has expired messages", metrics.get(expiryExpiredKey), equalTo("0.0"));
-        assertThat("Default DLQ is paged", metrics.get(dlqPagingKey), equalTo("0.0"));
-        assertThat("Default Expiry queue is paged", metrics.get(expiryPagingKey), equalTo("0.0"));
-        assertThat("Default DLQ has killed messages", metrics.get(dlqKilledKey), equalTo("0.0"));
-        assertThat("Default Expiry has killed messages", metrics.get(expiryKilledKey), equalTo("0.0"));
+        assertThat("Default DLQ is not empty", metrics.getValue(ARTEMIS_METRIC_KEY + "_address_size", getAddressParam("DLQ")), equalTo(0.0));
+        assertThat("Default Expiry queue is not empty", metrics.getValue(ARTEMIS_METRIC_KEY + "_address_size", getAddressParam("ExpiryQueue")), equalTo(0.0));
+        assertThat("Default Expiry queue has expired messages", metrics.getValue(ARTEMIS_METRIC_KEY + "_messages_expired", getAddressQueueParam("ExpiryQueue", "ExpiryQueue")), equalTo(0.0));
+        assertThat("Default DLQ is paged", metrics.getValue(ARTEMIS_METRIC_KEY + "_number_of_pages", getAddressParam("DLQ")), equalTo(0.0));
+        assertThat("Default Expiry queue is paged", metrics.getValue(ARTEMIS_METRIC_KEY + "_number_of_pages", getAddressParam("ExpiryQueue")), equalTo(0.0));
+        assertThat("Default DLQ has killed messages", metrics.getValue(ARTEMIS_METRIC_KEY + "_messages_killed", getAddressQueueParam("DLQ", "DLQ")), equalTo(0.0));
+        assertThat("Default Expiry has killed messages", metrics.getValue(ARTEMIS_METRIC_KEY + "_messages_killed", getAddressQueueParam("ExpiryQueue", "ExpiryQueue")), equalTo(0.0));
 
         ResourceManager.deleteArtemis(testNamespace, broker);
     }
@@ -171,7 +169,7 @@ public class PrometheusTests extends AbstractSystemTests {
                 .build();
         ResourceManager.createArtemis(testNamespace, broker);
 
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         assertThat(metrics, is(notNullValue())); // Metrics exposed & default values are published
         prometheus.createServiceMonitor(MONITORING_BROKER_NAME);
 
@@ -190,8 +188,9 @@ public class PrometheusTests extends AbstractSystemTests {
     @Test
     @TestValidSince(ArtemisVersion.VERSION_2_28)
     void messagingStatisticsTest() {
-        String regularKey = "artemis_message_count" + getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
-        String durableKey = "artemis_durable_message_count" + getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
+        String regularKey = "artemis_message_count";
+        String durableKey = "artemis_durable_message_count";
+        Map<String, String> queueLabels = getAddressQueueParam(ADDRESS_NAME, QUEUE_NAME);
         Acceptors amqpAcceptors = createAcceptor(MSG_ACCEPTOR_NAME, "amqp", 5672, true, false, null, true);
         ActiveMQArtemis broker = new ActiveMQArtemisBuilder()
                 .editOrNewMetadata()
@@ -211,33 +210,47 @@ public class PrometheusTests extends AbstractSystemTests {
 
         ResourceManager.createArtemis(testNamespace, broker);
 
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         LOGGER.info("[{}] checking for default metrics to not have messaging statistics included", testNamespace);
-        assertThat(String.format("Metrics published did have an unexpected key by default (%s)", durableKey), metrics.containsKey(durableKey), is(false));
+        assertThat(String.format("Metrics published did have an unexpected key by default (%s)", durableKey), metrics.contains(durableKey, queueLabels), is(false));
 
         Pod brokerPod = getClient().getFirstPodByPrefixName(testNamespace, MONITORING_BROKER_NAME);
         Service amqp = getClient().getFirstServiceBrokerAcceptor(testNamespace, MONITORING_BROKER_NAME, MSG_ACCEPTOR_NAME);
         MessagingClient messagingClientAmqp = ResourceManager.createMessagingClient(ClientType.BUNDLED_AMQP, brokerPod,
                 amqp.getSpec().getPorts().get(0).getPort().toString(), ADDRESS_NAME, QUEUE_NAME, 1);
-        messagingClientAmqp.sendMessages();
-        metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
-        LOGGER.info("[{}] Checking for metrics correctness after sending one message", testNamespace);
-        LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
-        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", durableKey), metrics.containsKey(durableKey), is(true));
-        assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", regularKey), metrics.containsKey(regularKey), is(true));
-
-        String messageRegularCount = metrics.get(regularKey);
-        String messageDurableCount = metrics.get(durableKey);
-        assertThat("Durable messages count was not 1", messageDurableCount, equalTo("1.0"));
-        assertThat("Regular messages count was not 1", messageRegularCount, equalTo("1.0"));
-
-        messagingClientAmqp.receiveMessages();
-        metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
-        LOGGER.info("[{}] Checking for metrics correctness after consuming previously sent message", testNamespace);
-        messageDurableCount = metrics.get(durableKey);
-        messageRegularCount = metrics.get(regularKey);
-        assertThat("Durable message metrics were not updated after message consumption", messageDurableCount, equalTo("0.0")); //consumed
-        assertThat("Regular message metrics were not updated after message consumption", messageRegularCount, equalTo("0.0"));
+        Path samplesDir = TestUtils.createTestTemporaryDir(TestUtils.getTestName(testInfo), testEnvironmentOperator.getTmpDirLocation());
+        try (MetricsSampler sampler = prometheus.startMetricsSampler(0, broker.getMetadata().getName(), samplesDir, Constants.DURATION_1_SECOND)) {
+            messagingClientAmqp.sendMessages();
+            sampler.sample();
+            metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
+            LOGGER.info("[{}] Checking for metrics correctness after sending one message", testNamespace);
+            LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
+            assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", durableKey), metrics.contains(durableKey, queueLabels), is(true));
+            assertThat(String.format("Metrics after sending a message didn't have expected key (%s)", regularKey), metrics.contains(regularKey, queueLabels), is(true));
+
+            Double messageRegularCount = metrics.getValue(regularKey, queueLabels);
+            Double messageDurableCount = metrics.getValue(durableKey, queueLabels);
+            assertThat("Durable messages count was not 1", messageDurableCount, equalTo(1.0));
+            assertThat("Regular messages count was not 1", messageRegularCount, equalTo(1.0));
+
+            messagingClientAmqp.receiveMessages();
+            metrics = prometheus.getMetrics(0, broker.getMetadata().getName());
+            LOGGER.info("[{}] Checking for metrics correctness after consuming previously sent message", testNamespace);
+            messageDurableCount = metrics.getValue(durableKey, queueLabels);
+            messageRegularCount = metrics.getValue(regularKey, queueLabels);
+            assertThat("Durable message metrics were not updated after message consumption", messageDurableCount, equalTo(0.0)); //consumed
+            assertThat("Regular message metrics were not updated after message consumption", messageRegularCount, equalTo(0.0));
+
+            sampler.sample();
+            sampler.render(PrometheusMetricsSource.CHARTS);
+        }
+        MetricsTimeSeries timeSeries = MetricsTimeSeries.read(samplesDir);
+        Map<String, double[]> queueDepth = timeSeries.getColumns(Pattern.compile(regularKey + "\\{.*queue=" + QUEUE_NAME + "[,}].*"));
+        assertThat("Sampled metrics did not contain the queue depth of " + QUEUE_NAME, queueDepth.size(), equalTo(1));
+        String queueDepthColumn = queueDepth.keySet().iterator().next();
+        assertThat("Sampled queue depth did not reach the sent message", timeSeries.max(queueDepthColumn), equalTo(1.0));
+        double[] depths = queueDepth.get(queueDepthColumn);
+        assertThat("Last sampled queue depth was not 0 after consumption", depths[depths.length - 1], equalTo(0.0));
         ResourceManager.deleteArtemis(testNamespace, broker);
     }
 
@@ -268,13 +281,17 @@ public class PrometheusTests extends AbstractSystemTests {
             .endSpec().build();
 
         ResourceManager.createArtemis(testNamespace, broker);
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
         for (String item : keysGc) {
-            assertThat(String.format("%s metric was not published in GC metrics", item), prometheus.metricsContainKey(metrics, item), is(true));
+            assertThat(String.format("%s metric was not published in GC metrics", item), metrics.containsMetricLike(item), is(true));
         }
         for (String item : keysThreads) {
-            assertThat(String.format("%s metric was not published in JVM Thread metrics", item), prometheus.metricsContainKeyValue(metrics, item), is(true));
+            assertThat(String.format("%s metric was not published in JVM Thread metrics", item), metrics.containsMetric(item), is(true));
+        }
+        for (String state : threadStates) {
+            assertThat(String.format("%s thread state metric was not published in JVM Thread metrics", state),
+                    threadStatePublished(metrics, state), is(true));
         }
         ResourceManager.deleteArtemis(testNamespace, broker);
     }
@@ -302,14 +319,18 @@ public class PrometheusTests extends AbstractSystemTests {
             .endSpec().build();
 
         broker = ResourceManager.createArtemis(testNamespace, broker);
-        HashMap<String, String> metrics = getPluginMetrics(broker.getMetadata().getName());
+        MetricsSnapshot metrics = getPluginMetrics(broker.getMetadata().getName());
         for (String item : keysGc) {
             assertThat(String.format("%s was published by GC metrics when its not expected to be", item),
-                    prometheus.metricsContainKey(metrics, item), is(false));
+                    metrics.containsMetricLike(item), is(false));
         }
         for (String item : keysThreads) {
             assertThat(String.format("%s  was published by JVM Thread metrics when its not expected to be", item),
-                    prometheus.metricsContainKeyValue(metrics, item), is(false));
+                    metrics.containsMetric(item), is(false));
+        }
+        for (String state : threadStates) {
+            assertThat(String.format("%s thread state was published by JVM Thread metrics when its not expected to be", state),
+                    threadStatePublished(metrics, state), is(false));
         }
 
         List<String> brokerProperties = new ArrayList<>();
@@ -324,11 +345,15 @@ public class PrometheusTests extends AbstractSystemTests {
         LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
         for (String item : keysGc) {
             assertThat(String.format("%s was published by GC metrics when its not expected to be", item),
-                    prometheus.metricsContainKey(metrics, item), is(false));
+                    metrics.containsMetricLike(item), is(false));
         }
         for (String item : keysThreads) {
             assertThat(String.format("%s was not published by JVM Thread metrics when its expected to be", item),
-                    prometheus.metricsContainKeyValue(metrics, item), is(true));
+                    metrics.containsMetric(item), is(true));
+        }
+        for (String state : threadStates) {
+            assertThat(String.format("%s thread state was not published by JVM Thread metrics when its expected to be", state),
+                    threadStatePublished(metrics, state), is(true));
         }
 
         brokerProperties.add("metricsConfiguration.jvmGc=true");
@@ -343,11 +368,15 @@ public class PrometheusTests extends AbstractSystemTests {
         LOGGER.trace("[{}] Got metrics: {}", testNamespace, metrics);
         for (String item : keysGc) {
             assertThat(String.format("%s was not published by GC metrics when its expected to be", item),
-                    prometheus.metricsContainKey(metrics, item), is(true));
+                    metrics.containsMetricLike(item), is(true));
         }
         for (String item : keysThreads) {
             assertThat(String.format("%s was not published by JVM Thread metrics when its expected to be", item),
-                    prometheus.metricsContainKeyValue(metrics, item), is(true));
+                    metrics.containsMetric(item), is(true));
+        }
+        for (String state : threadStates) {
+            assertThat(String.format("%s thread state was not published by JVM Thread metrics when its expected to be", state),
+                    threadStatePublished(metrics, state), is(true));
         }
         ResourceManager.deleteArtemis(testNamespace, broker);
     }
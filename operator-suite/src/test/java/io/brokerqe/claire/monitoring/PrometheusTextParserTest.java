@@ -0,0 +1,92 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.monitoring;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+class PrometheusTextParserTest {
+
+    private static MetricsSnapshot parse(String text) throws IOException {
+        return PrometheusTextParser.parse(new StringReader(text));
+    }
+
+    @Test
+    void parsesEscapedQuotesAndSpacesInLabelValues() throws IOException {
+        MetricsSnapshot snapshot = parse("""
+                artemis_message_count{broker="amq broker",queue="say \\"hi\\", now",path="C:\\\\data\\nlog"} 42
+                """);
+        MetricSeries series = snapshot.getSeries("artemis_message_count", Map.of(
+                "broker", "amq broker",
+                "queue", "say \"hi\", now",
+                "path", "C:\\data\nlog"));
+        Assertions.assertThat(series).isNotNull();
+        Assertions.assertThat(series.getValue()).isEqualTo(42.0);
+        Assertions.assertThat(series.getTimestamp()).isNull();
+    }
+
+    @Test
+    void parsesSpecialValues() throws IOException {
+        MetricsSnapshot snapshot = parse("""
+                nan_metric NaN
+                pos_inf_metric +Inf
+                neg_inf_metric -Inf
+                histogram_bucket{le="+Inf"} 7
+                exponent_metric 1.5e3
+                """);
+        Assertions.assertThat(snapshot.getSeries("nan_metric", Map.of()).getValue()).isNaN();
+        Assertions.assertThat(snapshot.getSeries("pos_inf_metric", Map.of()).getValue()).isEqualTo(Double.POSITIVE_INFINITY);
+        Assertions.assertThat(snapshot.getSeries("neg_inf_metric", Map.of()).getValue()).isEqualTo(Double.NEGATIVE_INFINITY);
+        Assertions.assertThat(snapshot.getSeries("histogram_bucket", Map.of("le", "+Inf")).getValue()).isEqualTo(7.0);
+        Assertions.assertThat(snapshot.getSeries("exponent_metric", Map.of()).getValue()).isEqualTo(1500.0);
+    }
+
+    @Test
+    void parsesOptionalTimestamps() throws IOException {
+        MetricsSnapshot snapshot = parse("""
+                with_timestamp{a="b"} 3 1700000000123
+                without_timestamp{a="b"} 4
+                bare_with_timestamp 5  -1
+                """);
+        Assertions.assertThat(snapshot.getSeries("with_timestamp", Map.of("a", "b")).getTimestamp()).isEqualTo(1700000000123L);
+        Assertions.assertThat(snapshot.getSeries("without_timestamp", Map.of("a", "b")).getTimestamp()).isNull();
+        MetricSeries bare = snapshot.getSeries("bare_with_timestamp", Map.of());
+        Assertions.assertThat(bare.getValue()).isEqualTo(5.0);
+        Assertions.assertThat(bare.getTimestamp()).isEqualTo(-1L);
+    }
+
+    @Test
+    void skipsCommentsAndReadsTypes() throws IOException {
+        MetricsSnapshot snapshot = parse("""
+                # HELP artemis_total_produced Number of messages "produced" {ever}
+                # TYPE artemis_total_produced counter
+                # just a comment with = and } characters
+
+                artemis_total_produced{queue="q1"} 10
+                   # TYPE artemis_heap gauge
+                artemis_heap 1024
+                """);
+        Assertions.assertThat(snapshot.getMetricNames()).containsExactly("artemis_total_produced", "artemis_heap");
+        Assertions.assertThat(snapshot.size()).isEqualTo(2);
+        Assertions.assertThat(snapshot.getType("artemis_total_produced")).isEqualTo("counter");
+        Assertions.assertThat(snapshot.getType("artemis_heap")).isEqualTo("gauge");
+        Assertions.assertThat(snapshot.getType("artemis_unknown")).isNull();
+    }
+
+    @Test
+    void failsOnMalformedLines() {
+        Assertions.assertThatThrownBy(() -> parse("metric{label=\"unterminated} 1\n"))
+                .isInstanceOf(ClaireRuntimeException.class)
+                .hasMessageContaining("line 1");
+        Assertions.assertThatThrownBy(() -> parse("ok 1\nmetric not_a_number\n"))
+                .isInstanceOf(ClaireRuntimeException.class)
+                .hasMessageContaining("line 2");
+    }
+}
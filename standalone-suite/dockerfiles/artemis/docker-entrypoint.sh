@@ -24,6 +24,14 @@ function start {
 if [ $UID -eq 0 ]; then
   groupadd -g "${ARTEMIS_GROUP_GID}" "${ARTEMIS_GROUP}"
   useradd -u "${ARTEMIS_USER_UID}" -d "${ARTEMIS_USER_HOME}" -m -g "${ARTEMIS_GROUP}" "${ARTEMIS_USER}"
+  # tmpfs and named volumes are created owned by root
+  if [[ -n "${ARTEMIS_STORAGE_DIRS}" ]]; then
+    IFS='|' read -r -a all_storage_dirs <<< "${ARTEMIS_STORAGE_DIRS}"
+    for i in "${all_storage_dirs[@]}"; do
+      mkdir -p "${i}"
+      chown "${ARTEMIS_USER_UID}:${ARTEMIS_GROUP_GID}" "${i}"
+    done
+  fi
   env | grep -E -v "(^_|^TERM|^SHLVL|^LS_COLORS|^PWD|^HOME|^SHELL|^USER|^LOGNAME|^PATH)" > /tmp/initial_envvars
   sed -i -e 's/^/export /' /tmp/initial_envvars
   if [[ ${BASE_IMAGE} =~ .*ubi[7-8]:.* ]]; then
@@ -20,6 +20,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
@@ -34,6 +36,14 @@ public class EnvironmentStandalone extends Environment {
     private final String tmpDirLocation;
     private final boolean logContainers;
     private final boolean collectTestData;
+    private final List<String> collectTestDataExcludes;
+    private final long collectTestDataMaxFileSizeKb;
+    private final long metricsSampleIntervalMs;
+    private final boolean flightRecording;
+    private final String certificateKeyType;
+    private final boolean certificateCache;
+    private final long soakDurationMinutes;
+    private final int soakRate;
     private final String artemisContainerImage;
     private final String artemisContainerJavaHome;
     private final String nfsServerContainerImage;
@@ -63,6 +73,23 @@ public class EnvironmentStandalone extends Environment {
         logContainers = Boolean.parseBoolean(getConfigurationValue(Constants.EV_LOG_CONTAINERS, Constants.PROP_LOG_CONTAINERS,
                 String.valueOf(Constants.DEFAULT_LOG_CONTAINERS)));
         collectTestData = Boolean.parseBoolean(System.getenv().getOrDefault(Constants.EV_COLLECT_TEST_DATA, "true"));
+        collectTestDataExcludes = Arrays.stream(getConfigurationValue(Constants.EV_COLLECT_TEST_DATA_EXCLUDES,
+                        Constants.PROP_COLLECT_TEST_DATA_EXCLUDES, Constants.DEFAULT_COLLECT_TEST_DATA_EXCLUDES).split(","))
+                .map(String::trim).filter(path -> !path.isEmpty()).toList();
+        collectTestDataMaxFileSizeKb = Long.parseLong(getConfigurationValue(Constants.EV_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB,
+                Constants.PROP_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB, Constants.DEFAULT_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB));
+        metricsSampleIntervalMs = Long.parseLong(getConfigurationValue(Constants.EV_METRICS_SAMPLE_INTERVAL_MS,
+                Constants.PROP_METRICS_SAMPLE_INTERVAL_MS, Constants.DEFAULT_METRICS_SAMPLE_INTERVAL_MS));
+        flightRecording = Boolean.parseBoolean(getConfigurationValue(Constants.EV_FLIGHT_RECORDING,
+                Constants.PROP_FLIGHT_RECORDING, Constants.DEFAULT_FLIGHT_RECORDING));
+        soakDurationMinutes = Long.parseLong(getConfigurationValue(Constants.EV_SOAK_DURATION_MINUTES,
+                Constants.PROP_SOAK_DURATION_MINUTES, Constants.DEFAULT_SOAK_DURATION_MINUTES));
+        soakRate = Integer.parseInt(getConfigurationValue(Constants.EV_SOAK_RATE, Constants.PROP_SOAK_RATE,
+                Constants.DEFAULT_SOAK_RATE));
+        certificateKeyType = getConfigurationValue(Constants.EV_CERTIFICATE_KEY_TYPE, Constants.PROP_CERTIFICATE_KEY_TYPE,
+                Constants.DEFAULT_CERTIFICATE_KEY_TYPE);
+        certificateCache = Boolean.parseBoolean(getConfigurationValue(Constants.EV_CERTIFICATE_CACHE,
+                Constants.PROP_CERTIFICATE_CACHE, Constants.DEFAULT_CERTIFICATE_CACHE));
         artemisContainerImage = getConfigurationValue(Constants.EV_ARTEMIS_CONTAINER_IMAGE,
                 Constants.PROP_ARTEMIS_CONTAINER_IMAGE, Constants.DEFAULT_ARTEMIS_CONTAINER_IMAGE);
 
@@ -123,6 +150,14 @@ public class EnvironmentStandalone extends Environment {
                 Constants.PROP_LOG_LEVEL + ": " + logLevel + Constants.LINE_SEPARATOR +
                 Constants.PROP_LOG_DIR + ": " + logsDirLocation + Constants.LINE_SEPARATOR +
                 Constants.PROP_LOG_CONTAINERS + ": " + logContainers + Constants.LINE_SEPARATOR +
+                Constants.PROP_COLLECT_TEST_DATA_EXCLUDES + ": " + collectTestDataExcludes + Constants.LINE_SEPARATOR +
+                Constants.PROP_COLLECT_TEST_DATA_MAX_FILE_SIZE_KB + ": " + collectTestDataMaxFileSizeKb + Constants.LINE_SEPARATOR +
+                Constants.PROP_METRICS_SAMPLE_INTERVAL_MS + ": " + metricsSampleIntervalMs + Constants.LINE_SEPARATOR +
+                Constants.PROP_FLIGHT_RECORDING + ": " + flightRecording + Constants.LINE_SEPARATOR +
+                Constants.PROP_SOAK_DURATION_MINUTES + ": " + soakDurationMinutes + Constants.LINE_SEPARATOR +
+                Constants.PROP_SOAK_RATE + ": " + soakRate + Constants.LINE_SEPARATOR +
+                Constants.PROP_CERTIFICATE_KEY_TYPE + ": " + certificateKeyType + Constants.LINE_SEPARATOR +
+                Constants.PROP_CERTIFICATE_CACHE + ": " + certificateCache + Constants.LINE_SEPARATOR +
                 Constants.PROP_ARTEMIS_CONTAINER_IMAGE + ": " + artemisContainerImage + Constants.LINE_SEPARATOR +
                 Constants.PROP_ARTEMIS_CONTAINER_JAVA_HOME + ": " + artemisContainerJavaHome + Constants.LINE_SEPARATOR +
                 Constants.PROP_NFS_SERVER_CONTAINER_IMAGE + ": " + nfsServerContainerImage + Constants.LINE_SEPARATOR +
@@ -317,6 +352,40 @@ public class EnvironmentStandalone extends Environment {
         return collectTestData;
     }
 
+    public List<String> getCollectTestDataExcludes() {
+        return collectTestDataExcludes;
+    }
+
+    public long getCollectTestDataMaxFileSizeKb() {
+        return collectTestDataMaxFileSizeKb;
+    }
+
+    public long getMetricsSampleIntervalMs() {
+        return metricsSampleIntervalMs;
+    }
+
+    public boolean isFlightRecording() {
+        return flightRecording;
+    }
+
+    public long getSoakDurationMinutes() {
+        return soakDurationMinutes;
+    }
+
+    public int getSoakRate() {
+        return soakRate;
+    }
+
+    @Override
+    public String getCertificateKeyType() {
+        return certificateKeyType;
+    }
+
+    @Override
+    public boolean isCertificateCache() {
+        return certificateCache;
+    }
+
     @Override
     public int getCustomExtraDelay() {
         return 0;
@@ -327,10 +396,18 @@ public class EnvironmentStandalone extends Environment {
     }
 
     public void setupDatabase() {
+        setDatabase(createDatabase(databaseFile));
+    }
+
+    /**
+     * @param databaseKey reserved database name (e.g. {@link Database#POSTGRESQL}) to deploy, or a database file
+     *                    describing a provided database
+     * @return database container (not started) or the provided database
+     */
+    public Database createDatabase(String databaseKey) {
         // Deploy actual DB based on key-name
-        Database database;
         String name = TestUtils.generateRandomName();
-        database = switch (databaseFile.toLowerCase(Locale.ROOT)) {
+        return switch (databaseKey.toLowerCase(Locale.ROOT)) {
             case Database.MARIADB -> new MariadbContainer(Database.MARIADB + "-db1-" + name);
             case Database.MYSQL -> new MysqlContainer(Database.MYSQL + "-db1-" + name);
             case Database.MSSQL -> new MssqlContainer(Database.MSSQL + "-db1-" + name);
@@ -338,9 +415,8 @@ public class EnvironmentStandalone extends Environment {
             case Database.POSTGRESQL -> new PostgresqlContainer(Database.POSTGRESQL + "-db1-" + name);
             default ->
                 // Load data from provided DB
-                new ProvidedDatabase(new JdbcData(databaseFile));
+                new ProvidedDatabase(new JdbcData(databaseKey));
         };
-        setDatabase(database);
     }
 
     public String getProvidedArtemisConfig() {
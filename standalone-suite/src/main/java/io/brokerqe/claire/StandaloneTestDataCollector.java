@@ -5,57 +5,93 @@
 package io.brokerqe.claire;
 
 import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.container.AbstractGenericContainer;
 import io.brokerqe.claire.container.ArtemisContainer;
 import io.brokerqe.claire.container.ContainerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class StandaloneTestDataCollector extends TestDataCollector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StandaloneTestDataCollector.class);
 
     private static final String CONTAINERS_STRING = "containers";
     private static final String CONTAINER_LOG_SUFFIX = "_container.log";
+    private static final int MAX_COLLECTOR_THREADS = 8;
 
 
     @Override
     protected void collectTestData() {
         LOGGER.info("Gathering debug data for failed {}#{} into {}", testClass, testMethod, archiveDir);
-        getContainersLogs();
-        getBrokerFiles();
-    }
-
-    private void getContainersLogs() {
-        LOGGER.info("Gathering debug data for containers");
-        ResourceManager.getContainers().forEach((name, container) -> {
-            LOGGER.info("Gathering logs for container: {}", name);
-            String containersDir =  archiveDir + Constants.FILE_SEPARATOR + CONTAINERS_STRING;
-            String containerDir = containersDir + Constants.FILE_SEPARATOR + name;
-            String logFile = containerDir + Constants.FILE_SEPARATOR + name + CONTAINER_LOG_SUFFIX;
-
-            TestUtils.createDirectory(containerDir);
-            String log = container.getLogs();
-            TestUtils.createFile(logFile, log);
-        });
-    }
+        Map<String, AbstractGenericContainer> containers = new LinkedHashMap<>(ResourceManager.getContainers());
+        if (containers.isEmpty()) {
+            return;
+        }
 
-    private void getBrokerFiles() {
-        ResourceManager.getContainers().forEach((name, container) -> {
-            LOGGER.info("Gathering broker data for container: {}", name);
-            if (ContainerType.ARTEMIS == container.getContainerType()) {
-                String containersDir =  archiveDir + Constants.FILE_SEPARATOR + CONTAINERS_STRING;
-                String containerDir = containersDir + Constants.FILE_SEPARATOR + name;
-                String dstDir = containerDir + Constants.FILE_SEPARATOR + ArtemisConstants.INSTANCE_STRING;
-                String srcDir = ArtemisContainer.ARTEMIS_INSTANCE_DIR;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(containers.size(), MAX_COLLECTOR_THREADS));
+        List<Throwable> errors = new ArrayList<>();
+        try {
+            List<CompletableFuture<Void>> futures = containers.entrySet().stream()
+                    .map(entry -> CompletableFuture.runAsync(() -> collectContainerData(entry.getKey(), entry.getValue()), executor))
+                    .toList();
+            for (CompletableFuture<Void> future : futures) {
                 try {
-                    container.copyDirFrom(srcDir, dstDir);
-                } catch (ClaireRuntimeException e) {
-                    String errMsg = String.format("Error on copying directory %s from container %s to %s: %s",
-                            srcDir, container.getName(), dstDir, e.getMessage());
-                    throw new ClaireRuntimeException(errMsg, e);
+                    future.join();
+                } catch (CompletionException e) {
+                    errors.add(e.getCause());
                 }
             }
-        });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!errors.isEmpty()) {
+            String errMsg = String.format("Error on gathering debug data for %d container(s): %s", errors.size(),
+                    errors.get(0).getMessage());
+            ClaireRuntimeException exception = new ClaireRuntimeException(errMsg, errors.get(0));
+            errors.stream().skip(1).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    private void collectContainerData(String name, AbstractGenericContainer container) {
+        String containersDir =  archiveDir + Constants.FILE_SEPARATOR + CONTAINERS_STRING;
+        String containerDir = containersDir + Constants.FILE_SEPARATOR + name;
+        TestUtils.createDirectory(containerDir);
+        getContainerLogs(name, container, containerDir);
+        if (ContainerType.ARTEMIS == container.getContainerType()) {
+            getBrokerFiles(container, containerDir);
+        }
+    }
+
+    private void getContainerLogs(String name, AbstractGenericContainer container, String containerDir) {
+        LOGGER.info("Gathering logs for container: {}", name);
+        String logFile = containerDir + Constants.FILE_SEPARATOR + name + CONTAINER_LOG_SUFFIX;
+        container.writeLogsToFile(logFile);
+    }
+
+    private void getBrokerFiles(AbstractGenericContainer container, String containerDir) {
+        LOGGER.info("Gathering broker data for container: {}", container.getName());
+        EnvironmentStandalone environment = EnvironmentStandalone.getInstance();
+        String dstDir = containerDir + Constants.FILE_SEPARATOR + ArtemisConstants.INSTANCE_STRING;
+        String srcDir = ArtemisContainer.ARTEMIS_INSTANCE_DIR;
+        try {
+            container.copyDirFrom(srcDir, dstDir, environment.getCollectTestDataExcludes(),
+                    environment.getCollectTestDataMaxFileSizeKb());
+        } catch (ClaireRuntimeException e) {
+            String errMsg = String.format("Error on copying directory %s from container %s to %s: %s",
+                    srcDir, container.getName(), dstDir, e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
     }
 
 }
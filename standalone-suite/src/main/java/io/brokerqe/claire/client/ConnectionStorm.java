@@ -0,0 +1,288 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.client;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import jakarta.jms.Connection;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.FailoverEventType;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.qpid.jms.JmsConnection;
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Opens many connections to a broker as fast as possible from a pool of threads, keeps them open and closes them
+ * again, recording how long each connection took. Connections are either AMQP (qpid-jms) or raw core session
+ * factories. With a reconnecting url (qpid-jms {@code failover:(...)}, core {@code reconnectAttempts=-1}) the storm
+ * also tracks how the open connections recover after their links are cut.
+ */
+public class ConnectionStorm implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionStorm.class);
+
+    public enum Protocol {
+        AMQP, CORE
+    }
+
+    private final Protocol protocol;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ExecutorService executor;
+    private final Queue<AutoCloseable> connections = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger failedConnections = new AtomicInteger();
+    private final LatencyRecorder reconnectLatencies = new LatencyRecorder("reconnect");
+    // trackers of the connections, a connection interrupted or restored several times is counted once
+    private final Set<ReconnectTracker> interruptedConnections = ConcurrentHashMap.newKeySet();
+    private final Set<ReconnectTracker> restoredConnections = ConcurrentHashMap.newKeySet();
+    private final Set<ReconnectTracker> downConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong firstInterruption = new AtomicLong();
+
+    public ConnectionStorm(Protocol protocol, String url, String username, String password, int threads) {
+        this.protocol = protocol;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "connection-storm-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the connections in parallel and keeps them open. Failed connections are counted, not thrown.
+     * @return latencies of successfully opened connections
+     */
+    public LatencyRecorder open(int numOfConnections, long timeoutMs) {
+        LatencyRecorder latencies = new LatencyRecorder("connect");
+        LOGGER.info("[{}] Opening {} connections to {}", protocol, numOfConnections, url);
+        List<Runnable> tasks = IntStream.range(0, numOfConnections).<Runnable>mapToObj(i -> () -> {
+            long start = System.nanoTime();
+            try {
+                connections.add(connect());
+                latencies.recordSince(start);
+            } catch (Exception e) {
+                failedConnections.incrementAndGet();
+                LOGGER.debug("[{}] Failed to open connection to {}: {}", protocol, url, e.getMessage());
+            }
+        }).toList();
+        runAll(tasks, timeoutMs);
+        return latencies;
+    }
+
+    /**
+     * Closes all open connections in parallel.
+     * @return latencies of the closes
+     */
+    public LatencyRecorder closeAll(long timeoutMs) {
+        LatencyRecorder latencies = new LatencyRecorder("close");
+        LOGGER.info("[{}] Closing {} connections to {}", protocol, connections.size(), url);
+        List<Runnable> tasks = new ArrayList<>();
+        AutoCloseable connection;
+        while ((connection = connections.poll()) != null) {
+            AutoCloseable toClose = connection;
+            tasks.add(() -> {
+                long start = System.nanoTime();
+                try {
+                    toClose.close();
+                    latencies.recordSince(start);
+                } catch (Exception e) {
+                    LOGGER.debug("[{}] Failed to close connection to {}: {}", protocol, url, e.getMessage());
+                }
+            });
+        }
+        runAll(tasks, timeoutMs);
+        return latencies;
+    }
+
+    /**
+     * Waits until every open connection has been interrupted and restored again, and none is down.
+     * @return ms from the first interruption until the last connection was restored
+     */
+    public long awaitReconnects(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (restoredConnections.size() < connections.size() || !downConnections.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                String errMsg = String.format("Error on reconnecting %s connections to %s: %d of %d restored, %d down in %d ms",
+                        protocol, url, restoredConnections.size(), connections.size(), downConnections.size(), timeoutMs);
+                LOGGER.error(errMsg);
+                throw new ClaireRuntimeException(errMsg);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClaireRuntimeException(e.getMessage(), e);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstInterruption.get());
+    }
+
+    /**
+     * Forgets the interruptions seen so far, call before cutting the links again.
+     */
+    public void resetReconnects() {
+        reconnectLatencies.reset();
+        interruptedConnections.clear();
+        restoredConnections.clear();
+        downConnections.clear();
+        firstInterruption.set(0);
+    }
+
+    /**
+     * @return latencies from the interruption of a connection to its restoration
+     */
+    public LatencyRecorder getReconnectLatencies() {
+        return reconnectLatencies;
+    }
+
+    public int getInterruptedCount() {
+        return interruptedConnections.size();
+    }
+
+    public int getOpenCount() {
+        return connections.size();
+    }
+
+    public int getFailedCount() {
+        return failedConnections.get();
+    }
+
+    @Override
+    public void close() {
+        // stop the pool first, so that no task still opening a connection adds it after the others were closed
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("[{}] Tasks of connection storm to {} did not finish in time", protocol, url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        AutoCloseable connection;
+        while ((connection = connections.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Opens one connection, whatever was created of it is closed again when the connection fails.
+     */
+    private AutoCloseable connect() throws Exception {
+        ReconnectTracker tracker = new ReconnectTracker();
+        if (protocol == Protocol.AMQP) {
+            Connection connection = new JmsConnectionFactory(url).createConnection(username, password);
+            try {
+                ((JmsConnection) connection).addConnectionListener(tracker);
+                connection.start();
+            } catch (Exception e) {
+                closeQuietly(connection);
+                throw e;
+            }
+            return connection;
+        }
+        ServerLocator locator = ActiveMQClient.createServerLocator(url);
+        ClientSessionFactory sessionFactory = null;
+        try {
+            sessionFactory = locator.createSessionFactory();
+            sessionFactory.addFailoverListener(eventType -> {
+                if (eventType == FailoverEventType.FAILURE_DETECTED) {
+                    tracker.onConnectionInterrupted(null);
+                } else if (eventType == FailoverEventType.FAILOVER_COMPLETED) {
+                    tracker.onConnectionRestored(null);
+                }
+            });
+            // core session factory is not authenticated until a session is created on it
+            ClientSession session = sessionFactory.createSession(username, password, false, true, true, false, 0);
+            ClientSessionFactory openedFactory = sessionFactory;
+            return () -> {
+                session.close();
+                openedFactory.close();
+                locator.close();
+            };
+        } catch (Exception e) {
+            closeQuietly(sessionFactory);
+            closeQuietly(locator);
+            throw e;
+        }
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.debug("[{}] Failed to close {} of failed connection to {}: {}", protocol,
+                    closeable.getClass().getSimpleName(), url, e.getMessage());
+        }
+    }
+
+    private void runAll(List<Runnable> tasks, long timeoutMs) {
+        List<Future<?>> futures = tasks.stream().<Future<?>>map(executor::submit).toList();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (Future<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (Exception e) {
+            futures.forEach(future -> future.cancel(true));
+            String errMsg = String.format("Error on connection storm to %s: %s", url, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    /**
+     * Times one connection from its interruption to its restoration.
+     */
+    private final class ReconnectTracker extends JmsConnectionListenerAdapter {
+
+        private volatile long interruptedAt;
+
+        @Override
+        public void onConnectionInterrupted(URI remoteURI) {
+            interruptedAt = System.nanoTime();
+            firstInterruption.compareAndSet(0, interruptedAt);
+            interruptedConnections.add(this);
+            downConnections.add(this);
+        }
+
+        @Override
+        public void onConnectionRestored(URI remoteURI) {
+            reconnectLatencies.recordSince(interruptedAt);
+            restoredConnections.add(this);
+            downConnections.remove(this);
+        }
+
+        @Override
+        public void onConnectionFailure(Throwable error) {
+            LOGGER.debug("[{}] Connection to {} failed: {}", protocol, url, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.client;
+
+import io.brokerqe.claire.clients.GeneratedInputStream;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends and receives large messages with the Artemis core client, which streams the body in chunks in both
+ * directions: the body is read from a {@link GeneratedInputStream} while sending, and written into its verifier
+ * while receiving. Unlike {@link JmsClient#produceLarge(long, long, boolean)} over AMQP, the test JVM never holds
+ * a whole body, so the memory used does not depend on the message size. Messages carry the same size and seed
+ * properties as those of {@link JmsClient}, so either client can verify them.
+ */
+public class CoreLargeMessageClient implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoreLargeMessageClient.class);
+
+    private final String queueName;
+    private final ServerLocator locator;
+    private final ClientSessionFactory sessionFactory;
+    private final ClientSession session;
+
+    /**
+     * @param url core url of the broker, i.e. tcp://host:port
+     */
+    public CoreLargeMessageClient(String url, String username, String password, String queueName) {
+        this.queueName = queueName;
+        ServerLocator serverLocator = null;
+        ClientSessionFactory factory = null;
+        try {
+            serverLocator = ActiveMQClient.createServerLocator(url);
+            factory = serverLocator.createSessionFactory();
+            session = factory.createSession(username, password, false, true, true, false, 0);
+            if (!session.queueQuery(SimpleString.toSimpleString(queueName)).isExists()) {
+                session.createQueue(new QueueConfiguration(queueName).setRoutingType(RoutingType.ANYCAST).setDurable(true));
+            }
+            session.start();
+        } catch (Exception e) {
+            closeQuietly(factory, serverLocator);
+            String errMsg = String.format("Error on create core session to %s: %s", url, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        locator = serverLocator;
+        sessionFactory = factory;
+    }
+
+    /**
+     * Sends durable messages of the given size, each send blocks until the broker persisted the message.
+     * @return number of body bytes sent
+     */
+    public long produce(long numOfMsgs, long sizeOfMsgBytes) {
+        long sentBytes = 0;
+        try (ClientProducer producer = session.createProducer(queueName)) {
+            for (int i = 0; i < numOfMsgs; i++) {
+                long seed = ThreadLocalRandom.current().nextLong();
+                ClientMessage message = session.createMessage(true);
+                message.putLongProperty(JmsClient.LARGE_MESSAGE_SIZE_PROPERTY, sizeOfMsgBytes);
+                message.putLongProperty(JmsClient.LARGE_MESSAGE_SEED_PROPERTY, seed);
+                message.setBodyInputStream(new GeneratedInputStream(sizeOfMsgBytes, seed));
+                producer.send(message);
+                sentBytes += sizeOfMsgBytes;
+                LOGGER.trace("Sent large message {} of {} bytes to {}", i, sizeOfMsgBytes, queueName);
+            }
+        } catch (ActiveMQException e) {
+            String errMsg = String.format("Error on producing large message: %s", e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        return sentBytes;
+    }
+
+    /**
+     * Receives messages sent by {@link #produce(long, long)} and verifies their content while it is streamed in.
+     * A missing message, a differing or truncated body fails the consumer.
+     * @return number of body bytes received and verified
+     */
+    public long consume(long numOfMsgs, long msgTimeout) {
+        long receivedBytes = 0;
+        try (ClientConsumer consumer = session.createConsumer(queueName)) {
+            for (int i = 0; i < numOfMsgs; i++) {
+                ClientMessage message = consumer.receive(msgTimeout);
+                if (message == null) {
+                    throw new ClaireRuntimeException(String.format("No message received from %s in %d ms, %d of %d consumed",
+                            queueName, msgTimeout, i, numOfMsgs));
+                }
+                long size = message.getLongProperty(JmsClient.LARGE_MESSAGE_SIZE_PROPERTY);
+                long seed = message.getLongProperty(JmsClient.LARGE_MESSAGE_SEED_PROPERTY);
+                try (OutputStream verifier = GeneratedInputStream.verifier(size, seed)) {
+                    // blocks until the whole body is streamed from the broker
+                    message.saveToOutputStream(verifier);
+                }
+                message.acknowledge();
+                receivedBytes += size;
+                LOGGER.trace("Received and verified large message {} of {} bytes from {}", i, size, queueName);
+            }
+        } catch (ActiveMQException | IOException e) {
+            String errMsg = String.format("Error on consuming large message: %s", e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        return receivedBytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (ActiveMQException e) {
+            LOGGER.debug("Failed to close core session of {}: {}", queueName, e.getMessage());
+        }
+        closeQuietly(sessionFactory, locator);
+    }
+
+    private static void closeQuietly(ClientSessionFactory factory, ServerLocator serverLocator) {
+        if (factory != null) {
+            factory.close();
+        }
+        if (serverLocator != null) {
+            serverLocator.close();
+        }
+    }
+}
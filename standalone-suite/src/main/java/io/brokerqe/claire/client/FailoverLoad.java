@@ -0,0 +1,362 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.client;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.apache.qpid.jms.JmsConnection;
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steady persistent load for failover measurements: one producer sending numbered messages at a fixed rate and one
+ * consumer receiving them, each on its own qpid-jms connection with a failover url. The completion time of every
+ * send and receive is kept, so that the outage seen by the clients around a failure ({@link #markFailure()}), the
+ * time until the clients noticed it and reconnected, and the lost and duplicate messages are known once the load
+ * is stopped.
+ */
+public class FailoverLoad implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FailoverLoad.class);
+    public static final String SEQUENCE_PROPERTY = "claireSequence";
+    private static final int MSG_SIZE_BYTES = 1024;
+    private static final long RECEIVE_TIMEOUT_MS = Constants.DURATION_100_MILLISECONDS;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String queueName;
+    private final int rate;
+    // System.nanoTime() of completed sends and receives, in completion order
+    private final List<Long> sendTimes = new ArrayList<>();
+    private final List<Long> receiveTimes = new ArrayList<>();
+    private final Set<Long> sent = ConcurrentHashMap.newKeySet();
+    private final Set<Long> received = ConcurrentHashMap.newKeySet();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong firstInterruption = new AtomicLong();
+    private final AtomicLong firstRestoration = new AtomicLong();
+    private final LatencyRecorder sendLatencies = new LatencyRecorder("send");
+    private volatile boolean producing;
+    private volatile boolean consuming;
+    private volatile long failureNanos;
+    private Connection producerConnection;
+    private Connection consumerConnection;
+    private Thread producerThread;
+    private Thread consumerThread;
+
+    /**
+     * @param url qpid-jms failover url of all brokers the clients may fail over to
+     * @param rate messages per second sent by the producer
+     */
+    public FailoverLoad(String url, String username, String password, String queueName, int rate) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.queueName = queueName;
+        this.rate = rate;
+    }
+
+    /**
+     * Connects the clients and starts sending and receiving in background threads.
+     */
+    public FailoverLoad start() {
+        LOGGER.info("[FailoverLoad] Sending {} msgs/s to {} on {}", rate, queueName, url);
+        try {
+            consumerConnection = connect();
+            producerConnection = connect();
+        } catch (JMSException e) {
+            String errMsg = String.format("Error on connecting failover load to %s: %s", url, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        consuming = true;
+        producing = true;
+        consumerThread = startThread("failover-load-consumer", this::consumeLoop);
+        producerThread = startThread("failover-load-producer", this::produceLoop);
+        return this;
+    }
+
+    /**
+     * Marks the moment a failure is injected, the outage and reconnection times are measured from it.
+     */
+    public void markFailure() {
+        firstInterruption.set(0);
+        firstRestoration.set(0);
+        failureNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops the producer and waits until the consumer received every sent message (or the timeout passed).
+     */
+    public void stop(long drainTimeoutMs) {
+        producing = false;
+        join(producerThread, drainTimeoutMs);
+        LOGGER.info("[FailoverLoad] Stopped producing after {} messages, draining {}", sent.size(), queueName);
+        TimeHelper.waitFor(e -> received.containsAll(sent), Constants.DURATION_100_MILLISECONDS, drainTimeoutMs);
+        consuming = false;
+        join(consumerThread, drainTimeoutMs);
+        close();
+    }
+
+    @Override
+    public void close() {
+        producing = false;
+        consuming = false;
+        for (Connection connection : new Connection[] {producerConnection, consumerConnection}) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (JMSException e) {
+                    LOGGER.debug("[FailoverLoad] Unable to close connection to {}: {}", url, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return ms between the last send completed before the failure and the first one completed after it
+     */
+    public long getSendOutageMs() {
+        return outageMs(sendTimes);
+    }
+
+    /**
+     * @return ms between the last receive before the failure and the first one after it
+     */
+    public long getReceiveOutageMs() {
+        return outageMs(receiveTimes);
+    }
+
+    /**
+     * @return ms from the failure until a client connection was interrupted, -1 if none was
+     */
+    public long getDetectionMs() {
+        return sinceFailureMs(firstInterruption.get());
+    }
+
+    /**
+     * @return ms from the failure until an interrupted client connection was restored, -1 if none was
+     */
+    public long getReconnectMs() {
+        return sinceFailureMs(firstRestoration.get());
+    }
+
+    /**
+     * @return ms from the failure until the first send completed after it, -1 if none did
+     */
+    public long getFirstSendAfterFailureMs() {
+        return sinceFailureMs(firstAfterFailure(sendTimes));
+    }
+
+    /**
+     * @return ms from the failure until the first receive after it, -1 if none happened
+     */
+    public long getFirstReceiveAfterFailureMs() {
+        return sinceFailureMs(firstAfterFailure(receiveTimes));
+    }
+
+    public long getSentCount() {
+        return sent.size();
+    }
+
+    public long getReceivedCount() {
+        return received.size();
+    }
+
+    /**
+     * @return acknowledged sends never received
+     */
+    public long getLostCount() {
+        return sent.stream().filter(sequence -> !received.contains(sequence)).count();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    public long getSendFailureCount() {
+        return sendFailures.get();
+    }
+
+    public LatencyRecorder getSendLatencies() {
+        return sendLatencies;
+    }
+
+    /**
+     * @return counts and failover timings of the load, -1 for timings which did not happen
+     */
+    public Map<String, String> summarize() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("rate", String.valueOf(rate));
+        summary.put("sent", String.valueOf(getSentCount()));
+        summary.put("received", String.valueOf(getReceivedCount()));
+        summary.put("lost", String.valueOf(getLostCount()));
+        summary.put("duplicates", String.valueOf(getDuplicateCount()));
+        summary.put("send_failures", String.valueOf(getSendFailureCount()));
+        summary.put("client_detection_ms", String.valueOf(getDetectionMs()));
+        summary.put("client_reconnect_ms", String.valueOf(getReconnectMs()));
+        summary.put("first_send_after_failure_ms", String.valueOf(getFirstSendAfterFailureMs()));
+        summary.put("first_receive_after_failure_ms", String.valueOf(getFirstReceiveAfterFailureMs()));
+        summary.put("send_outage_ms", String.valueOf(getSendOutageMs()));
+        summary.put("receive_outage_ms", String.valueOf(getReceiveOutageMs()));
+        summary.putAll(sendLatencies.summarize());
+        return summary;
+    }
+
+    private Connection connect() throws JMSException {
+        Connection connection = new JmsConnectionFactory(url).createConnection(username, password);
+        ((JmsConnection) connection).addConnectionListener(new FailoverTracker());
+        connection.start();
+        return connection;
+    }
+
+    private void produceLoop() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        byte[] body = new byte[MSG_SIZE_BYTES];
+        try (Session session = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageProducer producer = session.createProducer(session.createQueue(queueName))) {
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+            long sequence = 0;
+            long next = System.nanoTime();
+            while (producing) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                // after a stall (failover) continue at the fixed rate instead of bursting the missed messages
+                next = Math.max(next + intervalNanos, System.nanoTime());
+                BytesMessage message = session.createBytesMessage();
+                message.writeBytes(body);
+                message.setLongProperty(SEQUENCE_PROPERTY, sequence);
+                long start = System.nanoTime();
+                try {
+                    producer.send(message);
+                    long completed = System.nanoTime();
+                    sendLatencies.record(completed - start);
+                    sent.add(sequence);
+                    synchronized (sendTimes) {
+                        sendTimes.add(completed);
+                    }
+                } catch (JMSException e) {
+                    // in doubt, a failover url only gives up on a failed send after its reconnect attempts
+                    sendFailures.incrementAndGet();
+                    LOGGER.debug("[FailoverLoad] Send of {} failed: {}", sequence, e.getMessage());
+                }
+                sequence++;
+            }
+        } catch (JMSException e) {
+            LOGGER.error("[FailoverLoad] Producer to {} failed: {}", queueName, e.getMessage());
+        }
+    }
+
+    private void consumeLoop() {
+        try (Session session = consumerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageConsumer consumer = session.createConsumer(session.createQueue(queueName))) {
+            while (consuming) {
+                Message message = consumer.receive(RECEIVE_TIMEOUT_MS);
+                if (message == null) {
+                    continue;
+                }
+                long completed = System.nanoTime();
+                if (!received.add(message.getLongProperty(SEQUENCE_PROPERTY))) {
+                    duplicates.incrementAndGet();
+                }
+                synchronized (receiveTimes) {
+                    receiveTimes.add(completed);
+                }
+            }
+        } catch (JMSException e) {
+            LOGGER.error("[FailoverLoad] Consumer of {} failed: {}", queueName, e.getMessage());
+        }
+    }
+
+    private long outageMs(List<Long> times) {
+        long failure = failureNanos;
+        long lastBefore = 0;
+        long firstAfter = 0;
+        synchronized (times) {
+            for (long time : times) {
+                if (time <= failure) {
+                    lastBefore = time;
+                } else {
+                    firstAfter = time;
+                    break;
+                }
+            }
+        }
+        if (failure == 0 || lastBefore == 0 || firstAfter == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(firstAfter - lastBefore);
+    }
+
+    private long firstAfterFailure(List<Long> times) {
+        synchronized (times) {
+            return times.stream().filter(time -> time > failureNanos).findFirst().orElse(0L);
+        }
+    }
+
+    private long sinceFailureMs(long nanos) {
+        return failureNanos == 0 || nanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos - failureNanos);
+    }
+
+    private static Thread startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void join(Thread thread, long timeoutMs) {
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records when the clients first noticed the failure and when they first got their connection back.
+     */
+    private final class FailoverTracker extends JmsConnectionListenerAdapter {
+
+        @Override
+        public void onConnectionInterrupted(URI remoteURI) {
+            firstInterruption.compareAndSet(0, System.nanoTime());
+        }
+
+        @Override
+        public void onConnectionRestored(URI remoteURI) {
+            LOGGER.debug("[FailoverLoad] Connection restored to {}", remoteURI);
+            firstRestoration.compareAndSet(0, System.nanoTime());
+        }
+
+        @Override
+        public void onConnectionFailure(Throwable error) {
+            LOGGER.debug("[FailoverLoad] Connection to {} failed: {}", url, error.getMessage());
+        }
+    }
+}
@@ -6,9 +6,12 @@ package io.brokerqe.claire.client;
 
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.clients.GeneratedInputStream;
 import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.metrics.LatencyRecorder;
 import io.brokerqe.claire.ResourceManager;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.Connection;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.Destination;
@@ -23,6 +26,9 @@ import jakarta.jms.Topic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -30,12 +36,18 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class JmsClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JmsClient.class);
 
     public static final String TIMEOUT_EXCEED_OR_CONSUMER_WAS_CLOSED = "timeout exceed or consumer was closed";
+    public static final String LARGE_MESSAGE_SIZE_PROPERTY = "claireLargeMessageSize";
+    public static final String LARGE_MESSAGE_SEED_PROPERTY = "claireLargeMessageSeed";
+
+    private static final int LARGE_MESSAGE_CHUNK_SIZE = 64 * 1024;
 
     private final String clientId;
     private final ConnectionFactory cf;
@@ -50,6 +62,13 @@ public class JmsClient {
     private final Map<String, Future<Map<String, Message>>> consumedMsgs;
     private long producerIdCounter;
     private long consumerIdCounter;
+    private boolean storeMessages;
+    private LatencyRecorder commitLatencies;
+    private boolean commitTrailingBatch;
+    private final AtomicLong redeliveredMsgs = new AtomicLong();
+    // large messages are never kept, their tasks give the number of body bytes sent or received
+    private final Map<String, Future<Long>> producedLargeBytes = new ConcurrentHashMap<>();
+    private final Map<String, Future<Long>> consumedLargeBytes = new ConcurrentHashMap<>();
 
     public JmsClient(String clientId, ConnectionFactory cf) {
         this.clientId = clientId;
@@ -60,6 +79,8 @@ public class JmsClient {
         consumedMsgs = new ConcurrentHashMap<>();
         producerIdCounter = 1;
         consumerIdCounter = 1;
+        storeMessages = true;
+        commitTrailingBatch = true;
     }
 
     public JmsClient withCredentials(String username, String password) {
@@ -74,6 +95,37 @@ public class JmsClient {
         return this;
     }
 
+    /**
+     * Whether produced and consumed messages are kept in memory to be later returned by getProducedMsgs and
+     * getConsumedMsgs. Disable it when producing or consuming a big amount of messages.
+     * @param storeMessages true to keep the messages in memory (default), false otherwise
+     * @return this client
+     */
+    public JmsClient withStoreMessages(boolean storeMessages) {
+        this.storeMessages = storeMessages;
+        return this;
+    }
+
+    /**
+     * Times every session commit of the producers and consumers of this client into the recorder.
+     */
+    public JmsClient withCommitLatencies(LatencyRecorder commitLatencies) {
+        this.commitLatencies = commitLatencies;
+        return this;
+    }
+
+    /**
+     * Whether the last batch of produce/consume, smaller than commitOnEveryNMsgs, is committed (or acknowledged) once
+     * all messages are processed. Disable it to leave the batch open, i.e. to be rolled back (redelivered) on
+     * disconnect.
+     * @param commitTrailingBatch true to commit the trailing batch (default), false otherwise
+     * @return this client
+     */
+    public JmsClient withCommitTrailingBatch(boolean commitTrailingBatch) {
+        this.commitTrailingBatch = commitTrailingBatch;
+        return this;
+    }
+
     public JmsClient withDestination(Class<? extends Destination> dstClass, String dstName) {
         this.dstClass = dstClass;
         this.dstName = dstName;
@@ -123,27 +175,12 @@ public class JmsClient {
 
     public Map<String, Message> getProducedMsgs() {
         Map<String, Message> allProducedMsgs = new HashMap<>();
-        producedMsgs.values().forEach(e -> {
-            try {
-                allProducedMsgs.putAll(e.get());
-            } catch (InterruptedException | ExecutionException ex) {
-                String errMsg = String.format("Error on getting produced messages: %s", ex.getMessage());
-                LOGGER.error(errMsg);
-                throw new ClaireRuntimeException(errMsg, ex);
-            }
-        });
+        producedMsgs.values().forEach(e -> allProducedMsgs.putAll(getResult(e, "produced messages")));
         return allProducedMsgs;
     }
 
     public Map<String, Message> getProducedMsgs(long producerId) {
-        try {
-            String id = "producer-" + producerId;
-            return producedMsgs.get(id).get();
-        } catch (InterruptedException | ExecutionException e) {
-            String errMsg = String.format("Error on getting produced messages: %s", e.getMessage());
-            LOGGER.error(errMsg);
-            throw new ClaireRuntimeException(errMsg, e);
-        }
+        return getResult(producedMsgs.get("producer-" + producerId), "produced messages");
     }
 
     public synchronized void clearProducedMsgs() {
@@ -152,33 +189,42 @@ public class JmsClient {
 
     public Map<String, Message> getConsumedMsgs() {
         Map<String, Message> allConsumedMsgs = new HashMap<>();
-        consumedMsgs.values().forEach(e -> {
-            try {
-                allConsumedMsgs.putAll(e.get());
-            } catch (InterruptedException | ExecutionException ex) {
-                String errMsg = String.format("Error on getting consumed messages: %s", ex.getMessage());
-                LOGGER.error(errMsg);
-                throw new ClaireRuntimeException(errMsg, ex);
-            }
-        });
+        consumedMsgs.values().forEach(e -> allConsumedMsgs.putAll(getResult(e, "consumed messages")));
         return allConsumedMsgs;
     }
 
     public Map<String, Message> getConsumedMsgs(long consumerId) {
-        try {
-            String id = "consumer-" + consumerId;
-            return consumedMsgs.get(id).get();
-        } catch (InterruptedException | ExecutionException e) {
-            String errMsg = String.format("Error on getting consumed messages: %s", e.getMessage());
-            LOGGER.error(errMsg);
-            throw new ClaireRuntimeException(errMsg, e);
-        }
+        return getResult(consumedMsgs.get("consumer-" + consumerId), "consumed messages");
+    }
+
+    /**
+     * @return number of messages consumed by this client with the JMSRedelivered flag set
+     */
+    public long getRedeliveredMsgsCount() {
+        return redeliveredMsgs.get();
     }
 
     public void clearConsumedMsgs() {
         consumedMsgs.clear();
     }
 
+    /**
+     * Waits for all {@link #produceLarge(long, long, boolean)} producers of this client, a failed one fails the call.
+     * @return number of body bytes sent by them
+     */
+    public long getProducedLargeBytes() {
+        return producedLargeBytes.values().stream().mapToLong(e -> getResult(e, "produced large messages")).sum();
+    }
+
+    /**
+     * Waits for all {@link #consumeLarge(long, long, boolean)} consumers of this client, a failed one (e.g. on a
+     * differing body) fails the call.
+     * @return number of body bytes received and verified by them
+     */
+    public long getConsumedLargeBytes() {
+        return consumedLargeBytes.values().stream().mapToLong(e -> getResult(e, "consumed large messages")).sum();
+    }
+
     public long produce(long numOfMsgs) {
         return produce(numOfMsgs, -1, null, 1, 0, false);
     }
@@ -224,9 +270,14 @@ public class JmsClient {
                             LOGGER.trace("Message with id {} sent but not commit yet for client id {} and producer id {}",
                                     messageId, clientId, producerId);
                         }
-                        msgsProduced.put(messageId, message);
+                        if (storeMessages) {
+                            msgsProduced.put(messageId, message);
+                        }
                         TimeHelper.waitFor(delayBetweenMsgs);
                     }
+                    if (transactedSession && commitTrailingBatch && commitCounter > 1) {
+                        evaluateCommitOnEveryNMsg(session, commitCounter, commitCounter);
+                    }
                     return msgsProduced;
                 } catch (JMSException e) {
                     String errMsg = String.format("Error on producing message: %s", e.getMessage());
@@ -235,15 +286,7 @@ public class JmsClient {
                 }
             }
         };
-        ExecutorService executorService = ResourceManager.getExecutorService();
-        LOGGER.debug("Submitting produce task to executor service for client id {} and producer id {}", clientId, producerId);
-        Future<Map<String, Message>> producerFuture = executorService.submit(callableProducer);
-        if (waitForCompletion) {
-            while (!producerFuture.isDone()) {
-                TimeHelper.waitFor(Constants.DURATION_100_MILLISECONDS);
-            }
-        }
-        producedMsgs.put(producerId, producerFuture);
+        producedMsgs.put(producerId, submit("produce", producerId, callableProducer, waitForCompletion));
         return producerIdCounter;
     }
 
@@ -259,6 +302,10 @@ public class JmsClient {
         return consume(numOfMsgs, msgSelector, msgTimeout, 1, 0, waitForCompletion);
     }
 
+    /**
+     * @param commitOnEveryNMsgs messages per commit of a transacted session, or per acknowledge of a
+     *                           CLIENT_ACKNOWLEDGE session
+     */
     public long consume(long numOfMsgs, String msgSelector, long msgTimeout, long commitOnEveryNMsgs,
                         long delayBetweenMsgs, boolean waitForCompletion) {
         long consumerIdCounter = this.consumerIdCounter;
@@ -270,8 +317,8 @@ public class JmsClient {
             try (Session session = openSession()) {
                 LOGGER.debug("Consuming messages for client id {} and consumer id {}", clientId, consumerId);
                 try (MessageConsumer consumer = createConsumer(session, consumerId, msgSelector)) {
+                    Message message = null;
                     for (int i = 0; i < numOfMsgs; i++) {
-                        Message message;
                         if (msgTimeout <= 0) {
                             LOGGER.trace("Trying to consume message without a timeout");
                             message = consumer.receive();
@@ -289,15 +336,29 @@ public class JmsClient {
                         String messageId = message.getJMSMessageID();
                         LOGGER.trace("Received message with id {} for client id {} and consumer id {}", messageId, clientId,
                                 consumerId);
+                        if (message.getJMSRedelivered()) {
+                            redeliveredMsgs.incrementAndGet();
+                        }
                         if (transactedSession) {
                             commitCounter = evaluateCommitOnEveryNMsg(session, commitCounter, commitOnEveryNMsgs);
+                        } else if (sessionAckMode == Session.CLIENT_ACKNOWLEDGE) {
+                            commitCounter = evaluateAcknowledgeOnEveryNMsg(message, commitCounter, commitOnEveryNMsgs);
                         } else {
                             LOGGER.trace("Message with id {} received but not commit yet for client id {} and consumer id {}",
                                     messageId, clientId, consumerId);
                         }
-                        msgsConsumed.put(message.getJMSMessageID(), message);
+                        if (storeMessages) {
+                            msgsConsumed.put(message.getJMSMessageID(), message);
+                        }
                         TimeHelper.waitFor(delayBetweenMsgs);
                     }
+                    if (commitTrailingBatch && commitCounter > 1) {
+                        if (transactedSession) {
+                            evaluateCommitOnEveryNMsg(session, commitCounter, commitCounter);
+                        } else if (sessionAckMode == Session.CLIENT_ACKNOWLEDGE) {
+                            evaluateAcknowledgeOnEveryNMsg(message, commitCounter, commitCounter);
+                        }
+                    }
                     return msgsConsumed;
                 } catch (JMSException | ClaireRuntimeException e) {
                     String errMsg = String.format("Error on consuming message: %s", e.getMessage());
@@ -306,16 +367,116 @@ public class JmsClient {
                 }
             }
         };
+        consumedMsgs.put(consumerId, submit("consume", consumerId, callableConsumer, waitForCompletion));
+        return consumerIdCounter;
+    }
+
+    /**
+     * Produces BytesMessages with generated content of the given size (see {@link GeneratedInputStream}), so that
+     * the test JVM never holds more than one body. The content is copied into the message in chunks, the client
+     * (Qpid JMS) still keeps the whole body of the message being sent, see {@link CoreLargeMessageClient} for
+     * streaming. Messages are not kept regardless of {@link #withStoreMessages(boolean)}, the producer gives only the
+     * number of bytes sent, see {@link #getProducedLargeBytes()}.
+     * Size and seed of the content are sent as message properties for {@link #consumeLarge(long, long, boolean)}.
+     */
+    public long produceLarge(long numOfMsgs, long sizeOfMsgBytes, boolean waitForCompletion) {
+        long producerIdCounter = this.producerIdCounter;
+        this.producerIdCounter++;
+        String producerId = "producer-" + producerIdCounter;
+        Callable<Long> callableProducer = () -> {
+            try (Session session = openSession()) {
+                long sentBytes = 0;
+                LOGGER.debug("Producing large messages of {} bytes for client id {} and producer id {}", sizeOfMsgBytes,
+                        clientId, producerId);
+                try (MessageProducer producer = createProducer(session, producerId)) {
+                    for (int i = 0; i < numOfMsgs; i++) {
+                        BytesMessage message = generateLargeMessage(session, sizeOfMsgBytes, ThreadLocalRandom.current().nextLong());
+                        producer.send(message);
+                        String messageId = message.getJMSMessageID();
+                        LOGGER.trace("Sent large message with id {} for client id {} and producer id {}", messageId, clientId,
+                                producerId);
+                        if (transactedSession) {
+                            evaluateCommitOnEveryNMsg(session, 1, 1);
+                        }
+                        sentBytes += sizeOfMsgBytes;
+                    }
+                    return sentBytes;
+                } catch (JMSException | IOException e) {
+                    String errMsg = String.format("Error on producing large message: %s", e.getMessage());
+                    LOGGER.error(errMsg);
+                    throw new ClaireRuntimeException(errMsg, e);
+                }
+            }
+        };
+        producedLargeBytes.put(producerId, submit("produce large", producerId, callableProducer, waitForCompletion));
+        return producerIdCounter;
+    }
+
+    /**
+     * Consumes messages sent by {@link #produceLarge(long, long, boolean)} and verifies their content while reading
+     * the body in chunks. As with produceLarge messages are not kept, the consumer gives only the number of bytes
+     * received, see {@link #getConsumedLargeBytes()}. A differing or truncated body fails the consumer.
+     */
+    public long consumeLarge(long numOfMsgs, long msgTimeout, boolean waitForCompletion) {
+        long consumerIdCounter = this.consumerIdCounter;
+        this.consumerIdCounter++;
+        String consumerId = "consumer-" + consumerIdCounter;
+        Callable<Long> callableConsumer = () -> {
+            long receivedBytes = 0;
+            try (Session session = openSession()) {
+                LOGGER.debug("Consuming large messages for client id {} and consumer id {}", clientId, consumerId);
+                try (MessageConsumer consumer = createConsumer(session, consumerId, null)) {
+                    for (int i = 0; i < numOfMsgs; i++) {
+                        Message message = msgTimeout <= 0 ? consumer.receive() : consumer.receive(msgTimeout);
+                        if (message == null) {
+                            String errMsg = TIMEOUT_EXCEED_OR_CONSUMER_WAS_CLOSED;
+                            LOGGER.trace(errMsg);
+                            throw new ClaireRuntimeException(errMsg);
+                        }
+                        verifyLargeMessage(message);
+                        String messageId = message.getJMSMessageID();
+                        LOGGER.trace("Received and verified large message with id {} for client id {} and consumer id {}",
+                                messageId, clientId, consumerId);
+                        if (transactedSession) {
+                            evaluateCommitOnEveryNMsg(session, 1, 1);
+                        }
+                        receivedBytes += message.getLongProperty(LARGE_MESSAGE_SIZE_PROPERTY);
+                    }
+                    return receivedBytes;
+                } catch (JMSException | IOException | ClaireRuntimeException e) {
+                    String errMsg = String.format("Error on consuming large message: %s", e.getMessage());
+                    LOGGER.error(errMsg);
+                    throw new ClaireRuntimeException(errMsg, e);
+                }
+            }
+        };
+        consumedLargeBytes.put(consumerId, submit("consume large", consumerId, callableConsumer, waitForCompletion));
+        return consumerIdCounter;
+    }
+
+    /**
+     * Runs the producer or consumer task on the shared executor service, optionally waiting until it is done.
+     */
+    private <T> Future<T> submit(String task, String workerId, Callable<T> callable, boolean waitForCompletion) {
         ExecutorService executorService = ResourceManager.getExecutorService();
-        LOGGER.debug("Submitting consume task to executor service for client id {} and consumer id {}", clientId, consumerId);
-        Future<Map<String, Message>> consumerFuture = executorService.submit(callableConsumer);
+        LOGGER.debug("Submitting {} task to executor service for client id {} and {}", task, clientId, workerId);
+        Future<T> future = executorService.submit(callable);
         if (waitForCompletion) {
-            while (!consumerFuture.isDone()) {
+            while (!future.isDone()) {
                 TimeHelper.waitFor(Constants.DURATION_100_MILLISECONDS);
             }
         }
-        consumedMsgs.put(consumerId, consumerFuture);
-        return consumerIdCounter;
+        return future;
+    }
+
+    private static <T> T getResult(Future<T> future, String result) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            String errMsg = String.format("Error on getting %s: %s", result, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
     }
 
     private Session openSession() {
@@ -399,6 +560,35 @@ public class JmsClient {
         }
     }
 
+    private BytesMessage generateLargeMessage(Session session, long size, long seed) throws JMSException, IOException {
+        BytesMessage message = session.createBytesMessage();
+        message.setLongProperty(LARGE_MESSAGE_SIZE_PROPERTY, size);
+        message.setLongProperty(LARGE_MESSAGE_SEED_PROPERTY, seed);
+        try (InputStream content = new GeneratedInputStream(size, seed)) {
+            byte[] chunk = new byte[LARGE_MESSAGE_CHUNK_SIZE];
+            int read;
+            while ((read = content.read(chunk)) > 0) {
+                message.writeBytes(chunk, 0, read);
+            }
+        }
+        return message;
+    }
+
+    private void verifyLargeMessage(Message message) throws JMSException, IOException {
+        if (!(message instanceof BytesMessage bytesMessage)) {
+            throw new ClaireRuntimeException("Received " + message.getClass().getSimpleName() + " instead of a large BytesMessage");
+        }
+        long size = message.getLongProperty(LARGE_MESSAGE_SIZE_PROPERTY);
+        long seed = message.getLongProperty(LARGE_MESSAGE_SEED_PROPERTY);
+        try (OutputStream verifier = GeneratedInputStream.verifier(size, seed)) {
+            byte[] chunk = new byte[LARGE_MESSAGE_CHUNK_SIZE];
+            int read;
+            while ((read = bytesMessage.readBytes(chunk)) > 0) {
+                verifier.write(chunk, 0, read);
+            }
+        }
+    }
+
     private void populateMsgProperties(Message message, Map<String, String> msgsProperties) {
         if (msgsProperties == null) {
             LOGGER.trace("Not populating message properties as message properties is null for client id {}", clientId);
@@ -429,7 +619,11 @@ public class JmsClient {
         if (commitCounter >= commitOn) {
             try {
                 LOGGER.trace("Committing for client id {}", clientId);
+                long commitStart = System.nanoTime();
                 session.commit();
+                if (commitLatencies != null) {
+                    commitLatencies.recordSince(commitStart);
+                }
             } catch (JMSException e) {
                 String errMsg = String.format("Failed on session commit: %s", e.getMessage());
                 LOGGER.error(errMsg);
@@ -443,4 +637,21 @@ public class JmsClient {
         }
         return counter;
     }
+
+    private long evaluateAcknowledgeOnEveryNMsg(Message message, long ackCounter, long ackOn) {
+        if (ackCounter < ackOn) {
+            LOGGER.trace("Not acknowledging yet for client id {} as ack counter {} < ack on {}", clientId, ackCounter, ackOn);
+            return ackCounter + 1;
+        }
+        try {
+            LOGGER.trace("Acknowledging for client id {}", clientId);
+            // acknowledges all messages consumed by the session so far
+            message.acknowledge();
+        } catch (JMSException e) {
+            String errMsg = String.format("Failed on message acknowledge: %s", e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+        return 1;
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.client;
+
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.apache.qpid.jms.JmsConnectionListener;
+import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
+
+import java.net.URI;
+
+/**
+ * {@link JmsConnectionListener} which ignores all events, so that listeners override only the events they track.
+ */
+abstract class JmsConnectionListenerAdapter implements JmsConnectionListener {
+
+    @Override
+    public void onConnectionEstablished(URI remoteURI) {
+    }
+
+    @Override
+    public void onConnectionFailure(Throwable error) {
+    }
+
+    @Override
+    public void onConnectionInterrupted(URI remoteURI) {
+    }
+
+    @Override
+    public void onConnectionRestored(URI remoteURI) {
+    }
+
+    @Override
+    public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+    }
+
+    @Override
+    public void onSessionClosed(Session session, Throwable cause) {
+    }
+
+    @Override
+    public void onConsumerClosed(MessageConsumer consumer, Throwable cause) {
+    }
+
+    @Override
+    public void onProducerClosed(MessageProducer producer, Throwable cause) {
+    }
+}
@@ -5,18 +5,24 @@
 package io.brokerqe.claire.container;
 
 import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.CreateVolumeCmd;
 import com.github.dockerjava.api.command.InspectContainerCmd;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.command.KillContainerCmd;
+import com.github.dockerjava.api.command.LogContainerCmd;
 import com.github.dockerjava.api.command.PauseContainerCmd;
 import com.github.dockerjava.api.command.UnpauseContainerCmd;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.Volume;
 import io.brokerqe.claire.ArtemisConstants;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.EnvironmentStandalone;
 import io.brokerqe.claire.ResourceManager;
 import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.exception.ClaireNotImplementedException;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
 import io.brokerqe.claire.executor.Executor;
 import io.brokerqe.claire.executor.ExecutorStandalone;
@@ -28,14 +34,19 @@ import org.testcontainers.containers.BindMode;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
-import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.images.ImagePullPolicy;
 import org.testcontainers.images.PullPolicy;
 import org.testcontainers.utility.DockerImageName;
 import org.testcontainers.utility.MountableFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -43,10 +54,13 @@ public abstract class AbstractGenericContainer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractGenericContainer.class);
     private static final String ETC_LOCALTIME = "/etc/localtime";
+    // writable by any container user, like a fresh host directory bound by the tests
+    private static final String TMPFS_OPTIONS = "rw,exec,mode=1777";
 
     protected static final EnvironmentStandalone ENVIRONMENT_STANDALONE = EnvironmentStandalone.getInstance();
 
     private final Slf4jLogConsumer logConsumer;
+    private final ContainerLogScanner logScanner;
     protected GenericContainer<?> container;
     protected String name;
     protected ContainerType type;
@@ -56,6 +70,7 @@ public abstract class AbstractGenericContainer {
     protected AbstractGenericContainer(String name, String dockerImage) {
         this.name = name;
         logConsumer = new Slf4jLogConsumer(LOGGER);
+        logScanner = new ContainerLogScanner(name);
         if (dockerImage != null) {
             container = new GenericContainer<>(DockerImageName.parse(dockerImage));
             LOGGER.debug("[Container: {}] - With default network: {}", name, ResourceManager.getDefaultNetwork());
@@ -74,7 +89,7 @@ public abstract class AbstractGenericContainer {
 
     public void withLogWait(String regex) {
         LOGGER.debug("[Container {}] - With log wait regex: {}", name, regex);
-        container.setWaitStrategy(Wait.forLogMessage(regex, 1));
+        container.setWaitStrategy(new LogScannerWaitStrategy(logScanner, regex));
     }
 
     public void withNetworkAlias(String name) {
@@ -100,6 +115,10 @@ public abstract class AbstractGenericContainer {
         }
         withPullPolicy(PullPolicy.alwaysPull());
         withFileSystemBind(ETC_LOCALTIME, ETC_LOCALTIME, BindMode.READ_ONLY);
+        if (!container.getLogConsumers().contains(logScanner)) {
+            container.withLogConsumer(logScanner);
+        }
+        logScanner.markRun();
         LOGGER.debug("[Container {}] - Starting", name);
         container.start();
     }
@@ -154,6 +173,7 @@ public abstract class AbstractGenericContainer {
         LOGGER.debug("[Container {}] - Stopping and restarting with timeout {}", name, startTimeout);
         container.stop();
         container.withStartupTimeout(startTimeout);
+        logScanner.markRun();
         container.start();
     }
 
@@ -196,6 +216,43 @@ public abstract class AbstractGenericContainer {
         return container.getLogs();
     }
 
+    /**
+     * @return scanner of the container log, which is consumed once since the container start
+     */
+    public ContainerLogScanner getLogScanner() {
+        return logScanner;
+    }
+
+    /**
+     * Streams the stdout/stderr log of the container directly into the host file, without keeping it in memory.
+     *
+     * @param hostFile  file to write the logs into
+     */
+    public void writeLogsToFile(String hostFile) {
+        LOGGER.debug("[Container {}] - Writing logs to host file {}", name, hostFile);
+        try (OutputStream out = Files.newOutputStream(Paths.get(hostFile));
+             LogContainerCmd logCmd = dockerClient.logContainerCmd(container.getContainerId())
+                     .withStdOut(true).withStdErr(true).withFollowStream(false)) {
+            logCmd.exec(new ResultCallback.Adapter<Frame>() {
+                @Override
+                public void onNext(Frame frame) {
+                    try {
+                        out.write(frame.getPayload());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }).awaitCompletion();
+        } catch (IOException | RuntimeException e) {
+            String errMsg = String.format("Error on writing logs of container %s to %s: %s", name, hostFile, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException("Interrupted while writing logs of container " + name, e);
+        }
+    }
+
     private void withStdOutLog() {
         LOGGER.debug("[Container {}] - With stdout logging", name);
         if (container.getLogConsumers().contains(logConsumer)) {
@@ -216,6 +273,44 @@ public abstract class AbstractGenericContainer {
         }
     }
 
+    /**
+     * Backs the container directory by the storage profile. The host directory is used by the bind profile only,
+     * NFS is mounted by the container itself and is supported by containers which override this method.
+     */
+    public void withStorage(StorageProfile profile, String hostDir, String containerDir) {
+        LOGGER.debug("[Container {}] - With {} storage on {}", name, profile, containerDir);
+        switch (profile.getType()) {
+            case BIND -> {
+                TestUtils.createDirectory(hostDir);
+                withFileSystemBind(hostDir, containerDir, BindMode.READ_WRITE);
+            }
+            case TMPFS -> {
+                Map<String, String> tmpFsMapping = container.getTmpFsMapping() == null ? new HashMap<>() : new HashMap<>(container.getTmpFsMapping());
+                tmpFsMapping.put(containerDir, TMPFS_OPTIONS);
+                container.setTmpFsMapping(tmpFsMapping);
+            }
+            case VOLUME -> withNamedVolume(name + "-" + TestUtils.generateRandomName(), containerDir);
+            default -> throw new ClaireNotImplementedException(String.format("%s storage is not supported by container %s", profile, name));
+        }
+    }
+
+    /**
+     * Mounts a docker named volume, created now and labeled for removal at the end of the test session.
+     */
+    public void withNamedVolume(String volumeName, String containerDir) {
+        LOGGER.debug("[Container {}] - With named volume {} on {}", name, volumeName, containerDir);
+        // the session label lets the testcontainers reaper remove the volume
+        Map<String, String> labels = new HashMap<>(DockerClientFactory.DEFAULT_LABELS);
+        labels.put(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, DockerClientFactory.SESSION_ID);
+        try (CreateVolumeCmd createVolumeCmd = dockerClient.createVolumeCmd()) {
+            createVolumeCmd.withName(volumeName).withLabels(labels).exec();
+        }
+        List<Bind> binds = new ArrayList<>(container.getBinds());
+        binds.removeIf(bind -> bind.getVolume().getPath().equals(containerDir));
+        binds.add(new Bind(volumeName, new Volume(containerDir)));
+        container.setBinds(binds);
+    }
+
     public void withEnvVar(Map<String, String> envVars) {
         container.withEnv(envVars);
     }
@@ -235,6 +330,14 @@ public abstract class AbstractGenericContainer {
         executeCommand("rm", "-rf", file);
     }
 
+    /**
+     * @return size of the directory in the container in bytes, as reported by du
+     */
+    public long getDirectorySize(String containerDir) {
+        String output = (String) executeCommand("du", "-sb", containerDir);
+        return Long.parseLong(output.trim().split("\\s+")[0]);
+    }
+
     public void copyDirFrom(String containerDir, String hostDir) {
         LOGGER.debug("[Container {}] - Copying directory {} to host directory {}", name, containerDir, hostDir);
         String tarDstDir = ArtemisConstants.TMP_DIR;
@@ -249,6 +352,38 @@ public abstract class AbstractGenericContainer {
         TestUtils.deleteFile(Paths.get(dstTarFile));
     }
 
+    /**
+     * Copies the files of the container directory to the host directory, skipping the excluded paths and every file
+     * bigger than the given size. The archive is streamed directly into the host directory.
+     *
+     * @param containerDir      directory in the container to copy
+     * @param hostDir           destination directory on the host
+     * @param excludedPaths     paths relative to the container directory to skip (e.g. data/journal)
+     * @param maxFileSizeKb     skip files bigger than this size in KiB, 0 or lower means no limit
+     */
+    public void copyDirFrom(String containerDir, String hostDir, List<String> excludedPaths, long maxFileSizeKb) {
+        LOGGER.debug("[Container {}] - Copying directory {} to host directory {} (excluded: {}, max file size: {} KiB)",
+                name, containerDir, hostDir, excludedPaths, maxFileSizeKb);
+        String tarFile = ArtemisConstants.TMP_DIR + Constants.TAR_TMP_FILE_PREFIX + TestUtils.getRandomString(6) + ".tar";
+        StringBuilder findCmd = new StringBuilder("cd ").append(containerDir).append(" && find .");
+        if (!excludedPaths.isEmpty()) {
+            List<String> prunedPaths = excludedPaths.stream().map(path -> "-path './" + path.replaceFirst("^\\./", "") + "'").toList();
+            findCmd.append(" \\( ").append(String.join(" -o ", prunedPaths)).append(" \\) -prune -o");
+        }
+        findCmd.append(" -type f");
+        if (maxFileSizeKb > 0) {
+            findCmd.append(" -size -").append(maxFileSizeKb + 1).append("k");
+        }
+        findCmd.append(" -print0 | tar --null -cf ").append(tarFile).append(" -T -");
+        executeCommand("sh", "-c", findCmd.toString());
+        TestUtils.createDirectory(hostDir);
+        container.copyFileFromContainer(tarFile, inputStream -> {
+            TestUtils.unTar(inputStream, hostDir);
+            return null;
+        });
+        deleteFileFrom(tarFile);
+    }
+
     public void withPullPolicy(ImagePullPolicy pullPolicy) {
         LOGGER.debug("[Container {}] - Setting pull policy as {}", name, pullPolicy.getClass().getSimpleName());
         container.withImagePullPolicy(pullPolicy);
@@ -9,7 +9,9 @@ import com.sun.security.auth.module.UnixSystem;
 import io.brokerqe.claire.ArtemisConstants;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.exception.ClaireNotImplementedException;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
 import io.brokerqe.claire.helper.TimeHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +24,7 @@ import org.testcontainers.shaded.com.google.common.primitives.Ints;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -39,6 +42,12 @@ public final class ArtemisContainer extends AbstractGenericContainer {
             Constants.FILE_SEPARATOR + ArtemisConstants.INSTANCE_STRING;
     public static final String ARTEMIS_INSTANCE_DATA_DIR = ARTEMIS_INSTANCE_DIR + ArtemisConstants.DATA_DIR;
     private static final String ARTEMIS_INSTANCE_CONTROLLER_CMD = "/usr/local/bin/artemis-controller.sh";
+    private static final String FLIGHT_RECORDING_DIR = "/tmp";
+    private final List<Integer> exposedPorts = new ArrayList<>(DEFAULT_PORTS);
+    private final List<String> nfsMounts = new ArrayList<>();
+    // directories on tmpfs or named volumes, owned by the artemis user by the container entrypoint
+    private final List<String> storageDirs = new ArrayList<>();
+    private String instanceConfigDir;
     private boolean secured = false;
 
     public ArtemisContainer(String name) {
@@ -76,10 +85,22 @@ public final class ArtemisContainer extends AbstractGenericContainer {
     }
 
     public void withInstanceDir(String dirPath) {
+        withInstanceDir(dirPath, StorageProfile.BIND);
+    }
+
+    /**
+     * Instance directory on the storage profile. With other than bind storage, only the etc directory is used from
+     * the host directory (bin and lib are always bound on start), data, log and tmp live on the storage.
+     */
+    public void withInstanceDir(String dirPath, StorageProfile profile) {
         String instanceDir = ARTEMIS_INSTANCE_DIR;
-        LOGGER.debug("[Container {}] with instance dir {} = {}", name, dirPath, instanceDir);
-        TestUtils.createDirectory(dirPath);
-        withFileSystemBind(dirPath, instanceDir, BindMode.READ_WRITE);
+        LOGGER.debug("[Container {}] with {} instance dir {} = {}", name, profile, dirPath, instanceDir);
+        if (profile.getType() == StorageProfile.Type.NFS) {
+            // the controller writes its log into the instance dir before mounting, the mount would hide bin/etc/lib
+            throw new ClaireNotImplementedException("NFS storage is supported for the artemis data dir only");
+        }
+        instanceConfigDir = profile.getType() == StorageProfile.Type.BIND ? null : dirPath + ArtemisConstants.ETC_DIR;
+        withStorage(profile, dirPath, instanceDir);
     }
 
     public void withConfigFile(String srcFilePath, String dstFileName) {
@@ -89,9 +110,38 @@ public final class ArtemisContainer extends AbstractGenericContainer {
     }
 
     public void withDataDir(String dirPath) {
-        LOGGER.debug("[Container {}] with data dir {} = {}", name, dirPath, ARTEMIS_INSTANCE_DATA_DIR);
-        TestUtils.createDirectory(dirPath);
-        withFileSystemBind(dirPath, ARTEMIS_INSTANCE_DATA_DIR, BindMode.READ_WRITE);
+        withDataDir(dirPath, StorageProfile.BIND);
+    }
+
+    /**
+     * Data dir (journal, paging, large messages) on the storage profile, the host directory is used by bind only.
+     */
+    public void withDataDir(String dirPath, StorageProfile profile) {
+        LOGGER.debug("[Container {}] with {} data dir {} = {}", name, profile, dirPath, ARTEMIS_INSTANCE_DATA_DIR);
+        withStorage(profile, dirPath, ARTEMIS_INSTANCE_DATA_DIR);
+    }
+
+    @Override
+    public void withStorage(StorageProfile profile, String hostDir, String containerDir) {
+        switch (profile.getType()) {
+            case NFS -> {
+                LOGGER.debug("[Container {}] - With nfs storage on {}", name, containerDir);
+                nfsMounts.add(profile.getNfsMountString(containerDir));
+            }
+            case TMPFS, VOLUME -> {
+                super.withStorage(profile, hostDir, containerDir);
+                storageDirs.add(containerDir);
+            }
+            default -> super.withStorage(profile, hostDir, containerDir);
+        }
+    }
+
+    /**
+     * Exposes ports of acceptors added on top of the default ones (e.g. in broker.properties), call before start.
+     */
+    public void withExposedPorts(Integer... ports) {
+        LOGGER.debug("[Container {}] with exposed ports {}", name, List.of(ports));
+        exposedPorts.addAll(List.of(ports));
     }
 
     public void withJavaHome(String dirPath) {
@@ -110,14 +160,24 @@ public final class ArtemisContainer extends AbstractGenericContainer {
     }
     public void start(Duration startupTimeout) {
         LOGGER.info("[Container {}] - About to start", name);
-        LOGGER.debug("[Container {}] - Using exposed ports: {}", name, DEFAULT_PORTS);
-        container.addExposedPorts(Ints.toArray(DEFAULT_PORTS));
+        LOGGER.debug("[Container {}] - Using exposed ports: {}", name, exposedPorts);
+        container.addExposedPorts(Ints.toArray(exposedPorts));
         container.withPrivilegedMode(true);
         container.withStartupTimeout(startupTimeout);
         withInstallDir(getArtemisInstallDir());
         withJavaHome(getArtemisJavaHomeDir());
         withFileSystemBind(getArtemisDefaultCfgBinDir(), ARTEMIS_INSTANCE_DIR + ArtemisConstants.BIN_DIR, BindMode.READ_WRITE);
         withFileSystemBind(getArtemisDefaultCfgLibDir(), ARTEMIS_INSTANCE_DIR + ArtemisConstants.LIB_DIR, BindMode.READ_WRITE);
+        if (instanceConfigDir != null) {
+            // ignored when a provided config dir is already bound
+            withFileSystemBind(instanceConfigDir, ARTEMIS_INSTANCE_DIR + ArtemisConstants.ETC_DIR, BindMode.READ_WRITE);
+        }
+        if (!nfsMounts.isEmpty()) {
+            withEnvVar(Map.of("NFS_MOUNTS", String.join("|", nfsMounts)));
+        }
+        if (!storageDirs.isEmpty()) {
+            withEnvVar(Map.of("ARTEMIS_STORAGE_DIRS", String.join("|", storageDirs)));
+        }
         long uid = new UnixSystem().getUid();
         long gid = new UnixSystem().getGid();
         withEnvVar(Map.of("ARTEMIS_GROUP_GID", String.valueOf(gid), "ARTEMIS_USER_UID", String.valueOf(uid)));
@@ -209,6 +269,34 @@ public final class ArtemisContainer extends AbstractGenericContainer {
         }
     }
 
+    /**
+     * Starts a Java Flight Recorder recording (with the "profile" settings) on the broker JVM, using the
+     * DiagnosticCommand MBean. Stop it with {@link #stopFlightRecording(String, String)} to get the recording.
+     */
+    public void startFlightRecording(String recordingName) {
+        LOGGER.info("[Container {}] - Starting flight recording {}", name, recordingName);
+        String output = ArtemisJmxHelper.executeDiagnosticCommand(this, "jfrStart", "name=" + recordingName,
+                "settings=profile", "filename=" + getFlightRecordingFile(recordingName));
+        LOGGER.debug("[Container {}] - {}", name, output.trim());
+    }
+
+    /**
+     * Stops the flight recording, which dumps it in the container, and copies the recording to the host.
+     */
+    public void stopFlightRecording(String recordingName, String hostFile) {
+        LOGGER.info("[Container {}] - Stopping flight recording {}", name, recordingName);
+        String containerFile = getFlightRecordingFile(recordingName);
+        String output = ArtemisJmxHelper.executeDiagnosticCommand(this, "jfrStop", "name=" + recordingName,
+                "filename=" + containerFile);
+        LOGGER.debug("[Container {}] - {}", name, output.trim());
+        copyFileFrom(containerFile, hostFile);
+        deleteFileFrom(containerFile);
+    }
+
+    private String getFlightRecordingFile(String recordingName) {
+        return FLIGHT_RECORDING_DIR + Constants.FILE_SEPARATOR + recordingName + ".jfr";
+    }
+
     public enum ArtemisProcessControllerActions {
         START, STOP, FORCE_STOP
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.container;
+
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.exception.WaitException;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Consumes the container log stream once and keeps the last {@link #DEFAULT_MAX_LINES} lines in a ring buffer.
+ * Every line gets an offset (number of lines seen before it), so callers can remember an offset and later look only
+ * at the lines logged after it, or wait for a pattern which is evaluated on every new line as it arrives.
+ * Scanning since an offset older than the first retained line fails instead of looking at an incomplete log.
+ */
+public class ContainerLogScanner implements Consumer<OutputFrame> {
+
+    public static final int DEFAULT_MAX_LINES = 20000;
+
+    private final String name;
+    private final int maxLines;
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private final Map<OutputFrame.OutputType, StringBuilder> partialLines = new EnumMap<>(OutputFrame.OutputType.class);
+    private final Map<Predicate<String>, CompletableFuture<String>> waiters = new LinkedHashMap<>();
+    private long offset;
+    private long runStartOffset;
+
+    public ContainerLogScanner(String name) {
+        this(name, DEFAULT_MAX_LINES);
+    }
+
+    public ContainerLogScanner(String name, int maxLines) {
+        this.name = name;
+        this.maxLines = maxLines;
+    }
+
+    @Override
+    public synchronized void accept(OutputFrame frame) {
+        if (frame.getType() == OutputFrame.OutputType.END) {
+            flushPartialLines();
+            return;
+        }
+        StringBuilder partial = partialLines.computeIfAbsent(frame.getType(), type -> new StringBuilder());
+        String text = frame.getUtf8String();
+        int start = 0;
+        int newLine;
+        while ((newLine = text.indexOf('\n', start)) >= 0) {
+            partial.append(text, start, newLine);
+            appendLine(partial.toString());
+            partial.setLength(0);
+            start = newLine + 1;
+        }
+        partial.append(text, start, text.length());
+    }
+
+    /**
+     * @return number of lines logged by the container so far (across restarts)
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return offset of the first line logged by the current container run
+     */
+    public synchronized long getRunStartOffset() {
+        return runStartOffset;
+    }
+
+    /**
+     * Marks the start of a new container run, lines logged from now on belong to it.
+     */
+    public synchronized void markRun() {
+        flushPartialLines();
+        runStartOffset = offset;
+    }
+
+    /**
+     * Returns lines logged at or after the offset, which contain the pattern.
+     * @throws ClaireRuntimeException when some lines logged since the offset were already dropped from the buffer,
+     * so a missing match could not be told apart from a dropped one
+     */
+    public synchronized List<String> findLines(Pattern pattern, long fromOffset) {
+        List<String> found = new ArrayList<>();
+        forEachLineSince(fromOffset, line -> {
+            if (pattern.matcher(line).find()) {
+                found.add(line);
+            }
+        });
+        return found;
+    }
+
+    public boolean containsPattern(Pattern pattern, long fromOffset) {
+        return !findLines(pattern, fromOffset).isEmpty();
+    }
+
+    /**
+     * @return future completed with the first line at or after the offset which contains the pattern
+     */
+    public CompletableFuture<String> expect(Pattern pattern, long fromOffset) {
+        return expect(line -> pattern.matcher(line).find(), fromOffset);
+    }
+
+    public String waitFor(Pattern pattern, long fromOffset, long timeoutMs) {
+        return waitFor(line -> pattern.matcher(line).find(), fromOffset, timeoutMs, pattern.pattern());
+    }
+
+    synchronized CompletableFuture<String> expect(Predicate<String> matcher, long fromOffset) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        forEachLineSince(fromOffset, line -> {
+            if (!future.isDone() && matcher.test(line)) {
+                future.complete(line);
+            }
+        });
+        if (!future.isDone()) {
+            waiters.put(matcher, future);
+        }
+        return future;
+    }
+
+    String waitFor(Predicate<String> matcher, long fromOffset, long timeoutMs, String description) {
+        CompletableFuture<String> future = expect(matcher, fromOffset);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new WaitException("Timeout after " + timeoutMs + " ms waiting for " + description + " in log of container " + name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaireRuntimeException("Interrupted while waiting for " + description + " in log of container " + name, e);
+        } catch (ExecutionException e) {
+            throw new ClaireRuntimeException(e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                waiters.remove(matcher);
+            }
+        }
+    }
+
+    private void forEachLineSince(long fromOffset, Consumer<String> lineConsumer) {
+        long firstRetained = offset - lines.size();
+        if (fromOffset < firstRetained) {
+            throw new ClaireRuntimeException(String.format("[Container %s] - Lines %d-%d were already dropped from the log buffer"
+                    + " of %d lines, can not scan the log since offset %d", name, fromOffset, firstRetained - 1, maxLines, fromOffset));
+        }
+        long lineOffset = firstRetained;
+        for (String line : lines) {
+            if (lineOffset++ >= fromOffset) {
+                lineConsumer.accept(line);
+            }
+        }
+    }
+
+    private void appendLine(String line) {
+        lines.addLast(line);
+        if (lines.size() > maxLines) {
+            lines.removeFirst();
+        }
+        offset++;
+        Iterator<Map.Entry<Predicate<String>, CompletableFuture<String>>> iterator = waiters.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Predicate<String>, CompletableFuture<String>> waiter = iterator.next();
+            if (waiter.getKey().test(line)) {
+                waiter.getValue().complete(line);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void flushPartialLines() {
+        partialLines.values().forEach(partial -> {
+            if (partial.length() > 0) {
+                appendLine(partial.toString());
+                partial.setLength(0);
+            }
+        });
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.container;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.BlkioStatEntry;
+import com.github.dockerjava.api.model.CpuStatsConfig;
+import com.github.dockerjava.api.model.Statistics;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.metrics.MetricsChart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Follows the docker stats stream of a container (the same data as shown by {@code docker stats}) and returns the
+ * latest CPU, memory, block IO and network values on every read. The stream follows the container across restarts.
+ * Intended as a source of {@link io.brokerqe.claire.metrics.MetricsSampler}.
+ */
+public class ContainerStatsSource implements Supplier<Map<String, Double>>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContainerStatsSource.class);
+
+    public static final String CPU_PERCENT = "container.cpu_percent";
+    public static final String MEMORY_USAGE = "container.memory_usage";
+    public static final String BLOCK_READ = "container.block_read_bytes";
+    public static final String BLOCK_WRITE = "container.block_write_bytes";
+    public static final String NETWORK_RX = "container.network_rx_bytes";
+    public static final String NETWORK_TX = "container.network_tx_bytes";
+
+    public static final List<MetricsChart> CHARTS = List.of(
+            MetricsChart.of("Container CPU (% of one core)", "container\\.cpu_percent"),
+            MetricsChart.of("Container memory", "container\\.memory_(usage|limit)"),
+            MetricsChart.rateOf("Container block IO (bytes)", "container\\.block_(read|write)_bytes"),
+            MetricsChart.rateOf("Container network (bytes)", "container\\.network_(rx|tx)_bytes")
+    );
+
+    private final AbstractGenericContainer container;
+    private String followedContainerId;
+    private ResultCallback.Adapter<Statistics> statsCallback;
+    private volatile Statistics latest;
+
+    public ContainerStatsSource(AbstractGenericContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public synchronized Map<String, Double> get() {
+        String containerId = container.getGenericContainer().getContainerId();
+        if (containerId == null) {
+            throw new ClaireRuntimeException("Container " + container.getName() + " is not running");
+        }
+        if (!containerId.equals(followedContainerId)) {
+            follow(containerId);
+        }
+        Statistics statistics = latest;
+        if (statistics == null) {
+            throw new ClaireRuntimeException("No docker stats received yet for container " + container.getName());
+        }
+        return toMetrics(statistics);
+    }
+
+    private void follow(String containerId) {
+        stopFollowing();
+        LOGGER.debug("[Container {}] - Following docker stats of {}", container.getName(), containerId);
+        followedContainerId = containerId;
+        latest = null;
+        statsCallback = container.getGenericContainer().getDockerClient().statsCmd(containerId)
+                .exec(new ResultCallback.Adapter<>() {
+                    @Override
+                    public void onNext(Statistics statistics) {
+                        latest = statistics;
+                    }
+                });
+    }
+
+    static Map<String, Double> toMetrics(Statistics statistics) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Double cpuPercent = cpuPercent(statistics.getCpuStats(), statistics.getPreCpuStats());
+        if (cpuPercent != null) {
+            metrics.put(CPU_PERCENT, cpuPercent);
+        }
+        if (statistics.getMemoryStats() != null && statistics.getMemoryStats().getUsage() != null) {
+            metrics.put(MEMORY_USAGE, statistics.getMemoryStats().getUsage().doubleValue());
+            if (statistics.getMemoryStats().getLimit() != null) {
+                metrics.put("container.memory_limit", statistics.getMemoryStats().getLimit().doubleValue());
+            }
+        }
+        if (statistics.getBlkioStats() != null && statistics.getBlkioStats().getIoServiceBytesRecursive() != null) {
+            double read = 0;
+            double write = 0;
+            for (BlkioStatEntry entry : statistics.getBlkioStats().getIoServiceBytesRecursive()) {
+                String op = entry.getOp() == null ? "" : entry.getOp().toLowerCase(Locale.ROOT);
+                if (op.equals("read")) {
+                    read += valueOf(entry.getValue());
+                } else if (op.equals("write")) {
+                    write += valueOf(entry.getValue());
+                }
+            }
+            metrics.put(BLOCK_READ, read);
+            metrics.put(BLOCK_WRITE, write);
+        }
+        if (statistics.getNetworks() != null) {
+            metrics.put(NETWORK_RX, statistics.getNetworks().values().stream().mapToDouble(network -> valueOf(network.getRxBytes())).sum());
+            metrics.put(NETWORK_TX, statistics.getNetworks().values().stream().mapToDouble(network -> valueOf(network.getTxBytes())).sum());
+        }
+        if (statistics.getPidsStats() != null && statistics.getPidsStats().getCurrent() != null) {
+            metrics.put("container.pids", statistics.getPidsStats().getCurrent().doubleValue());
+        }
+        return metrics;
+    }
+
+    /**
+     * Same computation as docker cli, 100 % is one fully used core.
+     */
+    private static Double cpuPercent(CpuStatsConfig cpu, CpuStatsConfig preCpu) {
+        if (!hasCpuUsage(cpu) || !hasCpuUsage(preCpu)) {
+            return null;
+        }
+        double cpuDelta = cpu.getCpuUsage().getTotalUsage() - preCpu.getCpuUsage().getTotalUsage();
+        double systemDelta = cpu.getSystemCpuUsage() - preCpu.getSystemCpuUsage();
+        if (systemDelta <= 0 || cpuDelta < 0) {
+            return null;
+        }
+        long onlineCpus = 1;
+        if (cpu.getOnlineCpus() != null) {
+            onlineCpus = cpu.getOnlineCpus();
+        } else if (cpu.getCpuUsage().getPercpuUsage() != null) {
+            onlineCpus = cpu.getCpuUsage().getPercpuUsage().size();
+        }
+        return cpuDelta / systemDelta * onlineCpus * 100.0;
+    }
+
+    private static boolean hasCpuUsage(CpuStatsConfig cpu) {
+        return cpu != null && cpu.getSystemCpuUsage() != null && cpu.getCpuUsage() != null && cpu.getCpuUsage().getTotalUsage() != null;
+    }
+
+    private static double valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private void stopFollowing() {
+        if (statsCallback != null) {
+            try {
+                statsCallback.close();
+            } catch (IOException e) {
+                LOGGER.debug("[Container {}] - Failed to stop following docker stats: {}", container.getName(), e.getMessage());
+            }
+            statsCallback = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        stopFollowing();
+        followedContainerId = null;
+    }
+}
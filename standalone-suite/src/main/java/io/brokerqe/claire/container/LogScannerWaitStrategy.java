@@ -0,0 +1,39 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.container;
+
+import io.brokerqe.claire.exception.WaitException;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import java.util.regex.Pattern;
+
+/**
+ * Log message wait strategy evaluated by the {@link ContainerLogScanner} of the container, instead of following
+ * the container log once more. Regular expressions have the same semantics as in
+ * {@link org.testcontainers.containers.wait.strategy.Wait#forLogMessage(String, int)}.
+ */
+class LogScannerWaitStrategy extends AbstractWaitStrategy {
+
+    private final ContainerLogScanner logScanner;
+    private final String regex;
+    private final Pattern pattern;
+
+    LogScannerWaitStrategy(ContainerLogScanner logScanner, String regex) {
+        this.logScanner = logScanner;
+        this.regex = regex;
+        this.pattern = Pattern.compile("(?s)" + regex);
+    }
+
+    @Override
+    protected void waitUntilReady() {
+        try {
+            logScanner.waitFor(line -> pattern.matcher(line + "\n").matches(), logScanner.getRunStartOffset(),
+                    startupTimeout.toMillis(), regex);
+        } catch (WaitException e) {
+            throw new ContainerLaunchException("Timed out waiting for log output matching '" + regex + "'", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.container;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.model.Toxic;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Named network conditions applied as toxics to a ToxiProxy {@link Proxy}, both directions unless stated. Any broker
+ * or client link routed through {@link ToxiProxyContainer} (clients, bridges, mirrors, cluster connections) can run
+ * under them, see {@link ToxiProxyContainer#applyNetworkProfile(Proxy, NetworkProfile, long)}. Each profile has one
+ * severity parameter, the default is given in brackets:
+ * <ul>
+ *     <li>{@link #NONE} - no toxic, the baseline</li>
+ *     <li>{@link #WAN_LATENCY} - latency each way in ms [40], a cross datacenter round trip of 80 ms</li>
+ *     <li>{@link #JITTER} - 20 ms latency each way varying by up to the severity in ms [20]</li>
+ *     <li>{@link #BANDWIDTH_CAP} - bandwidth each way in KB/s [1024]</li>
+ *     <li>{@link #PACKET_SLICING} - data sliced into chunks of about the severity in bytes [64], 100 us apart</li>
+ *     <li>{@link #INTERMITTENT_RESET} - half of the connections are reset after the severity in ms [10000]</li>
+ * </ul>
+ */
+public enum NetworkProfile {
+
+    NONE(0, "") {
+        @Override
+        void addToxics(Proxy proxy, long severity) { }
+    },
+    WAN_LATENCY(40, "ms") {
+        @Override
+        void addToxics(Proxy proxy, long latencyMs) throws IOException {
+            for (ToxicDirection direction : ToxicDirection.values()) {
+                proxy.toxics().latency(toxicName(direction), direction, latencyMs);
+            }
+        }
+    },
+    JITTER(20, "ms") {
+        @Override
+        void addToxics(Proxy proxy, long jitterMs) throws IOException {
+            for (ToxicDirection direction : ToxicDirection.values()) {
+                proxy.toxics().latency(toxicName(direction), direction, 20).setJitter(jitterMs);
+            }
+        }
+    },
+    BANDWIDTH_CAP(1024, "KBps") {
+        @Override
+        void addToxics(Proxy proxy, long rateKbps) throws IOException {
+            for (ToxicDirection direction : ToxicDirection.values()) {
+                proxy.toxics().bandwidth(toxicName(direction), direction, rateKbps);
+            }
+        }
+    },
+    PACKET_SLICING(64, "B") {
+        @Override
+        void addToxics(Proxy proxy, long averageSize) throws IOException {
+            for (ToxicDirection direction : ToxicDirection.values()) {
+                // delay in microseconds
+                proxy.toxics().slicer(toxicName(direction), direction, averageSize, 100).setSizeVariation(averageSize / 2);
+            }
+        }
+    },
+    INTERMITTENT_RESET(10000, "ms") {
+        @Override
+        void addToxics(Proxy proxy, long timeoutMs) throws IOException {
+            // toxicity is evaluated per connection, a reconnected client may be reset again
+            proxy.toxics().resetPeer(toxicName(ToxicDirection.DOWNSTREAM), ToxicDirection.DOWNSTREAM, timeoutMs).setToxicity(0.5f);
+        }
+    };
+
+    private final long defaultSeverity;
+    private final String severityUnit;
+
+    NetworkProfile(long defaultSeverity, String severityUnit) {
+        this.defaultSeverity = defaultSeverity;
+        this.severityUnit = severityUnit;
+    }
+
+    abstract void addToxics(Proxy proxy, long severity) throws IOException;
+
+    public long getDefaultSeverity() {
+        return defaultSeverity;
+    }
+
+    /**
+     * @return unit of the severity parameter, empty for {@link #NONE}
+     */
+    public String getSeverityUnit() {
+        return severityUnit;
+    }
+
+    /**
+     * Toxics of a profile are prefixed by its name, so that only they are removed by {@link #removeToxics(Proxy)}.
+     */
+    String toxicName(ToxicDirection direction) {
+        return name().toLowerCase(Locale.ROOT) + "_" + direction.name().toLowerCase(Locale.ROOT);
+    }
+
+    void removeToxics(Proxy proxy) throws IOException {
+        String prefix = name().toLowerCase(Locale.ROOT) + "_";
+        for (Toxic toxic : proxy.toxics().getAll()) {
+            if (toxic.getName().startsWith(prefix)) {
+                toxic.remove();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.container;
+
+import java.util.Locale;
+
+/**
+ * Storage backing a container directory, declared by the test:
+ * <ul>
+ *     <li>{@link Type#BIND} - host directory, default, survives the container and is collected with the test data</li>
+ *     <li>{@link Type#TMPFS} - memory, no disk and no fsync cost, lost when the container stops</li>
+ *     <li>{@link Type#VOLUME} - docker named volume, survives container restarts, removed with the test session</li>
+ *     <li>{@link Type#NFS} - export of a {@link NfsServerContainer} mounted by the artemis container</li>
+ * </ul>
+ */
+public final class StorageProfile {
+
+    public enum Type {
+        BIND, TMPFS, VOLUME, NFS
+    }
+
+    public static final StorageProfile BIND = new StorageProfile(Type.BIND, null, null, null, null, null);
+    public static final StorageProfile TMPFS = new StorageProfile(Type.TMPFS, null, null, null, null, null);
+    public static final StorageProfile VOLUME = new StorageProfile(Type.VOLUME, null, null, null, null, null);
+
+    private final Type type;
+    private final NfsServerContainer nfsServer;
+    private final String nfsExportDirName;
+    private final String nfsHost;
+    private final String nfsPort;
+    private final String nfsMountOptions;
+
+    private StorageProfile(Type type, NfsServerContainer nfsServer, String nfsExportDirName, String nfsHost, String nfsPort,
+                           String nfsMountOptions) {
+        this.type = type;
+        this.nfsServer = nfsServer;
+        this.nfsExportDirName = nfsExportDirName;
+        this.nfsHost = nfsHost;
+        this.nfsPort = nfsPort;
+        this.nfsMountOptions = nfsMountOptions;
+    }
+
+    /**
+     * @return profile of the given type, NFS needs the server and is created by {@link #nfs(NfsServerContainer, String)}
+     */
+    public static StorageProfile of(Type type) {
+        return switch (type) {
+            case BIND -> BIND;
+            case TMPFS -> TMPFS;
+            case VOLUME -> VOLUME;
+            case NFS -> throw new IllegalArgumentException("NFS storage profile needs a server, use StorageProfile.nfs()");
+        };
+    }
+
+    /**
+     * @param exportDirName export already added to the (started) NFS server
+     */
+    public static StorageProfile nfs(NfsServerContainer nfsServer, String exportDirName) {
+        return nfs(nfsServer, exportDirName, nfsServer.getName(), null);
+    }
+
+    /**
+     * NFS export mounted through another host and port, i.e. a ToxiProxy in front of the NFS server.
+     */
+    public static StorageProfile nfs(NfsServerContainer nfsServer, String exportDirName, String host, String port) {
+        return nfs(nfsServer, exportDirName, host, port, NfsServerContainer.DEFAULT_CLIENT_OPTIONS);
+    }
+
+    /**
+     * @param mountOptions NFS client mount options, {@link NfsServerContainer#DEFAULT_CLIENT_OPTIONS} by default
+     */
+    public static StorageProfile nfs(NfsServerContainer nfsServer, String exportDirName, String host, String port,
+                                     String mountOptions) {
+        return new StorageProfile(Type.NFS, nfsServer, exportDirName, host, port, mountOptions);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return true when the content survives a container restart
+     */
+    public boolean isDurable() {
+        return type != Type.TMPFS;
+    }
+
+    /**
+     * @return mount string of the NFS export as expected by the artemis container NFS_MOUNTS variable
+     */
+    public String getNfsMountString(String mountPath) {
+        return nfsServer.getNfsMountString(nfsHost, nfsPort, nfsExportDirName, mountPath, nfsMountOptions);
+    }
+
+    @Override
+    public String toString() {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
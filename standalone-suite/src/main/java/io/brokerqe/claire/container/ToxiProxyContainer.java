@@ -42,4 +42,43 @@ public class ToxiProxyContainer extends AbstractGenericContainer {
             throw new ClaireRuntimeException(errMsg, e);
         }
     }
+
+    /**
+     * Replaces the toxics of the proxy by the ones of the given profile at its default severity,
+     * {@link NetworkProfile#NONE} clears them.
+     */
+    public void applyNetworkProfile(Proxy proxy, NetworkProfile profile) {
+        applyNetworkProfile(proxy, profile, profile.getDefaultSeverity());
+    }
+
+    /**
+     * @param severity value of the profile parameter, see {@link NetworkProfile} for its meaning and unit
+     */
+    public void applyNetworkProfile(Proxy proxy, NetworkProfile profile, long severity) {
+        clearNetworkProfiles(proxy);
+        try {
+            LOGGER.debug("[{}] Applying network profile {} ({} {}) to proxy {}", name, profile, severity,
+                    profile.getSeverityUnit(), proxy.getName());
+            profile.addToxics(proxy, severity);
+        } catch (IOException e) {
+            String errMsg = String.format("Error on applying network profile %s to proxy %s: %s", profile, proxy.getName(), e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    /**
+     * Removes the toxics of every {@link NetworkProfile} from the proxy, other toxics stay.
+     */
+    public void clearNetworkProfiles(Proxy proxy) {
+        try {
+            for (NetworkProfile profile : NetworkProfile.values()) {
+                profile.removeToxics(proxy);
+            }
+        } catch (IOException e) {
+            String errMsg = String.format("Error on clearing network profiles of proxy %s: %s", proxy.getName(), e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
 }
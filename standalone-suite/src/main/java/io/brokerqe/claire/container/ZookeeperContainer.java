@@ -15,7 +15,7 @@ public final class ZookeeperContainer extends AbstractGenericContainer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ZookeeperContainer.class);
 
     static final int ADMIN_SERVER_PORT = 8080;
-    static final int CLIENT_PORT = 2181;
+    public static final int CLIENT_PORT = 2181;
     static final int ELECTION_PORT = 3888;
     static final int FOLLOWER_PORT = 2888;
     static final  List<Integer> DEFAULT_PORTS = List.of(CLIENT_PORT, FOLLOWER_PORT, ELECTION_PORT, ADMIN_SERVER_PORT);
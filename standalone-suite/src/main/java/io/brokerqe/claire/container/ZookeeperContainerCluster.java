@@ -45,6 +45,10 @@ public class ZookeeperContainerCluster {
         ContainerHelper.stopContainers(nodesMap.values().toArray(new ZookeeperContainer[0]));
     }
 
+    public ZookeeperContainer getNode(String nodeName) {
+        return nodesMap.get(nodeName);
+    }
+
     private void createNode(int id, String name) {
         String nodeName = name + id;
         LOGGER.trace("[Zookeeper node {}] - Creating", nodeName);
@@ -7,6 +7,7 @@ package io.brokerqe.claire.container.database;
 import com.sun.security.auth.module.UnixSystem;
 import io.brokerqe.claire.Constants;
 import io.brokerqe.claire.container.AbstractGenericContainer;
+import io.brokerqe.claire.container.StorageProfile;
 import io.brokerqe.claire.database.Database;
 import io.brokerqe.claire.database.JdbcData;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
@@ -21,6 +22,7 @@ public abstract class DatabaseContainer extends AbstractGenericContainer impleme
     protected static final Logger LOGGER = LoggerFactory.getLogger(DatabaseContainer.class);
 
     public JdbcData jdbcData;
+    private StorageProfile dataStorage;
 
     public DatabaseContainer(String name) {
         super(name, getContainerImage(name));
@@ -32,6 +34,33 @@ public abstract class DatabaseContainer extends AbstractGenericContainer impleme
         this.withFileSystemBind(localDbData, dbData, BindMode.READ_WRITE);
     }
 
+    /**
+     * @return directory in which the database image keeps its data files
+     */
+    private static String getContainerDataDir(String databaseName) {
+        if (databaseName.contains(Database.MYSQL)) {
+            return "/bitnami/mysql";
+        } else if (databaseName.contains(Database.MARIADB)) {
+            return "/bitnami/mariadb";
+        } else if (databaseName.contains(Database.MSSQL)) {
+            return "/var/opt/mssql";
+        } else if (databaseName.contains(Database.POSTGRESQL)) {
+            return "/bitnami/postgresql";
+        } else if (databaseName.contains(Database.ORACLE)) {
+            return "/opt/oracle/oradata";
+        } else {
+            throw new ClaireRuntimeException("Provided unknown Database name. " + databaseName);
+        }
+    }
+
+    /**
+     * Keeps the database data files on the storage profile instead of the container layer, call before start.
+     * NFS is not supported, databases do not mount it themselves.
+     */
+    public void withDataStorage(StorageProfile profile) {
+        dataStorage = profile;
+    }
+
     private static String getContainerImage(String databaseName) {
         if (databaseName.contains(Database.MYSQL)) {
             return Constants.IMAGE_MYSQL;
@@ -103,6 +132,10 @@ public abstract class DatabaseContainer extends AbstractGenericContainer impleme
         if (!this.getDatabaseName().contains(Database.ORACLE) && !this.getDatabaseName().contains(Database.MSSQL)) {
             withUserId(String.valueOf(new UnixSystem().getUid()));
         }
+        if (dataStorage != null) {
+            String localDataDir = "/tmp/" + name + "/storage";
+            withStorage(dataStorage, localDataDir, getContainerDataDir(name));
+        }
         super.start();
     }
 
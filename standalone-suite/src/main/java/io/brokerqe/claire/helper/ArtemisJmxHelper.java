@@ -41,6 +41,7 @@ public final class ArtemisJmxHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArtemisJmxHelper.class);
     private static final String JMX_URL_BASE = "service:jmx:rmi:///jndi/rmi://";
     private static final String JMX_URL_SUFFIX = "/jmxrmi";
+    private static final String DIAGNOSTIC_COMMAND_MBEAN = "com.sun.management:type=DiagnosticCommand";
 
     private ArtemisJmxHelper() {
         super();
@@ -94,7 +95,7 @@ public final class ArtemisJmxHelper {
         }
     }
 
-    private static ObjectName getArtemisObjectName(ArtemisContainer artemisContainer) {
+    static ObjectName getArtemisObjectName(ArtemisContainer artemisContainer) {
         ObjectName objectName;
         try {
             // Use default `artemis` name, if profile is forced
@@ -160,6 +161,28 @@ public final class ArtemisJmxHelper {
         }
     }
 
+    /**
+     * Invokes an operation of the broker JVM DiagnosticCommand MBean, the JMX counterpart of jcmd
+     * (e.g. {@code jfrStart} for {@code jcmd <pid> JFR.start}).
+     * @param operation name of the diagnostic command operation
+     * @param arguments command arguments in jcmd form, e.g. {@code name=test}
+     * @return command output
+     */
+    public static String executeDiagnosticCommand(ArtemisContainer artemisContainer, String operation, String... arguments) {
+        LOGGER.debug("[Container {}] - Executing diagnostic command {} {}", artemisContainer.getName(), operation,
+                String.join(" ", arguments));
+        JMXServiceURL serviceURI = getJmxUrl(artemisContainer);
+        try (JMXConnector jmx = JMXConnectorFactory.connect(serviceURI)) {
+            Object output = jmx.getMBeanServerConnection().invoke(new ObjectName(DIAGNOSTIC_COMMAND_MBEAN), operation,
+                    new Object[] {arguments}, new String[] {String[].class.getName()});
+            return output == null ? "" : output.toString();
+        } catch (Exception e) {
+            String errMsg = String.format("Error on executing diagnostic command %s: %s", operation, e.getMessage());
+            LOGGER.error(errMsg);
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
     private static <C, T> Optional<T> queryControl(JMXServiceURL serviceURI, ObjectName objectName,
                                                    ArtemisJmxHelper.ThrowableFunction<C, T> queryControl,
                                                    Class<C> controlClass, Function<Throwable, T> onThrowable) {
@@ -185,7 +208,7 @@ public final class ArtemisJmxHelper {
         }
     }
 
-    private static JMXServiceURL getJmxUrl(ArtemisContainer artemisContainer) {
+    static JMXServiceURL getJmxUrl(ArtemisContainer artemisContainer) {
         JMXServiceURL url;
         String hostAndPort = artemisContainer.getHostAndPort(ArtemisConstants.DEFAULT_JMX_PORT);
         try {
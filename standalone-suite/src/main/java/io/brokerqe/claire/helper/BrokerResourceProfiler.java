@@ -0,0 +1,127 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.helper;
+
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ContainerStatsSource;
+import io.brokerqe.claire.metrics.CompositeMetricsSource;
+import io.brokerqe.claire.metrics.FlightRecordingSummary;
+import io.brokerqe.claire.metrics.MetricsChart;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import io.brokerqe.claire.metrics.MetricsTimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Samples a broker from both sides while a test runs: broker and JVM internals over JMX ({@link JmxMetricsSource})
+ * and container CPU, memory and IO from docker stats ({@link ContainerStatsSource}). Once stopped, the samples are
+ * rendered as charts and summarized into result values, which can be stored together with the client results.
+ */
+public final class BrokerResourceProfiler {
+
+    public static final List<MetricsChart> CHARTS = Stream.concat(JmxMetricsSource.CHARTS.stream(), ContainerStatsSource.CHARTS.stream()).toList();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResourceProfiler.class);
+    private static final int FLIGHT_RECORDING_SUMMARY_SIZE = 20;
+    private static final Pattern GC_COUNT = Pattern.compile("jvm\\.gc\\..*\\.collection_count");
+    private static final Pattern GC_TIME = Pattern.compile("jvm\\.gc\\..*\\.collection_time");
+
+    private BrokerResourceProfiler() {
+    }
+
+    /**
+     * @param extraSources additional metrics sampled together with JMX and docker stats (e.g. a directory size)
+     */
+    @SafeVarargs
+    public static MetricsSampler start(ArtemisContainer artemis, Path directory, long intervalMs,
+                                       Supplier<Map<String, Double>>... extraSources) {
+        return start(artemis, directory, intervalMs, List.of(extraSources));
+    }
+
+    /**
+     * @param extraSources additional metrics sampled together with JMX and docker stats, e.g. of other containers
+     */
+    public static MetricsSampler start(ArtemisContainer artemis, Path directory, long intervalMs,
+                                       List<Supplier<Map<String, Double>>> extraSources) {
+        List<Supplier<Map<String, Double>>> sources = new ArrayList<>(List.of(new JmxMetricsSource(artemis), new ContainerStatsSource(artemis)));
+        sources.addAll(extraSources);
+        return new MetricsSampler(artemis.getName(), directory, intervalMs, new CompositeMetricsSource(sources)).start();
+    }
+
+    /**
+     * Stops the sampler, renders the charts and returns the resource usage summary.
+     */
+    public static Map<String, String> stop(MetricsSampler sampler) {
+        return stop(sampler, CHARTS);
+    }
+
+    public static Map<String, String> stop(MetricsSampler sampler, List<MetricsChart> charts) {
+        try (sampler) {
+            sampler.render(charts);
+            return summarize(sampler.getTimeSeries());
+        }
+    }
+
+    /**
+     * Stops the flight recording started by {@link ArtemisContainer#startFlightRecording(String)}, copies it into
+     * the directory and writes the summary of hot methods, allocation sites and lock contention next to it
+     * as &lt;recordingName&gt;_profile.json.
+     */
+    public static FlightRecordingSummary stopFlightRecording(ArtemisContainer artemis, String recordingName, Path directory) {
+        Path recording = directory.resolve(recordingName + ".jfr");
+        artemis.stopFlightRecording(recordingName, recording.toString());
+        FlightRecordingSummary summary = FlightRecordingSummary.read(recording);
+        summary.write(directory.resolve(recordingName + "_profile.json"), FLIGHT_RECORDING_SUMMARY_SIZE);
+        LOGGER.info("[Container {}] - Hottest methods of {}: {}", artemis.getName(), recordingName, summary.getHotMethods(5));
+        return summary;
+    }
+
+    /**
+     * @return CPU, memory, GC, threads and IO usage of the broker over the sampled period, keys prefixed by "broker_"
+     */
+    public static Map<String, String> summarize(MetricsTimeSeries timeSeries) {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("broker_samples", String.valueOf(timeSeries.size()));
+        put(summary, "broker_cpu_avg_percent", timeSeries.mean(ContainerStatsSource.CPU_PERCENT));
+        put(summary, "broker_cpu_max_percent", timeSeries.max(ContainerStatsSource.CPU_PERCENT));
+        put(summary, "broker_container_memory_max_bytes", timeSeries.max(ContainerStatsSource.MEMORY_USAGE));
+        put(summary, "broker_heap_max_bytes", timeSeries.max("jvm.heap_used"));
+        put(summary, "broker_heap_committed_max_bytes", timeSeries.max("jvm.heap_committed"));
+        put(summary, "broker_threads_max", timeSeries.max("jvm.threads"));
+
+        double gcCount = sumIncrease(timeSeries, GC_COUNT);
+        double gcTimeMs = sumIncrease(timeSeries, GC_TIME);
+        put(summary, "broker_gc_count", gcCount);
+        put(summary, "broker_gc_time_ms", gcTimeMs);
+        if (timeSeries.getDurationMs() > 0) {
+            put(summary, "broker_gc_time_percent", gcTimeMs * 100 / timeSeries.getDurationMs());
+        }
+        put(summary, "broker_block_read_bytes", timeSeries.increase(ContainerStatsSource.BLOCK_READ));
+        put(summary, "broker_block_write_bytes", timeSeries.increase(ContainerStatsSource.BLOCK_WRITE));
+        put(summary, "broker_network_rx_bytes", timeSeries.increase(ContainerStatsSource.NETWORK_RX));
+        put(summary, "broker_network_tx_bytes", timeSeries.increase(ContainerStatsSource.NETWORK_TX));
+        return summary;
+    }
+
+    private static double sumIncrease(MetricsTimeSeries timeSeries, Pattern columns) {
+        return timeSeries.getColumns(columns).keySet().stream().mapToDouble(timeSeries::increase).sum();
+    }
+
+    private static void put(Map<String, String> summary, String key, double value) {
+        if (Double.isFinite(value)) {
+            summary.put(key, String.format(Locale.ROOT, "%.2f", value));
+        }
+    }
+}
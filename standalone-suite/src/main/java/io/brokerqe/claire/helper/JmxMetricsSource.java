@@ -0,0 +1,184 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.helper;
+
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.metrics.MetricsChart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Attribute;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reads broker, address, queue and JVM (memory, threads, GC, file descriptors) metrics of a standalone broker over a single JMX connection, which is
+ * kept open between reads (and reopened after the broker restarts). Intended as a source of
+ * {@link io.brokerqe.claire.metrics.MetricsSampler}.
+ */
+public class JmxMetricsSource implements Supplier<Map<String, Double>>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmxMetricsSource.class);
+
+    public static final List<MetricsChart> CHARTS = List.of(
+            MetricsChart.of("Queue depth", "queue\\..*\\.message_count"),
+            MetricsChart.of("Memory", "jvm\\.(heap|non_heap)_used|jvm\\.heap_(committed|after_gc)|broker\\.address_memory_usage"),
+            MetricsChart.of("Paging", "address\\..*\\.number_of_pages"),
+            MetricsChart.rateOf("Throughput", "broker\\.total_messages_(added|acknowledged)|queue\\..*\\.messages_(added|acknowledged)"),
+            MetricsChart.rateOf("GC time (ms)", "jvm\\.gc\\..*\\.collection_time"),
+            MetricsChart.of("JVM threads", "jvm\\.threads"),
+            MetricsChart.of("Open file descriptors", "jvm\\.open_file_descriptor_count")
+    );
+
+    private static final String[] BROKER_ATTRIBUTES = {"AddressMemoryUsage", "TotalMessageCount", "TotalMessagesAdded", "TotalMessagesAcknowledged", "ConnectionCount"};
+    private static final String[] ADDRESS_ATTRIBUTES = {"AddressSize", "NumberOfPages", "Paging"};
+    private static final String[] QUEUE_ATTRIBUTES = {"MessageCount", "MessagesAdded", "MessagesAcknowledged", "ConsumerCount"};
+    private static final String[] GC_ATTRIBUTES = {"CollectionCount", "CollectionTime"};
+    private static final ObjectName MEMORY_MBEAN = objectName("java.lang:type=Memory");
+    private static final ObjectName THREADING_MBEAN = objectName("java.lang:type=Threading");
+    private static final ObjectName GC_MBEANS = objectName("java.lang:type=GarbageCollector,name=*");
+    private static final ObjectName MEMORY_POOL_MBEANS = objectName("java.lang:type=MemoryPool,name=*");
+    private static final ObjectName OPERATING_SYSTEM_MBEAN = objectName("java.lang:type=OperatingSystem");
+
+    private final ArtemisContainer artemisContainer;
+    private ObjectName brokerObjectName;
+    private JMXConnector connector;
+
+    public JmxMetricsSource(ArtemisContainer artemisContainer) {
+        this.artemisContainer = artemisContainer;
+    }
+
+    @Override
+    public synchronized Map<String, Double> get() {
+        try {
+            return readMetrics(getConnection());
+        } catch (IOException e) {
+            // broker restarted or connection was dropped, reconnect on the next read
+            close();
+            String errMsg = String.format("Error on reading JMX metrics of %s: %s", artemisContainer.getName(), e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        } catch (Exception e) {
+            String errMsg = String.format("Error on reading JMX metrics of %s: %s", artemisContainer.getName(), e.getMessage());
+            throw new ClaireRuntimeException(errMsg, e);
+        }
+    }
+
+    /**
+     * @return connection to the broker MBean server, opened on first use
+     */
+    public synchronized MBeanServerConnection getConnection() throws IOException {
+        if (connector == null) {
+            JMXServiceURL serviceURL = ArtemisJmxHelper.getJmxUrl(artemisContainer);
+            LOGGER.debug("[Container {}] - Opening JMX connection {} for metrics", artemisContainer.getName(), serviceURL);
+            connector = JMXConnectorFactory.connect(serviceURL);
+        }
+        return connector.getMBeanServerConnection();
+    }
+
+    private Map<String, Double> readMetrics(MBeanServerConnection connection) throws Exception {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        if (brokerObjectName == null) {
+            brokerObjectName = ArtemisJmxHelper.getArtemisObjectName(artemisContainer);
+        }
+        ObjectName brokerName = brokerObjectName;
+        putAttributes(metrics, "broker.", connection, brokerName, BROKER_ATTRIBUTES);
+
+        String brokerPattern = brokerName.getDomain() + ":broker=" + brokerName.getKeyProperty("broker") + ",component=addresses";
+        for (ObjectName address : connection.queryNames(objectName(brokerPattern + ",address=*"), null)) {
+            putAttributes(metrics, "address." + keyProperty(address, "address") + ".", connection, address, ADDRESS_ATTRIBUTES);
+        }
+        for (ObjectName queue : connection.queryNames(objectName(brokerPattern + ",address=*,subcomponent=queues,routing-type=*,queue=*"), null)) {
+            putAttributes(metrics, "queue." + keyProperty(queue, "queue") + ".", connection, queue, QUEUE_ATTRIBUTES);
+        }
+
+        CompositeData heap = (CompositeData) connection.getAttribute(MEMORY_MBEAN, "HeapMemoryUsage");
+        CompositeData nonHeap = (CompositeData) connection.getAttribute(MEMORY_MBEAN, "NonHeapMemoryUsage");
+        metrics.put("jvm.heap_used", ((Number) heap.get("used")).doubleValue());
+        metrics.put("jvm.heap_committed", ((Number) heap.get("committed")).doubleValue());
+        metrics.put("jvm.non_heap_used", ((Number) nonHeap.get("used")).doubleValue());
+        metrics.put("jvm.threads", ((Number) connection.getAttribute(THREADING_MBEAN, "ThreadCount")).doubleValue());
+        for (ObjectName collector : connection.queryNames(GC_MBEANS, null)) {
+            String collectorName = collector.getKeyProperty("name").replaceAll("\\W+", "_");
+            putAttributes(metrics, "jvm.gc." + collectorName + ".", connection, collector, GC_ATTRIBUTES);
+        }
+        metrics.put("jvm.heap_after_gc", heapAfterGc(connection));
+        // available on unix JVMs only
+        putAttributes(metrics, "jvm.", connection, OPERATING_SYSTEM_MBEAN, new String[] {"OpenFileDescriptorCount"});
+        return metrics;
+    }
+
+    /**
+     * Heap used right after the last GC of every heap pool, the live data set. Unlike the heap usage it does not
+     * follow the GC saw-tooth, so it is the one to watch for leaks.
+     */
+    private static double heapAfterGc(MBeanServerConnection connection) throws Exception {
+        double used = 0;
+        for (ObjectName pool : connection.queryNames(MEMORY_POOL_MBEANS, null)) {
+            List<Attribute> attributes = connection.getAttributes(pool, new String[] {"Type", "CollectionUsage"}).asList();
+            boolean heap = attributes.stream().anyMatch(attribute -> "HEAP".equals(String.valueOf(attribute.getValue())));
+            for (Attribute attribute : attributes) {
+                if (heap && attribute.getValue() instanceof CompositeData usage) {
+                    used += ((Number) usage.get("used")).doubleValue();
+                }
+            }
+        }
+        return used;
+    }
+
+    private static void putAttributes(Map<String, Double> metrics, String prefix, MBeanServerConnection connection,
+                                      ObjectName objectName, String[] attributes) throws Exception {
+        for (Attribute attribute : connection.getAttributes(objectName, attributes).asList()) {
+            Object value = attribute.getValue();
+            Double number = value instanceof Number numberValue ? numberValue.doubleValue()
+                    : value instanceof Boolean booleanValue ? (booleanValue ? 1.0 : 0.0) : null;
+            if (number != null) {
+                metrics.put(prefix + toColumnName(attribute.getName()), number);
+            }
+        }
+    }
+
+    /**
+     * MessagesAdded -&gt; messages_added
+     */
+    private static String toColumnName(String attributeName) {
+        return attributeName.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    private static String keyProperty(ObjectName objectName, String key) {
+        String value = objectName.getKeyProperty(key);
+        return value.startsWith("\"") ? ObjectName.unquote(value) : value;
+    }
+
+    static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (Exception e) {
+            throw new ClaireRuntimeException("Invalid JMX object name " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connector != null) {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                LOGGER.debug("[Container {}] - Failed to close JMX connection: {}", artemisContainer.getName(), e.getMessage());
+            }
+            connector = null;
+        }
+    }
+}
@@ -8,14 +8,18 @@ import io.brokerqe.claire.clients.DeployableClient;
 import io.brokerqe.claire.clients.bundled.ArtemisCommand;
 import io.brokerqe.claire.clients.bundled.BundledArtemisClient;
 import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ContainerLogScanner;
 import io.brokerqe.claire.container.NfsServerContainer;
+import io.brokerqe.claire.container.StorageProfile;
 import io.brokerqe.claire.container.YacfgArtemisContainer;
 import io.brokerqe.claire.container.database.DatabaseContainer;
 import io.brokerqe.claire.database.Database;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
 import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.BrokerResourceProfiler;
 import io.brokerqe.claire.helper.TimeHelper;
 import io.brokerqe.claire.junit.TestSeparator;
+import io.brokerqe.claire.metrics.MetricsSampler;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.TextMessage;
@@ -41,6 +45,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -117,6 +122,14 @@ public class AbstractSystemTests implements TestSeparator {
         return getArtemisInstance(instanceName, tuneFile, new ArrayList<>(), new HashMap<>(), false, true);
     }
 
+    /**
+     * Started artemis instance with the data dir on the storage profile, i.e. {@link StorageProfile#TMPFS} for tests
+     * which do not restart the broker nor assert durability. Ignored when the broker uses a database store.
+     */
+    protected ArtemisContainer getArtemisInstance(String instanceName, String tuneFile, StorageProfile dataStorage) {
+        return getArtemisInstance(instanceName, tuneFile, new ArrayList<>(), new HashMap<>(), false, true, dataStorage);
+    }
+
     protected ArtemisContainer getArtemisInstance(String instanceName, String tuneFile, boolean isBackupInstance) {
         return getArtemisInstance(instanceName, tuneFile, new ArrayList<>(), new HashMap<>(), isBackupInstance, true);
     }
@@ -136,6 +149,13 @@ public class AbstractSystemTests implements TestSeparator {
     protected ArtemisContainer getArtemisInstance(String instanceName, String tuneFile,
                                                   List<String> yacfgOpts, Map<String, String> envVars,
                                                   boolean isBackupInstance, boolean startInstance) {
+        return getArtemisInstance(instanceName, tuneFile, yacfgOpts, envVars, isBackupInstance, startInstance, StorageProfile.BIND);
+    }
+
+    protected ArtemisContainer getArtemisInstance(String instanceName, String tuneFile,
+                                                  List<String> yacfgOpts, Map<String, String> envVars,
+                                                  boolean isBackupInstance, boolean startInstance,
+                                                  StorageProfile dataStorage) {
         List<String> mutableYacfgOpts = new ArrayList<>(yacfgOpts);
         if (useArtemisWithDB()) {
             return setupArtemisWithDB();
@@ -147,6 +167,10 @@ public class AbstractSystemTests implements TestSeparator {
                 mutableYacfgOpts.add(tuneFile);
             }
             generateArtemisCfg(artemis, mutableYacfgOpts);
+            if (dataStorage.getType() != StorageProfile.Type.BIND) {
+                // bind data dir is already part of the instance dir
+                artemis.withDataDir(getTestConfigDir() + Constants.FILE_SEPARATOR + instanceName + ArtemisConstants.DATA_DIR, dataStorage);
+            }
             if (isBackupInstance) {
                 artemis.withLogWait(ArtemisContainer.BACKUP_ANNOUNCED_LOG_REGEX);
             }
@@ -173,13 +197,40 @@ public class AbstractSystemTests implements TestSeparator {
     }
 
     private String getPkgClassAsDir() {
-        String pkgAndClass = this.getClass().getName().replaceAll(Constants.CLAIRE_TEST_PKG_REGEX, "");
+        return getPkgClassAsDir(this.getClass());
+    }
+
+    private static String getPkgClassAsDir(Class<?> testClass) {
+        String pkgAndClass = testClass.getName().replaceAll(Constants.CLAIRE_TEST_PKG_REGEX, "");
         return pkgAndClass.replaceAll("\\.", Constants.FILE_SEPARATOR);
     }
 
     protected String generateYacfgProfilesContainerTestDir(String file) {
+        return generateYacfgProfilesContainerTestDir(this.getClass(), file);
+    }
+
+    /**
+     * Resolves a yacfg profile file of another test class, so tests sharing a broker topology use the same tune files.
+     */
+    protected String generateYacfgProfilesContainerTestDir(Class<? extends AbstractSystemTests> testClass, String file) {
         return YacfgArtemisContainer.YACFG_CONTAINER_CLAIRE_STANDALONE_DIR + Constants.FILE_SEPARATOR + "tests"
-                + Constants.FILE_SEPARATOR + getPkgClassAsDir() + Constants.FILE_SEPARATOR + file;
+                + Constants.FILE_SEPARATOR + getPkgClassAsDir(testClass) + Constants.FILE_SEPARATOR + file;
+    }
+
+    /**
+     * Starts sampling metrics of the broker (JMX and docker stats) into the given directory. Finish the sampler with
+     * {@link #finishMetricsSampler(MetricsSampler)} to get the html charts rendered next to the samples.
+     */
+    protected MetricsSampler startMetricsSampler(ArtemisContainer artemis, String directory) {
+        long intervalMs = EnvironmentStandalone.getInstance().getMetricsSampleIntervalMs();
+        return BrokerResourceProfiler.start(artemis, Paths.get(directory), intervalMs);
+    }
+
+    /**
+     * @return summary of broker resource usage while sampled, see {@link BrokerResourceProfiler#summarize}
+     */
+    protected Map<String, String> finishMetricsSampler(MetricsSampler sampler) {
+        return BrokerResourceProfiler.stop(sampler);
     }
 
     protected String getTestConfigDir() {
@@ -329,7 +380,10 @@ public class AbstractSystemTests implements TestSeparator {
     }
 
     public static void ensureBrokerUsesJdbc(ArtemisContainer artemisInstance, Database database) {
-        assertThat(artemisInstance.getLogs()).containsAnyOf(database.getJdbcUrl(), database.getConnectionUrl());
+        Pattern jdbcUrlPattern = Pattern.compile(Pattern.quote(database.getJdbcUrl()) + "|" + Pattern.quote(database.getConnectionUrl()));
+        ContainerLogScanner logScanner = artemisInstance.getLogScanner();
+        assertThat(logScanner.containsPattern(jdbcUrlPattern, logScanner.getRunStartOffset()))
+                .as("Broker log contains %s or %s", database.getJdbcUrl(), database.getConnectionUrl()).isTrue();
     }
 
     protected NfsServerContainer getNfsServerInstance(String exportDirName) {
@@ -19,6 +19,7 @@ import io.brokerqe.claire.clients.bundled.BundledClientOptions;
 import io.brokerqe.claire.clients.container.AmqpCliOptionsBuilder;
 import io.brokerqe.claire.clients.container.AmqpQpidClient;
 import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ContainerLogScanner;
 import io.brokerqe.claire.helper.webconsole.LoginPageHelper;
 import io.brokerqe.claire.helper.webconsole.MainPageHelper;
 import io.brokerqe.claire.helper.webconsole.WebConsoleHelper;
@@ -35,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -43,6 +45,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class AuditLogTests extends AbstractSystemTests {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(AuditLogTests.class);
+    private static final Pattern FAILED_AUTH_304_PATTERN = Pattern.compile(ArtemisConstants.LOG_PATTERN_FAILED_AUTH_304);
 
     protected ArtemisContainer artemis;
     protected BundledClientDeployment artemisDeployableClient;
@@ -122,8 +125,8 @@ public class AuditLogTests extends AbstractSystemTests {
         MainPageHelper.logout(driver, artemis);
 
         // assert the log does not contain the pattern
-        String logs = artemis.getLogs();
-        assertThat(logs).doesNotContainPattern(ArtemisConstants.LOG_PATTERN_FAILED_AUTH_304);
+        ContainerLogScanner logScanner = artemis.getLogScanner();
+        assertThat(logScanner.findLines(FAILED_AUTH_304_PATTERN, logScanner.getRunStartOffset())).isEmpty();
     }
 
     protected void checkAuditLogs(List<String> checkPatternLogs) {
@@ -17,6 +17,7 @@ import io.brokerqe.claire.junit.TestDisabledOnProvidedDb;
 import io.brokerqe.claire.client.deployment.BundledClientDeployment;
 import io.brokerqe.claire.client.deployment.StJavaClientDeployment;
 import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.StorageProfile;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
@@ -48,7 +49,7 @@ public class TransactionTests extends AbstractSystemTests {
     void setupEnv() {
         String artemisName = "artemis";
         LOGGER.info("Creating artemis instance: " + artemisName);
-        artemis = getArtemisInstance(artemisName);
+        artemis = getArtemisInstance(artemisName, null, StorageProfile.TMPFS);
         deployableClient = new StJavaClientDeployment();
         brokerUri = Constants.AMQP_URL_PREFIX + artemis.getName() + ":" + DEFAULT_AMQP_PORT;
     }
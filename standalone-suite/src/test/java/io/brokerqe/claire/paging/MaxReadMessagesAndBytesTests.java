@@ -12,6 +12,7 @@ import io.brokerqe.claire.ResourceManager;
 import io.brokerqe.claire.client.JmsClient;
 import io.brokerqe.claire.client.AmqpUtil;
 import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.StorageProfile;
 import io.brokerqe.claire.exception.ClaireRuntimeException;
 import io.brokerqe.claire.junit.TestValidSince;
 import jakarta.jms.Message;
@@ -41,7 +42,7 @@ public class MaxReadMessagesAndBytesTests extends AbstractSystemTests {
         String artemisName = "artemis";
         LOGGER.info("Creating artemis instance: " + artemisName);
         String tuneFile = generateYacfgProfilesContainerTestDir("tune.yaml.jinja2");
-        artemisInstance = getArtemisInstance(artemisName, tuneFile);
+        artemisInstance = getArtemisInstance(artemisName, tuneFile, StorageProfile.TMPFS);
     }
 
     @Test
@@ -0,0 +1,96 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.AbstractSystemTests;
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import jakarta.jms.Queue;
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for benchmarks. Results of every test method are stored as json files under
+ * {@link Constants#PERFORMANCE_DIR}/&lt;test method name&gt;.
+ */
+@Tag(Constants.TAG_PERFORMANCE)
+public abstract class AbstractPerformanceTests extends AbstractSystemTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractPerformanceTests.class);
+
+    protected String artemisVersion;
+    protected String testName;
+    protected String testNameDir;
+
+    @BeforeAll
+    void setupPerformanceDir() {
+        artemisVersion = getEnvironment().getArtemisVersion();
+        TestUtils.createDirectory(Constants.PERFORMANCE_DIR);
+    }
+
+    @BeforeEach
+    void initPerformanceTest(TestInfo testInfo) {
+        testName = testInfo.getTestMethod().orElseThrow().getName().toLowerCase(Locale.ROOT);
+        testNameDir = Constants.PERFORMANCE_DIR + Constants.FILE_SEPARATOR + testName;
+        TestUtils.createDirectory(testNameDir);
+    }
+
+    protected String getResultsFilename(String scenario) {
+        return testNameDir + Constants.FILE_SEPARATOR + "results_" + scenario + "_" + artemisVersion + ".json";
+    }
+
+    protected void storeResults(String scenario, Map<String, String> results) {
+        String resultsFile = getResultsFilename(scenario);
+        LOGGER.info("[{}] Storing results of scenario {} into {}: {}", testName, scenario, resultsFile, results);
+        TestUtils.createFile(resultsFile, TestUtils.convertMapToJson(results));
+    }
+
+    /**
+     * AMQP client of the queue on the broker, authenticated as admin and not keeping the messages in memory.
+     */
+    protected JmsClient createClient(ArtemisContainer artemis, String clientId, String queueName) {
+        return createClient(artemis, clientId, queueName, "", null);
+    }
+
+    /**
+     * @param urlOptions appended to the AMQP url, i.e. "?jms.prefetchPolicy.all=1", empty for none
+     * @param commitLatencies recorder of the session commits, null for none
+     */
+    protected JmsClient createClient(ArtemisContainer artemis, String clientId, String queueName, String urlOptions,
+                                     LatencyRecorder commitLatencies) {
+        String url = AmqpUtil.buildAmqpUrl(artemis.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT)) + urlOptions;
+        return ResourceManager.getJmsClient(clientId, new JmsConnectionFactory(url))
+                .withCredentials(ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS)
+                .withDestination(Queue.class, queueName)
+                .withStoreMessages(false)
+                .withCommitLatencies(commitLatencies);
+    }
+
+    protected static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    protected static String perSecond(long count, long elapsedMs) {
+        if (elapsedMs <= 0) {
+            return String.valueOf(count);
+        }
+        return String.format(Locale.ROOT, "%.2f", count * 1000.0 / elapsedMs);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import jakarta.jms.Session;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares the consumer cost of the session acknowledge modes (transacted, AUTO_ACKNOWLEDGE, DUPS_OK_ACKNOWLEDGE,
+ * CLIENT_ACKNOWLEDGE) combined with the consumer prefetch. Each combination reports the consumer throughput and the
+ * redelivery overhead, i.e. how many messages are delivered again after a consumer closes in the middle of a stream.
+ */
+public class AcknowledgeModePerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AcknowledgeModePerformanceTests.class);
+    private static final int NUM_OF_MESSAGES = 20000;
+    private static final int REDELIVERY_MESSAGES = 2000;
+    private static final int MSG_SIZE_KB = 1;
+    // messages per commit or client acknowledge, the producer commits in the same batches
+    private static final int ACK_BATCH_SIZE = 100;
+    private static final List<Integer> PREFETCH_SIZES = List.of(1, 100, 1000);
+
+    private enum AckMode {
+        TRANSACTED(Session.SESSION_TRANSACTED),
+        AUTO(Session.AUTO_ACKNOWLEDGE),
+        DUPS_OK(Session.DUPS_OK_ACKNOWLEDGE),
+        CLIENT(Session.CLIENT_ACKNOWLEDGE);
+
+        private final int sessionMode;
+
+        AckMode(int sessionMode) {
+            this.sessionMode = sessionMode;
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private ArtemisContainer artemis;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis-ack-modes");
+    }
+
+    static Stream<Arguments> ackModesAndPrefetch() {
+        return Stream.of(AckMode.values())
+                .flatMap(ackMode -> PREFETCH_SIZES.stream().map(prefetch -> Arguments.of(ackMode, prefetch)));
+    }
+
+    @ParameterizedTest(name = "{index} => ackMode={0}, prefetch={1}")
+    @MethodSource("ackModesAndPrefetch")
+    void testAcknowledgeModeAndPrefetch(AckMode ackMode, int prefetch) {
+        String queueName = "ackModes." + TestUtils.generateRandomName();
+        String scenario = ackMode + "_prefetch_" + prefetch;
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("ack_mode", ackMode.toString());
+        results.put("prefetch", String.valueOf(prefetch));
+        results.put("ack_batch_size", String.valueOf(ACK_BATCH_SIZE));
+
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try {
+            produce(queueName, NUM_OF_MESSAGES);
+            JmsClient consumer = createConsumer("consumer-" + queueName, queueName, ackMode, prefetch);
+            LOGGER.info("[{}] Consuming {} messages with {} session and prefetch {}", artemis.getName(), NUM_OF_MESSAGES,
+                    ackMode, prefetch);
+            long consumeStart = System.nanoTime();
+            consumer.consume(NUM_OF_MESSAGES, null, Constants.DURATION_30_SECONDS, ACK_BATCH_SIZE, 0, true);
+            consumer.getConsumedMsgs();
+            long consumeMs = elapsedMs(consumeStart);
+            consumer.disconnect();
+            results.put("consume_ms", String.valueOf(consumeMs));
+            results.put("consume_msgs_per_sec", perSecond(NUM_OF_MESSAGES, consumeMs));
+            // lazy DUPS_OK acknowledgements may still be in flight
+            ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+
+            measureRedelivery(queueName, ackMode, prefetch, results);
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+    }
+
+    /**
+     * Closes a consumer in the middle of an acknowledge batch, then drains the queue with a second consumer and
+     * counts what was delivered twice.
+     */
+    private void measureRedelivery(String queueName, AckMode ackMode, int prefetch, Map<String, String> results) {
+        produce(queueName, REDELIVERY_MESSAGES);
+        int interrupted = REDELIVERY_MESSAGES / 2 + ACK_BATCH_SIZE / 2;
+        // the open batch is left to be redelivered
+        JmsClient firstConsumer = createConsumer("first-consumer-" + queueName, queueName, ackMode, prefetch)
+                .withCommitTrailingBatch(false);
+        firstConsumer.consume(interrupted, null, Constants.DURATION_30_SECONDS, ACK_BATCH_SIZE, 0, true);
+        firstConsumer.getConsumedMsgs();
+        firstConsumer.disconnect();
+
+        long remaining = ArtemisJmxHelper.getQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, -1, 1, 0);
+        JmsClient secondConsumer = createConsumer("second-consumer-" + queueName, queueName, ackMode, prefetch);
+        long drainStart = System.nanoTime();
+        secondConsumer.consume(remaining, null, Constants.DURATION_30_SECONDS, ACK_BATCH_SIZE, 0, true);
+        secondConsumer.getConsumedMsgs();
+        long drainMs = elapsedMs(drainStart);
+        secondConsumer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+
+        long delivered = interrupted + remaining;
+        long redelivered = secondConsumer.getRedeliveredMsgsCount();
+        results.put("redelivery_messages", String.valueOf(REDELIVERY_MESSAGES));
+        results.put("redelivery_delivered", String.valueOf(delivered));
+        results.put("redelivery_duplicates", String.valueOf(delivered - REDELIVERY_MESSAGES));
+        results.put("redelivery_redelivered_flag", String.valueOf(redelivered));
+        results.put("redelivery_overhead_percent",
+                String.format(Locale.ROOT, "%.2f", (delivered - REDELIVERY_MESSAGES) * 100.0 / REDELIVERY_MESSAGES));
+        results.put("redelivery_drain_ms", String.valueOf(drainMs));
+    }
+
+    private void produce(String queueName, int numOfMessages) {
+        JmsClient producer = createClient(artemis, "producer-" + TestUtils.generateRandomName(), queueName);
+        producer.produce(numOfMessages, MSG_SIZE_KB, null, ACK_BATCH_SIZE, 0, true);
+        producer.getProducedMsgs();
+        producer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, numOfMessages);
+    }
+
+    private JmsClient createConsumer(String clientId, String queueName, AckMode ackMode, int prefetch) {
+        return createClient(artemis, clientId, queueName, "?jms.prefetchPolicy.all=" + prefetch, null)
+                .withSessionOptions(ackMode == AckMode.TRANSACTED, ackMode.sessionMode);
+    }
+}
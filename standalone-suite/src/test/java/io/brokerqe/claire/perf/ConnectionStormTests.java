@@ -0,0 +1,166 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import eu.rekawek.toxiproxy.Proxy;
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.ConnectionStorm;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ToxiProxyContainer;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.JmxMetricsSource;
+import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Connection storms against a single broker: thousands of AMQP or core connections opened as fast as possible by
+ * a pool of client threads, held while the broker heap is measured and closed again. Reports the accept rate, the
+ * connection latency distribution and the broker heap per connection. The reconnect storm routes the connections
+ * through ToxiProxy and cuts all links at once, measuring how fast the broker takes the whole client population back.
+ */
+public class ConnectionStormTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionStormTests.class);
+    private static final int CLIENT_THREADS = 64;
+    private static final int TOXI_PROXY_PORT = 8666;
+    private static final int RECONNECT_RETRY_INTERVAL_MS = 100;
+    private static final long LINK_DOWN_MS = Constants.DURATION_2_SECONDS;
+
+    private ArtemisContainer artemis;
+    private Proxy artemisProxy;
+    private ToxiProxyContainer toxiProxy;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis-connection-storm");
+    }
+
+    @ParameterizedTest(name = "{index} => protocol={0}, connections={1}")
+    @CsvSource({"AMQP, 1000", "AMQP, 5000", "CORE, 1000", "CORE, 5000"})
+    void testConnectionStorm(ConnectionStorm.Protocol protocol, int numOfConnections) {
+        String hostAndPort = artemis.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT);
+        String url = protocol == ConnectionStorm.Protocol.AMQP ? AmqpUtil.buildAmqpUrl(hostAndPort) : "tcp://" + hostAndPort;
+        String scenario = protocol.name().toLowerCase(Locale.ROOT) + "_" + numOfConnections;
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("protocol", protocol.name());
+        results.put("connections", String.valueOf(numOfConnections));
+        results.put("client_threads", String.valueOf(CLIENT_THREADS));
+
+        int failedConnections;
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try (ConnectionStorm storm = new ConnectionStorm(protocol, url, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS, CLIENT_THREADS)) {
+            double heapBefore = brokerHeapAfterGc();
+            long openStart = System.nanoTime();
+            LatencyRecorder connectLatencies = storm.open(numOfConnections, Constants.DURATION_5_MINUTES);
+            long openMs = elapsedMs(openStart);
+            results.put("open_ms", String.valueOf(openMs));
+            results.put("accepted_connections", String.valueOf(storm.getOpenCount()));
+            results.put("failed_connections", String.valueOf(storm.getFailedCount()));
+            results.put("accept_rate_per_sec", perSecond(storm.getOpenCount(), openMs));
+            results.putAll(connectLatencies.summarize());
+
+            Map<String, Double> brokerMetrics = brokerMetricsAfterGc();
+            results.put("broker_connection_count", String.format(Locale.ROOT, "%.0f", brokerMetrics.get("broker.connection_count")));
+            double heapPerConnection = (brokerMetrics.get("jvm.heap_used") - heapBefore) / Math.max(1, storm.getOpenCount());
+            results.put("broker_heap_per_connection_bytes", String.format(Locale.ROOT, "%.0f", heapPerConnection));
+
+            long closeStart = System.nanoTime();
+            LatencyRecorder closeLatencies = storm.closeAll(Constants.DURATION_5_MINUTES);
+            long closeMs = elapsedMs(closeStart);
+            results.put("close_ms", String.valueOf(closeMs));
+            results.put("close_rate_per_sec", perSecond(closeLatencies.getCount(), closeMs));
+            results.putAll(closeLatencies.summarize());
+            failedConnections = storm.getFailedCount();
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+        assertThat(failedConnections, equalTo(0));
+    }
+
+    @ParameterizedTest(name = "{index} => protocol={0}, connections={1}")
+    @CsvSource({"AMQP, 1000", "CORE, 1000"})
+    void testReconnectStorm(ConnectionStorm.Protocol protocol, int numOfConnections) throws IOException {
+        setupToxiProxy();
+        String hostAndPort = toxiProxy.getHostAndPort(TOXI_PROXY_PORT);
+        String url = protocol == ConnectionStorm.Protocol.AMQP
+                ? AmqpUtil.buildAmqFailoverUrl("failover.maxReconnectAttempts=-1&failover.initialReconnectDelay="
+                        + RECONNECT_RETRY_INTERVAL_MS + "&failover.useReconnectBackOff=false", hostAndPort)
+                : "tcp://" + hostAndPort + "?reconnectAttempts=-1&retryInterval=" + RECONNECT_RETRY_INTERVAL_MS;
+        String scenario = protocol.name().toLowerCase(Locale.ROOT) + "_" + numOfConnections;
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("protocol", protocol.name());
+        results.put("connections", String.valueOf(numOfConnections));
+        results.put("link_down_ms", String.valueOf(LINK_DOWN_MS));
+
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try (ConnectionStorm storm = new ConnectionStorm(protocol, url, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS, CLIENT_THREADS)) {
+            storm.open(numOfConnections, Constants.DURATION_5_MINUTES);
+            assertThat(storm.getFailedCount(), equalTo(0));
+
+            LOGGER.info("[{}] Cutting links of {} connections for {} ms", artemis.getName(), numOfConnections, LINK_DOWN_MS);
+            storm.resetReconnects();
+            artemisProxy.disable();
+            TimeHelper.waitFor(LINK_DOWN_MS);
+            long linkUp = System.nanoTime();
+            artemisProxy.enable();
+            long reconnectMs = storm.awaitReconnects(Constants.DURATION_5_MINUTES);
+            long afterLinkUpMs = elapsedMs(linkUp);
+
+            results.put("interrupted_connections", String.valueOf(storm.getInterruptedCount()));
+            results.put("reconnect_ms", String.valueOf(reconnectMs));
+            results.put("reconnect_after_link_up_ms", String.valueOf(afterLinkUpMs));
+            results.put("reconnect_rate_per_sec", perSecond(numOfConnections, afterLinkUpMs));
+            results.putAll(storm.getReconnectLatencies().summarize());
+        } finally {
+            artemisProxy.enable();
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+    }
+
+    /**
+     * ToxiProxy is started only for the reconnect storm, the plain storm connects to the broker directly.
+     */
+    private void setupToxiProxy() {
+        if (toxiProxy == null) {
+            toxiProxy = ResourceManager.getToxiProxyContainerInstance("toxiProxy");
+            toxiProxy.start();
+            artemisProxy = toxiProxy.getProxy("artemisProxy", "0.0.0.0:" + TOXI_PROXY_PORT,
+                    artemis.getName() + ":" + ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT);
+        }
+    }
+
+    private double brokerHeapAfterGc() {
+        return brokerMetricsAfterGc().get("jvm.heap_used");
+    }
+
+    /**
+     * Broker metrics right after a full GC, so that heap usage differences are live objects only.
+     */
+    private Map<String, Double> brokerMetricsAfterGc() {
+        ArtemisJmxHelper.executeDiagnosticCommand(artemis, "gcRun");
+        try (JmxMetricsSource metricsSource = new JmxMetricsSource(artemis)) {
+            return metricsSource.get();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.EnvironmentStandalone;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ContainerStatsSource;
+import io.brokerqe.claire.container.StorageProfile;
+import io.brokerqe.claire.container.database.DatabaseContainer;
+import io.brokerqe.claire.database.Database;
+import io.brokerqe.claire.helper.BrokerResourceProfiler;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import io.brokerqe.claire.metrics.MetricsChart;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import io.brokerqe.claire.metrics.MetricsTimeSeries;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same persistent transacted scenario against a broker backed by each JDBC database and by the file
+ * journal, recording the throughput, commit latency percentiles and the resource usage of the database container.
+ * Every store runs on its default storage, the file journal and PostgreSQL also on tmpfs, which shows how much of
+ * the store's cost is disk IO.
+ * All stores end up in one comparison table (comparison_&lt;version&gt;.md), the base for choosing a JDBC store.
+ * A database that fails to start fails its own scenario only, the other stores are still compared and its row is
+ * kept in the table with the missing values as "-".
+ */
+public class JdbcPersistencePerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcPersistencePerformanceTests.class);
+    private static final String FILE_JOURNAL = "file";
+    private static final int NUM_OF_MESSAGES = 10000;
+    private static final int MSG_SIZE_KB = 1;
+    private static final int COMMIT_BATCH_SIZE = 10;
+    private static final String DATABASE_PREFIX = "database.";
+    private static final List<MetricsChart> CHARTS = Stream.concat(BrokerResourceProfiler.CHARTS.stream(), Stream.of(
+            MetricsChart.of("Database CPU (% of one core)", "database\\.container\\.cpu_percent"),
+            MetricsChart.of("Database memory", "database\\.container\\.memory_usage"),
+            MetricsChart.rateOf("Database block IO (bytes)", "database\\.container\\.block_(read|write)_bytes"))).toList();
+    private static final List<String> COMPARISON_COLUMNS = List.of("produce_msgs_per_sec", "consume_msgs_per_sec",
+            "produce_commit_p50_us", "produce_commit_p99_us", "consume_commit_p50_us", "consume_commit_p99_us",
+            "broker_cpu_avg_percent", "database_cpu_avg_percent", "database_memory_max_bytes", "database_block_write_bytes");
+
+    private final Map<String, Map<String, String>> comparison = new LinkedHashMap<>();
+
+    @ParameterizedTest(name = "{index} => store={0}, storage={1}")
+    @CsvSource({
+        FILE_JOURNAL + ", BIND",
+        Database.POSTGRESQL + ", BIND",
+        Database.MYSQL + ", BIND",
+        Database.MARIADB + ", BIND",
+        Database.MSSQL + ", BIND",
+        Database.ORACLE + ", BIND",
+        FILE_JOURNAL + ", TMPFS",
+        Database.POSTGRESQL + ", TMPFS"
+    })
+    void testPersistenceStoreThroughput(String store, StorageProfile.Type storage) {
+        String scenario = storage == StorageProfile.Type.BIND ? store : store + "-" + storage.name().toLowerCase(Locale.ROOT);
+        DatabaseContainer database = FILE_JOURNAL.equals(store) ? null
+                : (DatabaseContainer) EnvironmentStandalone.getInstance().createDatabase(store);
+        ArtemisContainer artemis = ResourceManager.getArtemisContainerInstance("artemis-" + scenario);
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("store", store);
+        results.put("storage", storage.name());
+        results.put("messages", String.valueOf(NUM_OF_MESSAGES));
+        results.put("message_size_kb", String.valueOf(MSG_SIZE_KB));
+        results.put("commit_batch_size", String.valueOf(COMMIT_BATCH_SIZE));
+        comparison.put(scenario, results);
+
+        ContainerStatsSource databaseStats = database == null ? null : new ContainerStatsSource(database);
+        try {
+            startBroker(artemis, database, StorageProfile.of(storage));
+            List<Supplier<Map<String, Double>>> extraSources = new ArrayList<>();
+            if (databaseStats != null) {
+                extraSources.add(() -> databaseStats.get().entrySet().stream()
+                        .collect(Collectors.toMap(entry -> DATABASE_PREFIX + entry.getKey(), Map.Entry::getValue)));
+            }
+            MetricsSampler sampler = BrokerResourceProfiler.start(artemis, Paths.get(testNameDir, "metrics_" + scenario),
+                    EnvironmentStandalone.getInstance().getMetricsSampleIntervalMs(), extraSources);
+            try {
+                sendAndReceive(artemis, "persistence." + TestUtils.generateRandomName(), results);
+            } finally {
+                results.putAll(BrokerResourceProfiler.stop(sampler, CHARTS));
+                if (database != null) {
+                    results.putAll(summarizeDatabase(sampler.getTimeSeries()));
+                }
+            }
+        } finally {
+            if (databaseStats != null) {
+                databaseStats.close();
+            }
+            artemis.stop();
+            if (database != null) {
+                database.stop();
+            }
+        }
+        storeResults(scenario, results);
+    }
+
+    @AfterAll
+    void storeComparison() {
+        if (comparison.isEmpty()) {
+            return;
+        }
+        StringBuilder table = new StringBuilder("| store | " + String.join(" | ", COMPARISON_COLUMNS) + " |")
+                .append(Constants.LINE_SEPARATOR)
+                .append("|---".repeat(COMPARISON_COLUMNS.size() + 1)).append("|").append(Constants.LINE_SEPARATOR);
+        Map<String, String> flattened = new LinkedHashMap<>();
+        comparison.forEach((store, results) -> {
+            table.append("| ").append(store);
+            for (String column : COMPARISON_COLUMNS) {
+                // missing values are from a store which failed (or has no database container)
+                String value = results.getOrDefault(column, "-");
+                table.append(" | ").append(value);
+                flattened.put(store + "_" + column, value);
+            }
+            table.append(" |").append(Constants.LINE_SEPARATOR);
+        });
+        String tableFile = testNameDir + Constants.FILE_SEPARATOR + "comparison_" + artemisVersion + ".md";
+        LOGGER.info("[{}] Persistence store comparison stored in {}:{}{}", testName, tableFile, Constants.LINE_SEPARATOR, table);
+        TestUtils.createFile(tableFile, table.toString());
+        storeResults("comparison", flattened);
+    }
+
+    /**
+     * @param storage data directory of the file journal or of the database, BIND keeps the default of the store
+     */
+    private void startBroker(ArtemisContainer artemis, DatabaseContainer database, StorageProfile storage) {
+        boolean defaultStorage = storage.getType() == StorageProfile.Type.BIND;
+        if (database == null) {
+            LOGGER.info("[{}] Using file journal on {} storage", artemis.getName(), storage.getType());
+            generateArtemisCfg(artemis);
+            if (!defaultStorage) {
+                artemis.withDataDir(getTestConfigDir() + Constants.FILE_SEPARATOR + artemis.getName() + ArtemisConstants.DATA_DIR, storage);
+            }
+            artemis.start();
+        } else {
+            if (!defaultStorage) {
+                database.withDataStorage(storage);
+            }
+            database.start();
+            LOGGER.info("[{}] Setting up database {}", artemis.getName(), database.getName());
+            generateArtemisCfg(artemis, new ArrayList<>(List.of("tune_file=" + database.getTuneFile())));
+            artemis.withLibFile(database.getDriverFile(), database.getDriverFilename());
+            artemis.start(Duration.ofMinutes(10));
+        }
+        ensureBrokerStarted(artemis);
+        ensureBrokerIsLive(artemis);
+        if (database != null) {
+            ensureBrokerUsesJdbc(artemis, database);
+        }
+    }
+
+    private void sendAndReceive(ArtemisContainer artemis, String queueName, Map<String, String> results) {
+        LatencyRecorder produceCommits = new LatencyRecorder("produce_commit");
+        JmsClient producer = createClient(artemis, "producer-" + queueName, queueName, "", produceCommits);
+        LOGGER.info("[{}] Producing {} persistent messages to {}", artemis.getName(), NUM_OF_MESSAGES, queueName);
+        long produceStart = System.nanoTime();
+        producer.produce(NUM_OF_MESSAGES, MSG_SIZE_KB, null, COMMIT_BATCH_SIZE, 0, true);
+        producer.getProducedMsgs();
+        long produceMs = elapsedMs(produceStart);
+        producer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, NUM_OF_MESSAGES);
+        results.put("produce_ms", String.valueOf(produceMs));
+        results.put("produce_msgs_per_sec", perSecond(NUM_OF_MESSAGES, produceMs));
+        results.putAll(produceCommits.summarize());
+
+        LatencyRecorder consumeCommits = new LatencyRecorder("consume_commit");
+        JmsClient consumer = createClient(artemis, "consumer-" + queueName, queueName, "", consumeCommits);
+        long consumeStart = System.nanoTime();
+        consumer.consume(NUM_OF_MESSAGES, null, Constants.DURATION_30_SECONDS, COMMIT_BATCH_SIZE, 0, true);
+        consumer.getConsumedMsgs();
+        long consumeMs = elapsedMs(consumeStart);
+        consumer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+        results.put("consume_ms", String.valueOf(consumeMs));
+        results.put("consume_msgs_per_sec", perSecond(NUM_OF_MESSAGES, consumeMs));
+        results.putAll(consumeCommits.summarize());
+    }
+
+    /**
+     * @return CPU, memory and IO of the database container over the sampled period, keys prefixed by "database_"
+     */
+    private static Map<String, String> summarizeDatabase(MetricsTimeSeries timeSeries) {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("database_cpu_avg_percent", format(timeSeries.mean(DATABASE_PREFIX + ContainerStatsSource.CPU_PERCENT)));
+        summary.put("database_cpu_max_percent", format(timeSeries.max(DATABASE_PREFIX + ContainerStatsSource.CPU_PERCENT)));
+        summary.put("database_memory_max_bytes", format(timeSeries.max(DATABASE_PREFIX + ContainerStatsSource.MEMORY_USAGE)));
+        summary.put("database_block_read_bytes", format(timeSeries.increase(DATABASE_PREFIX + ContainerStatsSource.BLOCK_READ)));
+        summary.put("database_block_write_bytes", format(timeSeries.increase(DATABASE_PREFIX + ContainerStatsSource.BLOCK_WRITE)));
+        summary.put("database_network_rx_bytes", format(timeSeries.increase(DATABASE_PREFIX + ContainerStatsSource.NETWORK_RX)));
+        return summary;
+    }
+
+    private static String format(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.2f", value) : "-";
+    }
+}
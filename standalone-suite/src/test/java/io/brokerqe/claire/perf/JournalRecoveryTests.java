@@ -0,0 +1,174 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.EnvironmentStandalone;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.StorageProfile;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures how long a broker takes to come back with a big persisted backlog, and how long it takes until the first
+ * message can be consumed after the restart. The storage test runs the same scenario with the journal on each
+ * storage profile (host bind, tmpfs, named volume and NFS), tmpfs does not survive the restart and is measured
+ * without it.
+ */
+public class JournalRecoveryTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalRecoveryTests.class);
+    private static final Duration RECOVERY_TIMEOUT = Duration.ofMinutes(15);
+    private static final int COMMIT_BATCH_SIZE = 1000;
+    private static final String STORE_FILE = "file";
+    private static final String STORE_JDBC = "jdbc";
+    private static final String NFS_EXPORT_DIR = "journal";
+
+    @ParameterizedTest(name = "{index} => messages={0}, sizeKb={1}")
+    @CsvSource({"100000, 1", "20000, 50", "1000000, 1"})
+    void testFileJournalRecovery(int numOfMessages, int msgSizeKb) {
+        ArtemisContainer artemis = ResourceManager.getArtemisContainerInstance("artemisFileJournal");
+        generateArtemisCfg(artemis);
+        String hostDataDir = getTestConfigDir() + Constants.FILE_SEPARATOR + artemis.getName() + "-data";
+        artemis.withDataDir(hostDataDir);
+        artemis.start();
+        ensureBrokerStarted(artemis);
+        ensureBrokerIsLive(artemis);
+
+        Map<String, String> results = fillAndRecover(artemis, STORE_FILE, numOfMessages, msgSizeKb,
+                () -> FileUtils.sizeOfDirectory(new File(hostDataDir)), true);
+        storeResults(STORE_FILE + "_" + numOfMessages + "x" + msgSizeKb + "kb", results);
+        artemis.stop();
+    }
+
+    @ParameterizedTest(name = "{index} => storage={0}")
+    @EnumSource(StorageProfile.Type.class)
+    void testFileJournalStorage(StorageProfile.Type storageType) {
+        int numOfMessages = 100000;
+        int msgSizeKb = 1;
+        // the published image does not take ownership of named volumes, ARTEMIS_STORAGE_DIRS needs a rebuilt one
+        assumeTrue(storageType != StorageProfile.Type.VOLUME
+                        || !Constants.DEFAULT_ARTEMIS_CONTAINER_IMAGE.equals(EnvironmentStandalone.getInstance().getArtemisContainerImage()),
+                "Named volume storage needs an artemis image built from dockerfiles/artemis, set " + Constants.EV_ARTEMIS_CONTAINER_IMAGE);
+        StorageProfile storage = storageType == StorageProfile.Type.NFS
+                ? StorageProfile.nfs(getNfsServerInstance(NFS_EXPORT_DIR), NFS_EXPORT_DIR) : StorageProfile.of(storageType);
+        ArtemisContainer artemis = ResourceManager.getArtemisContainerInstance("artemisJournal-" + storage);
+        generateArtemisCfg(artemis);
+        artemis.withDataDir(getTestConfigDir() + Constants.FILE_SEPARATOR + artemis.getName() + "-data", storage);
+        artemis.start();
+        ensureBrokerStarted(artemis);
+        ensureBrokerIsLive(artemis);
+
+        Map<String, String> results = fillAndRecover(artemis, STORE_FILE + "-" + storage, numOfMessages, msgSizeKb,
+                () -> artemis.getDirectorySize(ArtemisContainer.ARTEMIS_INSTANCE_DATA_DIR), storage.isDurable());
+        results.put("storage", storage.toString());
+        storeResults(STORE_FILE + "_" + storage + "_" + numOfMessages + "x" + msgSizeKb + "kb", results);
+        artemis.stop();
+    }
+
+    @ParameterizedTest(name = "{index} => messages={0}, sizeKb={1}")
+    @CsvSource({"100000, 1", "20000, 50"})
+    @Tag(Constants.TAG_JDBC)
+    void testJdbcStoreRecovery(int numOfMessages, int msgSizeKb) {
+        assumeTrue(useArtemisWithDB(), "No database provided, set " + Constants.EV_JDBC_DATA + " to run this test");
+        ArtemisContainer artemis = setupArtemisWithDB();
+
+        Map<String, String> results = fillAndRecover(artemis, STORE_JDBC, numOfMessages, msgSizeKb, () -> -1L, true);
+        results.put("database", database.getName());
+        storeResults(STORE_JDBC + "_" + database.getName() + "_" + numOfMessages + "x" + msgSizeKb + "kb", results);
+        artemis.stop();
+    }
+
+    private Map<String, String> fillAndRecover(ArtemisContainer artemis, String storeType, int numOfMessages,
+                                               int msgSizeKb, TimeHelper.ThrowableFunction<Long> storeSize, boolean restart) {
+        String queueName = "recovery-" + storeType + "-" + TestUtils.generateRandomName();
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("store", storeType);
+        results.put("messages", String.valueOf(numOfMessages));
+        results.put("message_size_kb", String.valueOf(msgSizeKb));
+
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + queueName);
+        try {
+            fillAndRecoverQueue(artemis, queueName, numOfMessages, msgSizeKb, storeSize, restart, results);
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        return results;
+    }
+
+    /**
+     * @param restart whether to restart the broker between fill and drain, a store lost on restart is drained directly
+     */
+    private void fillAndRecoverQueue(ArtemisContainer artemis, String queueName, int numOfMessages, int msgSizeKb,
+                                     TimeHelper.ThrowableFunction<Long> storeSize, boolean restart, Map<String, String> results) {
+        LOGGER.info("[{}] Filling queue {} with {} messages of {} KiB", artemis.getName(), queueName, numOfMessages, msgSizeKb);
+        JmsClient producer = createClient(artemis, "producer-" + queueName, queueName);
+        long fillStart = System.nanoTime();
+        producer.produce(numOfMessages, msgSizeKb, null, COMMIT_BATCH_SIZE, 0, true);
+        producer.getProducedMsgs();
+        long fillMs = elapsedMs(fillStart);
+        producer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, numOfMessages);
+        results.put("fill_ms", String.valueOf(fillMs));
+        results.put("fill_msgs_per_sec", perSecond(numOfMessages, fillMs));
+        results.put("pages", String.valueOf(ArtemisJmxHelper.getAddressPageCount(artemis, queueName, 0, 1, 0)));
+        try {
+            results.put("store_bytes", String.valueOf(storeSize.perform()));
+        } catch (Exception e) {
+            LOGGER.warn("[{}] Unable to get the store size: {}", artemis.getName(), e.getMessage());
+        }
+
+        int toDrain = numOfMessages;
+        JmsClient consumer;
+        if (restart) {
+            LOGGER.info("[{}] Restarting broker to recover {} persisted messages", artemis.getName(), numOfMessages);
+            artemis.stop();
+            long restartStart = System.nanoTime();
+            artemis.restartWithStop(RECOVERY_TIMEOUT);
+            results.put("container_start_ms", String.valueOf(elapsedMs(restartStart)));
+            TimeHelper.waitFor(e -> ArtemisJmxHelper.isLive(artemis, true, 1, 0), Constants.DURATION_100_MILLISECONDS,
+                    RECOVERY_TIMEOUT.toMillis());
+            results.put("broker_live_ms", String.valueOf(elapsedMs(restartStart)));
+            ensureBrokerIsLive(artemis);
+
+            consumer = createClient(artemis, "consumer-" + queueName, queueName);
+            consumer.consume(1, null, RECOVERY_TIMEOUT.toMillis(), true);
+            consumer.getConsumedMsgs();
+            results.put("first_message_ms", String.valueOf(elapsedMs(restartStart)));
+            toDrain--;
+        } else {
+            consumer = createClient(artemis, "consumer-" + queueName, queueName);
+        }
+
+        LOGGER.info("[{}] Draining the remaining {} messages from queue {}", artemis.getName(), toDrain, queueName);
+        long drainStart = System.nanoTime();
+        consumer.consume(toDrain, null, Constants.DURATION_30_SECONDS, COMMIT_BATCH_SIZE, 0, true);
+        consumer.getConsumedMsgs();
+        long drainMs = elapsedMs(drainStart);
+        consumer.disconnect();
+        results.put("drain_ms", String.valueOf(drainMs));
+        results.put("drain_msgs_per_sec", perSecond(toDrain, drainMs));
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.EnvironmentStandalone;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.CoreLargeMessageClient;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.helper.BrokerResourceProfiler;
+import io.brokerqe.claire.metrics.MetricsChart;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Sends and receives large messages (10 MB - 1 GB) with generated content, verified on receive, and measures the
+ * throughput together with the heap of the test JVM and the broker memory. The core client streams the bodies, so
+ * its heap stays bounded for every size. Qpid JMS (AMQP) keeps the body of one message in memory, so AMQP sizes which
+ * would not fit the heap of the test JVM several times are skipped instead of failing with OutOfMemoryError, the
+ * 1 GB AMQP scenario needs a heap of about 5 GB, e.g. {@code -DargLine=-Xmx6g}.
+ */
+public class LargeMessagePerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LargeMessagePerformanceTests.class);
+    private static final long MB = 1024 * 1024;
+    private static final String CORE = "CORE";
+    // body in the producer, its encoded copy and the message being received
+    private static final int CLIENT_COPIES_PER_MESSAGE = 4;
+    // one message in flight at a time, the default prefetch would buffer hundreds of large messages
+    private static final String PREFETCH_ONE = "?jms.prefetchPolicy.all=1";
+    private static final Duration RECEIVE_TIMEOUT = Duration.ofMinutes(5);
+    private static final String CLIENT_HEAP_USED = "client.heap_used";
+    private static final List<MetricsChart> CHARTS = Stream.concat(BrokerResourceProfiler.CHARTS.stream(),
+            Stream.of(MetricsChart.of("Test client heap", "client\\..*"))).toList();
+
+    private final MemoryMXBean clientMemory = ManagementFactory.getMemoryMXBean();
+    private ArtemisContainer artemis;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis-large-messages");
+    }
+
+    @ParameterizedTest(name = "{index} => protocol={0}, sizeMb={1}, messages={2}")
+    @CsvSource({"CORE, 10, 50", "CORE, 100, 10", "CORE, 1024, 2", "AMQP, 10, 50", "AMQP, 100, 10", "AMQP, 1024, 2"})
+    void testLargeMessageThroughput(String protocol, long msgSizeMb, int numOfMessages) {
+        long msgSizeBytes = msgSizeMb * MB;
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assumeTrue(CORE.equals(protocol) || msgSizeBytes * CLIENT_COPIES_PER_MESSAGE < maxHeap, String.format(Locale.ROOT,
+                "AMQP message of %d MB does not fit %d MB heap of the test JVM", msgSizeMb, maxHeap / MB));
+
+        String queueName = "largeMessages." + TestUtils.generateRandomName();
+        String scenario = protocol.toLowerCase(Locale.ROOT) + "_" + numOfMessages + "x" + msgSizeMb + "mb";
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("protocol", protocol);
+        results.put("messages", String.valueOf(numOfMessages));
+        results.put("message_size_mb", String.valueOf(msgSizeMb));
+        results.put("client_max_heap_bytes", String.valueOf(maxHeap));
+
+        MetricsSampler sampler = BrokerResourceProfiler.start(artemis, Paths.get(testNameDir, "metrics_" + scenario),
+                EnvironmentStandalone.getInstance().getMetricsSampleIntervalMs(),
+                () -> Map.of(CLIENT_HEAP_USED, (double) clientMemory.getHeapMemoryUsage().getUsed()));
+        try {
+            if (CORE.equals(protocol)) {
+                sendAndReceiveCore(queueName, msgSizeBytes, numOfMessages, results);
+            } else {
+                sendAndReceive(queueName, msgSizeBytes, numOfMessages, results);
+            }
+        } finally {
+            results.putAll(BrokerResourceProfiler.stop(sampler, CHARTS));
+            results.put("client_heap_max_bytes", String.format(Locale.ROOT, "%.0f", sampler.getTimeSeries().max(CLIENT_HEAP_USED)));
+        }
+        storeResults(scenario, results);
+    }
+
+    private void sendAndReceiveCore(String queueName, long msgSizeBytes, int numOfMessages, Map<String, String> results) {
+        long totalBytes = msgSizeBytes * numOfMessages;
+        String url = "tcp://" + artemis.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT);
+        try (CoreLargeMessageClient client = new CoreLargeMessageClient(url, ArtemisConstants.ADMIN_NAME,
+                ArtemisConstants.ADMIN_PASS, queueName)) {
+            LOGGER.info("[{}] Producing {} core messages of {} bytes to {}", artemis.getName(), numOfMessages, msgSizeBytes, queueName);
+            long produceStart = System.nanoTime();
+            long producedBytes = client.produce(numOfMessages, msgSizeBytes);
+            long produceMs = elapsedMs(produceStart);
+            ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, numOfMessages);
+            assertThat(producedBytes).isEqualTo(totalBytes);
+            putThroughput(results, "produce", numOfMessages, totalBytes, produceMs);
+
+            LOGGER.info("[{}] Consuming and verifying {} core messages from {}", artemis.getName(), numOfMessages, queueName);
+            long consumeStart = System.nanoTime();
+            long consumedBytes = client.consume(numOfMessages, RECEIVE_TIMEOUT.toMillis());
+            long consumeMs = elapsedMs(consumeStart);
+            ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+            assertThat(consumedBytes).isEqualTo(totalBytes);
+            putThroughput(results, "consume", numOfMessages, totalBytes, consumeMs);
+        }
+    }
+
+    private void sendAndReceive(String queueName, long msgSizeBytes, int numOfMessages, Map<String, String> results) {
+        long totalBytes = msgSizeBytes * numOfMessages;
+        JmsClient producer = createClient(artemis, "producer-" + queueName, queueName, PREFETCH_ONE, null);
+        LOGGER.info("[{}] Producing {} messages of {} bytes to {}", artemis.getName(), numOfMessages, msgSizeBytes, queueName);
+        long produceStart = System.nanoTime();
+        producer.produceLarge(numOfMessages, msgSizeBytes, true);
+        long sentBytes = producer.getProducedLargeBytes();
+        long produceMs = elapsedMs(produceStart);
+        producer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, numOfMessages);
+        assertThat(sentBytes).isEqualTo(totalBytes);
+        putThroughput(results, "produce", numOfMessages, totalBytes, produceMs);
+
+        JmsClient consumer = createClient(artemis, "consumer-" + queueName, queueName, PREFETCH_ONE, null);
+        LOGGER.info("[{}] Consuming and verifying {} messages from {}", artemis.getName(), numOfMessages, queueName);
+        long consumeStart = System.nanoTime();
+        consumer.consumeLarge(numOfMessages, RECEIVE_TIMEOUT.toMillis(), true);
+        long receivedBytes = consumer.getConsumedLargeBytes();
+        long consumeMs = elapsedMs(consumeStart);
+        consumer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+        assertThat(receivedBytes).isEqualTo(totalBytes);
+        putThroughput(results, "consume", numOfMessages, totalBytes, consumeMs);
+    }
+
+    private static void putThroughput(Map<String, String> results, String operation, int numOfMessages, long totalBytes,
+                                      long elapsedMs) {
+        results.put(operation + "_ms", String.valueOf(elapsedMs));
+        results.put(operation + "_msgs_per_sec", perSecond(numOfMessages, elapsedMs));
+        results.put(operation + "_mb_per_sec", perSecond(totalBytes / MB, elapsedMs));
+    }
+}
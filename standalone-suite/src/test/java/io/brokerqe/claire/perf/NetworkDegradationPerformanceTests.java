@@ -0,0 +1,211 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import eu.rekawek.toxiproxy.Proxy;
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.deployment.BundledClientDeployment;
+import io.brokerqe.claire.clients.bundled.ArtemisCommand;
+import io.brokerqe.claire.clients.bundled.BundledArtemisClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.NetworkProfile;
+import io.brokerqe.claire.container.ToxiProxyContainer;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Throughput and latency of a client link under each {@link NetworkProfile} (WAN latency, jitter, bandwidth cap,
+ * packet slicing, intermittent reset), the conditions of cross datacenter bridges and mirrors. Every profile runs at
+ * increasing severities, giving a degradation curve. The bundled perf client reaches the broker through ToxiProxy,
+ * once unthrottled for the throughput and once at a fixed rate for the end to end latency. All scenarios end up in one
+ * comparison table (comparison_&lt;version&gt;.md) with the degradation against the {@link NetworkProfile#NONE}
+ * baseline. The perf client must succeed under every profile but the intermittent reset.
+ */
+public class NetworkDegradationPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkDegradationPerformanceTests.class);
+    private static final int BROKER_PROXY_PORT = 8666;
+    private static final long WINDOW_SECONDS = 30;
+    private static final int LATENCY_RATE = 200;
+    private static final String QUEUE = "queue://NETWORK_PROFILE_QUEUE";
+    private static final String THROUGHPUT = "throughput";
+    private static final String LATENCY = "latency";
+    private static final String LATENCY_P50 = "aggregated_end_to_end_latency_us_50.00";
+    private static final String LATENCY_P99 = "aggregated_end_to_end_latency_us_99.00";
+    private static final String SUCCESS = "success";
+    // mildest first, the curve of every profile
+    private static final Map<NetworkProfile, List<Long>> SEVERITIES = new EnumMap<>(Map.of(
+            NetworkProfile.NONE, List.of(0L),
+            NetworkProfile.WAN_LATENCY, List.of(10L, 40L, 100L),
+            NetworkProfile.JITTER, List.of(5L, 20L, 50L),
+            NetworkProfile.BANDWIDTH_CAP, List.of(10240L, 1024L, 256L),
+            NetworkProfile.PACKET_SLICING, List.of(1024L, 64L, 16L),
+            NetworkProfile.INTERMITTENT_RESET, List.of(30000L, 10000L, 2000L)));
+    private static final List<String> COMPARISON_COLUMNS = List.of("severity", "msgs_per_sec", "msgs_per_sec_percent_of_baseline",
+            "latency_p50_us", "latency_p99_us", "latency_p99_times_baseline", "throughput_result", "latency_result");
+
+    private final Map<String, Map<String, String>> comparison = new LinkedHashMap<>();
+    private ArtemisContainer artemis;
+    private ToxiProxyContainer toxiProxy;
+    private Proxy brokerProxy;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis");
+        toxiProxy = ResourceManager.getToxiProxyContainerInstance("toxiProxy");
+        toxiProxy.start();
+        brokerProxy = toxiProxy.getProxy("brokerProxy", "0.0.0.0:" + BROKER_PROXY_PORT,
+                artemis.getName() + ":" + ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT);
+    }
+
+    static Stream<Arguments> profilesAndSeverities() {
+        return SEVERITIES.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(severity -> Arguments.of(entry.getKey(), severity)));
+    }
+
+    @ParameterizedTest(name = "{index} => profile={0}, severity={1}")
+    @MethodSource("profilesAndSeverities")
+    void testNetworkProfileDegradation(NetworkProfile profile, long severity) {
+        String scenario = profile == NetworkProfile.NONE ? profile.toString()
+                : profile + "-" + severity + profile.getSeverityUnit().toLowerCase(Locale.ROOT);
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("profile", profile.toString());
+        results.put("severity", profile == NetworkProfile.NONE ? "-" : severity + " " + profile.getSeverityUnit());
+        results.put("window_seconds", String.valueOf(WINDOW_SECONDS));
+        results.put("latency_rate", String.valueOf(LATENCY_RATE));
+        comparison.put(scenario, results);
+
+        toxiProxy.applyNetworkProfile(brokerProxy, profile, severity);
+        try {
+            LOGGER.info("[{}] Measuring throughput under network profile {}", testName, scenario);
+            Map<String, String> throughput = runLoadWindow(null);
+            prefixInto(THROUGHPUT, throughput, results);
+            long received = parseLong(throughput.get("total_received"));
+            results.put("msgs_per_sec", received < 0 ? "-" : perSecond(received, TimeUnit.SECONDS.toMillis(WINDOW_SECONDS)));
+
+            LOGGER.info("[{}] Measuring latency at {} msgs/s under network profile {}", testName, LATENCY_RATE, scenario);
+            Map<String, String> latency = runLoadWindow(LATENCY_RATE);
+            prefixInto(LATENCY, latency, results);
+            results.put("latency_p50_us", latency.getOrDefault(LATENCY_P50, "-").trim());
+            results.put("latency_p99_us", latency.getOrDefault(LATENCY_P99, "-").trim());
+        } finally {
+            toxiProxy.clearNetworkProfiles(brokerProxy);
+        }
+        storeResults(scenario, results);
+        // reset connections may fail the perf client, which is what the profile measures
+        if (profile != NetworkProfile.INTERMITTENT_RESET) {
+            assertThat("perf client throughput result under " + scenario, results.get(THROUGHPUT + "_result"), equalTo(SUCCESS));
+            assertThat("perf client latency result under " + scenario, results.get(LATENCY + "_result"), equalTo(SUCCESS));
+        }
+    }
+
+    @AfterAll
+    void storeComparison() {
+        if (comparison.isEmpty()) {
+            return;
+        }
+        Map<String, String> baseline = comparison.getOrDefault(NetworkProfile.NONE.toString(), Map.of());
+        StringBuilder table = new StringBuilder("| scenario | " + String.join(" | ", COMPARISON_COLUMNS) + " |")
+                .append(Constants.LINE_SEPARATOR)
+                .append("|---".repeat(COMPARISON_COLUMNS.size() + 1)).append("|").append(Constants.LINE_SEPARATOR);
+        Map<String, String> flattened = new LinkedHashMap<>();
+        comparison.forEach((scenario, results) -> {
+            results.put("msgs_per_sec_percent_of_baseline", ratio(results, baseline, "msgs_per_sec", 100));
+            results.put("latency_p99_times_baseline", ratio(results, baseline, "latency_p99_us", 1));
+            table.append("| ").append(scenario);
+            for (String column : COMPARISON_COLUMNS) {
+                String value = results.getOrDefault(column, "-");
+                table.append(" | ").append(value);
+                flattened.put(scenario + "_" + column, value);
+            }
+            table.append(" |").append(Constants.LINE_SEPARATOR);
+        });
+        String tableFile = testNameDir + Constants.FILE_SEPARATOR + "comparison_" + artemisVersion + ".md";
+        LOGGER.info("[{}] Network profile comparison stored in {}:{}{}", testName, tableFile, Constants.LINE_SEPARATOR, table);
+        TestUtils.createFile(tableFile, table.toString());
+        storeResults("comparison", flattened);
+    }
+
+    /**
+     * One perf client run in the broker container, connecting through the proxy. A core client reconnects on its own,
+     * so that the intermittent reset profile measures the recovery instead of failing on the first reset.
+     * @param rate messages per second, null for as fast as possible
+     * @return parsed perf client summary, with result "failed" when the client did not finish, asserted by the caller
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> runLoadWindow(Integer rate) {
+        String url = "tcp://" + toxiProxy.getName() + ":" + BROKER_PROXY_PORT + "?reconnectAttempts=-1&retryInterval=100";
+        Map<String, String> perfClientOptions = new LinkedHashMap<>(Map.of(
+                "duration", String.valueOf(WINDOW_SECONDS),
+                "protocol", "core",
+                "persistent", "",
+                "show-latency", "",
+                "url", url,
+                "consumer-url", url
+        ));
+        if (rate != null) {
+            perfClientOptions.put("rate", String.valueOf(rate));
+        }
+        BundledClientDeployment deployment = new BundledClientDeployment();
+        deployment.setContainer(artemis.getGenericContainer());
+        BundledArtemisClient artemisClient = new BundledArtemisClient(deployment, ArtemisCommand.PERF_CLIENT,
+                perfClientOptions, QUEUE);
+        try {
+            return (Map<String, String>) artemisClient.executeCommand(TimeUnit.SECONDS.toMillis(WINDOW_SECONDS) + Constants.DURATION_2_MINUTES);
+        } catch (ClaireRuntimeException e) {
+            LOGGER.warn("[{}] Perf client failed: {}", testName, e.getMessage());
+            return Map.of("result", "failed");
+        }
+    }
+
+    private static void prefixInto(String prefix, Map<String, String> perfOutput, Map<String, String> results) {
+        perfOutput.forEach((key, value) -> results.put(prefix + "_" + key, value.trim()));
+    }
+
+    /**
+     * @return value of the column relative to the baseline, "-" when any of them is missing
+     */
+    private static String ratio(Map<String, String> results, Map<String, String> baseline, String column, int scale) {
+        double value = parseDouble(results.get(column));
+        double base = parseDouble(baseline.get(column));
+        if (!Double.isFinite(value) || !Double.isFinite(base) || base == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.2f", value * scale / base);
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return value == null ? Double.NaN : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long parseLong(String value) {
+        double parsed = parseDouble(value);
+        return Double.isFinite(parsed) ? (long) parsed : -1;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pushes a queue deep into paging (thousands of pages, see the tune file of this class) and measures the producer
+ * throughput while paging, how long a selector consumer waits for a paged message (page-in latency) and the consumer
+ * throughput while depaging. Page progress is tracked over JMX and sampled into the metrics charts.
+ */
+public class PagingPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagingPerformanceTests.class);
+    private static final Duration PAGING_TIMEOUT = Duration.ofMinutes(15);
+    private static final int COMMIT_BATCH_SIZE = 1000;
+    private static final String MARKER_PROPERTY = "pagingMarker";
+    private static final String MARKER_VALUE = "first-paged";
+
+    private ArtemisContainer artemis;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis-paging", generateYacfgProfilesContainerTestDir("tune.yaml.jinja2"));
+    }
+
+    @ParameterizedTest(name = "{index} => messages={0}, sizeKb={1}")
+    @CsvSource({"200000, 1", "50000, 10"})
+    void testPagingThroughput(int numOfMessages, int msgSizeKb) {
+        // matched by the pagingBenchmark.# address settings
+        String queueName = "pagingBenchmark." + TestUtils.generateRandomName();
+        String scenario = numOfMessages + "x" + msgSizeKb + "kb";
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("messages", String.valueOf(numOfMessages));
+        results.put("message_size_kb", String.valueOf(msgSizeKb));
+
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try {
+            pageAndDepage(queueName, numOfMessages, msgSizeKb, results);
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+    }
+
+    private void pageAndDepage(String queueName, int numOfMessages, int msgSizeKb, Map<String, String> results) {
+        JmsClient producer = createClient(artemis, "producer-" + queueName, queueName);
+        LOGGER.info("[{}] Filling queue {} until it starts paging", artemis.getName(), queueName);
+        int produced = 0;
+        while (produced < numOfMessages && !ArtemisJmxHelper.isPaging(artemis, queueName, true, 1, 0)) {
+            int batch = Math.min(COMMIT_BATCH_SIZE, numOfMessages - produced);
+            producer.produce(batch, msgSizeKb, null, COMMIT_BATCH_SIZE, 0, true);
+            producer.getProducedMsgs();
+            produced += batch;
+        }
+        ensureBrokerIsPaging(artemis, queueName, true);
+        results.put("messages_before_paging", String.valueOf(produced));
+
+        // first message in the page files, the target of the selector consumer
+        producer.produce(1, msgSizeKb, Map.of(MARKER_PROPERTY, MARKER_VALUE), true);
+        producer.getProducedMsgs();
+        int pagedMessages = numOfMessages - produced;
+        LOGGER.info("[{}] Producing {} messages to paging queue {}", artemis.getName(), pagedMessages - 1, queueName);
+        long produceStart = System.nanoTime();
+        producer.produce(pagedMessages - 1, msgSizeKb, null, COMMIT_BATCH_SIZE, 0, true);
+        producer.getProducedMsgs();
+        long produceMs = elapsedMs(produceStart);
+        producer.disconnect();
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, numOfMessages);
+        long pages = ArtemisJmxHelper.getAddressPageCount(artemis, queueName, 0, 1, 0);
+        LOGGER.info("[{}] Queue {} has {} pages", artemis.getName(), queueName, pages);
+        results.put("paging_produce_ms", String.valueOf(produceMs));
+        results.put("paging_produce_msgs_per_sec", perSecond(pagedMessages - 1, produceMs));
+        results.put("pages", String.valueOf(pages));
+
+        JmsClient consumer = createClient(artemis, "consumer-" + queueName, queueName);
+        long pageInStart = System.nanoTime();
+        consumer.consume(1, MARKER_PROPERTY + "='" + MARKER_VALUE + "'", PAGING_TIMEOUT.toMillis(), true);
+        consumer.getConsumedMsgs();
+        results.put("selector_page_in_ms", String.valueOf(elapsedMs(pageInStart)));
+
+        LOGGER.info("[{}] Draining {} messages from paging queue {}", artemis.getName(), numOfMessages - 1, queueName);
+        long drainStart = System.nanoTime();
+        consumer.consume(numOfMessages - 1, null, Constants.DURATION_30_SECONDS, COMMIT_BATCH_SIZE, 0, false);
+        long[] lastPages = {pages};
+        TimeHelper.waitFor(e -> {
+            long currentPages = ArtemisJmxHelper.getAddressPageCount(artemis, queueName, 0, 1, 0);
+            if (currentPages != lastPages[0]) {
+                LOGGER.debug("[{}] Queue {} depaged to {} pages", artemis.getName(), queueName, currentPages);
+                lastPages[0] = currentPages;
+            }
+            return !ArtemisJmxHelper.isPaging(artemis, queueName, false, 1, 0);
+        }, Constants.DURATION_1_SECOND, PAGING_TIMEOUT.toMillis());
+        long depageMs = elapsedMs(drainStart);
+        consumer.getConsumedMsgs();
+        long drainMs = elapsedMs(drainStart);
+        consumer.disconnect();
+        ensureBrokerIsPaging(artemis, queueName, false);
+        ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+        results.put("depage_ms", String.valueOf(depageMs));
+        results.put("depage_pages_per_sec", perSecond(pages, depageMs));
+        results.put("drain_ms", String.valueOf(drainMs));
+        results.put("drain_msgs_per_sec", perSecond(numOfMessages - 1, drainMs));
+    }
+}
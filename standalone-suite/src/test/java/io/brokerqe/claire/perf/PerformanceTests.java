@@ -4,19 +4,16 @@
  */
 package io.brokerqe.claire.perf;
 
-import io.brokerqe.claire.AbstractSystemTests;
 import io.brokerqe.claire.Constants;
-import io.brokerqe.claire.Environment;
-import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.EnvironmentStandalone;
 import io.brokerqe.claire.client.deployment.BundledClientDeployment;
 import io.brokerqe.claire.clients.DeployableClient;
 import io.brokerqe.claire.clients.bundled.ArtemisCommand;
 import io.brokerqe.claire.clients.bundled.BundledArtemisClient;
 import io.brokerqe.claire.container.ArtemisContainer;
-import io.brokerqe.claire.smoke.ClientsMessagingTests;
+import io.brokerqe.claire.helper.BrokerResourceProfiler;
+import io.brokerqe.claire.metrics.MetricsSampler;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.slf4j.Logger;
@@ -24,46 +21,60 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
-public class PerformanceTests extends AbstractSystemTests {
+public class PerformanceTests extends AbstractPerformanceTests {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ClientsMessagingTests.class);
-    private String testName;
-    private String testNameDir;
-    protected String artemisVersion;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerformanceTests.class);
     protected Map<String, String> results = new HashMap<>();
     ArtemisContainer artemis;
 
     @BeforeAll
     void setupEnv() {
         String artemisName = "artemis";
-        artemisVersion = Environment.get().getArtemisVersion();
         LOGGER.info("Creating artemis instance: " + artemisName);
         artemis = getArtemisInstance(artemisName);
-        TestUtils.deleteDirectoryRecursively(Path.of(Constants.PERFORMANCE_DIR));
-        TestUtils.createDirectory(Constants.PERFORMANCE_DIR);
     }
 
-    @BeforeEach
-    void init(TestInfo testInfo) {
-        this.testInfo = testInfo;
-        testName = testInfo.getTestMethod().orElseThrow().getName().toLowerCase(Locale.ROOT);
-        testNameDir = Constants.PERFORMANCE_DIR + "/" + testName;
-        TestUtils.createDirectory(testNameDir);
+    /**
+     * Stores the perf client output as results of the protocol, together with its hdr histogram and json report
+     * copied from the broker container.
+     */
+    void storeResults(String protocol, Map<String, String> perfOutput, String hdrFilename, String reportFilename) {
+        artemis.copyFileFrom(ArtemisContainer.ARTEMIS_INSTANCE_DIR + "/" + hdrFilename, testNameDir + Constants.FILE_SEPARATOR + hdrFilename);
+        artemis.copyFileFrom(ArtemisContainer.ARTEMIS_INSTANCE_DIR + "/" + reportFilename, testNameDir + Constants.FILE_SEPARATOR + reportFilename);
+        storeResults(protocol, perfOutput);
     }
 
-    void storeResults(String results, String hdrFilename, String reportFilename) {
-        String perfFilenameHost = testNameDir + "/results_" + artemisVersion;
-        String hdrFilenameHost = testNameDir + "/" + hdrFilename;
-        String reportFilenameHost = testNameDir + "/" + reportFilename;
-        artemis.copyFileFrom(ArtemisContainer.ARTEMIS_INSTANCE_DIR + "/" + hdrFilename, hdrFilenameHost);
-        artemis.copyFileFrom(ArtemisContainer.ARTEMIS_INSTANCE_DIR + "/" + reportFilename, reportFilenameHost);
-        TestUtils.createFile(perfFilenameHost, results);
+    /**
+     * Runs the perf client while broker metrics are sampled into metrics_&lt;protocol&gt; of the test directory.
+     * Broker resource usage (CPU, memory, GC, IO) is added to the perf client output, so it is stored with the results.
+     * With flight recording enabled, the broker JFR recording and its profile summary are stored in the test directory.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> executeWithMetrics(BundledArtemisClient artemisClient, String protocol) {
+        boolean flightRecording = EnvironmentStandalone.getInstance().isFlightRecording();
+        String recordingName = testName + "_" + protocol + "_" + artemisVersion;
+        if (flightRecording) {
+            artemis.startFlightRecording(recordingName);
+        }
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + "/metrics_" + protocol);
+        Map<String, String> perfOutput = new LinkedHashMap<>();
+        try {
+            perfOutput.putAll((Map<String, String>) artemisClient.executeCommand());
+        } finally {
+            if (flightRecording) {
+                BrokerResourceProfiler.stopFlightRecording(artemis, recordingName, Path.of(testNameDir));
+            }
+            Map<String, String> brokerResources = finishMetricsSampler(sampler);
+            LOGGER.info("[{}] Broker resources during {} run: {}", testName, protocol, brokerResources);
+            perfOutput.putAll(brokerResources);
+        }
+        return perfOutput;
     }
 
     @ParameterizedTest
@@ -86,13 +97,13 @@ public class PerformanceTests extends AbstractSystemTests {
                 "json", reportFilename
         );
         BundledArtemisClient artemisClient = new BundledArtemisClient(deployableClient, ArtemisCommand.PERF_CLIENT, artemisQueueStatOptions);
-        Map<String, String> perfOutput = (Map<String, String>) artemisClient.executeCommand();
+        Map<String, String> perfOutput = executeWithMetrics(artemisClient, protocol);
         LOGGER.info(perfOutput.toString());
 
         assertThat("performance test ended successfully", perfOutput.get("result"), equalTo("success"));
         assertThat("total send = total received", perfOutput.get("total_sent"), equalTo(perfOutput.get("total_received")));
 
-        storeResults(TestUtils.convertMapToJson(perfOutput), hdrFilename, reportFilename);
+        storeResults(protocol, perfOutput, hdrFilename, reportFilename);
     }
 
     @ParameterizedTest
@@ -115,12 +126,12 @@ public class PerformanceTests extends AbstractSystemTests {
                 "json", reportFilename
         );
         BundledArtemisClient artemisClient = new BundledArtemisClient(deployableClient, ArtemisCommand.PERF_CLIENT, artemisQueueStatOptions);
-        Map<String, String> perfOutput = (Map<String, String>) artemisClient.executeCommand();
+        Map<String, String> perfOutput = executeWithMetrics(artemisClient, protocol);
         LOGGER.info(perfOutput.toString());
 
         assertThat("performance test ended successfully", perfOutput.get("result"), equalTo("success"));
         assertThat("total send = total received", perfOutput.get("total_sent"), equalTo(perfOutput.get("total_received")));
-        storeResults(TestUtils.convertMapToJson(perfOutput), hdrFilename, reportFilename);
+        storeResults(protocol, perfOutput, hdrFilename, reportFilename);
     }
 
     @ParameterizedTest
@@ -143,12 +154,12 @@ public class PerformanceTests extends AbstractSystemTests {
                 "json", reportFilename
         );
         BundledArtemisClient artemisClient = new BundledArtemisClient(deployableClient, ArtemisCommand.PERF_CLIENT, artemisQueueStatOptions);
-        Map<String, String> perfOutput = (Map<String, String>) artemisClient.executeCommand();
+        Map<String, String> perfOutput = executeWithMetrics(artemisClient, protocol);
         LOGGER.info(perfOutput.toString());
 
         assertThat("performance test ended successfully", perfOutput.get("result"), equalTo("success"));
         assertThat("total send = total received", perfOutput.get("total_sent"), equalTo(perfOutput.get("total_received")));
-        storeResults(TestUtils.convertMapToJson(perfOutput), hdrFilename, reportFilename);
+        storeResults(protocol, perfOutput, hdrFilename, reportFilename);
     }
 
     @ParameterizedTest
@@ -179,8 +190,8 @@ public class PerformanceTests extends AbstractSystemTests {
                 Map.entry("json", reportFilename)
         );
         BundledArtemisClient artemisClient = new BundledArtemisClient(deployableClient, ArtemisCommand.PERF_CLIENT, artemisQueueStatOptions, "topic://DURABLE_TOPIC");
-        Map<String, String> perfOutput = (Map<String, String>) artemisClient.executeCommand();
+        Map<String, String> perfOutput = executeWithMetrics(artemisClient, protocol);
         LOGGER.info(perfOutput.toString());
-        storeResults(TestUtils.convertMapToJson(perfOutput), hdrFilename, reportFilename);
+        storeResults(protocol, perfOutput, hdrFilename, reportFilename);
     }
 }
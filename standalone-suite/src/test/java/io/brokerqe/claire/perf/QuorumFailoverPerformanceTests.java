@@ -0,0 +1,197 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import eu.rekawek.toxiproxy.Proxy;
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.FailoverLoad;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ToxiProxyContainer;
+import io.brokerqe.claire.container.ZookeeperContainer;
+import io.brokerqe.claire.container.ZookeeperContainerCluster;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.TimeHelper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Pluggable quorum (ZooKeeper) failover latency of a replicated primary/backup pair under a steady failover client
+ * load. Failures are a broker kill, the loss of one ensemble node and a partition of the primary from the whole
+ * ensemble (the primary reaches ZooKeeper through ToxiProxy). Reported are the time until the primary gives up its
+ * role (leader loss detection), until the backup is live, and the outage seen by the clients, for several ZooKeeper
+ * session timeouts, the base for sizing them in production. Losing one node of the ensemble must not fail over.
+ */
+public class QuorumFailoverPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuorumFailoverPerformanceTests.class);
+    private static final int ZK_NODES = 3;
+    private static final String ZK_NODE_PREFIX = "zk";
+    private static final int FIRST_ZK_PROXY_PORT = 8666;
+    private static final int RATE = 500;
+    private static final long LOAD_BEFORE_FAILURE_MS = Constants.DURATION_10_SECONDS;
+    private static final long LOAD_AFTER_FAILOVER_MS = Constants.DURATION_10_SECONDS;
+    private static final long FAILOVER_TIMEOUT_MS = Constants.DURATION_2_MINUTES;
+    private static final String SESSION_MS_PROPERTY = "HAPolicyConfiguration.distributedManagerConfiguration.properties.session-ms";
+    private static final String CLIENT_FAILOVER_OPTIONS = "failover.maxReconnectAttempts=-1&failover.initialReconnectDelay=100"
+            + "&failover.useReconnectBackOff=false&failover.amqpOpenServerListAction=IGNORE";
+
+    enum Failure {
+        // kill -9 of the primary broker process
+        BROKER_KILL,
+        // stop of one ensemble node, the quorum holds
+        ZK_NODE_LOSS,
+        // primary cut off from every ensemble node, its session expires
+        ZK_PARTITION
+    }
+
+    private ZookeeperContainerCluster zkCluster;
+    private final List<Proxy> primaryZkProxies = new ArrayList<>();
+
+    @BeforeAll
+    void setupEnv() {
+        zkCluster = new ZookeeperContainerCluster(ZK_NODES, ZK_NODE_PREFIX);
+        zkCluster.start();
+        ToxiProxyContainer toxiProxy = ResourceManager.getToxiProxyContainerInstance("toxiProxy");
+        toxiProxy.start();
+        for (int i = 1; i <= ZK_NODES; i++) {
+            primaryZkProxies.add(toxiProxy.getProxy("primaryZkProxy" + i, "0.0.0.0:" + (FIRST_ZK_PROXY_PORT + i - 1),
+                    ZK_NODE_PREFIX + i + ":" + ZookeeperContainer.CLIENT_PORT));
+        }
+    }
+
+    @ParameterizedTest(name = "{index} => failure={0}, sessionMs={1}")
+    @CsvSource({
+        "BROKER_KILL, 6000",
+        "BROKER_KILL, 18000",
+        "BROKER_KILL, 30000",
+        "ZK_NODE_LOSS, 18000",
+        "ZK_PARTITION, 6000",
+        "ZK_PARTITION, 18000",
+        "ZK_PARTITION, 30000"
+    })
+    void testQuorumFailover(Failure failure, int sessionMs) throws IOException {
+        String scenario = failure.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-" + sessionMs;
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("failure", failure.name());
+        results.put("session_ms", String.valueOf(sessionMs));
+
+        ArtemisContainer primary = startBroker("primary-" + scenario, "primary-tune.yaml.jinja2", sessionMs, false);
+        ArtemisContainer backup = startBroker("backup-" + scenario, "backup-tune.yaml.jinja2", sessionMs, true);
+        ensureBrokerReplicaIsInSync(backup);
+        String url = AmqpUtil.buildAmqFailoverUrl(CLIENT_FAILOVER_OPTIONS,
+                primary.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT),
+                backup.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT));
+        FailoverLoad load = new FailoverLoad(url, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS,
+                "quorumFailover." + TestUtils.generateRandomName(), RATE);
+        ZookeeperContainer lostNode = zkCluster.getNode(ZK_NODE_PREFIX + ZK_NODES);
+        boolean primaryStayedLive = true;
+        boolean backupStayedBackup = true;
+        try {
+            load.start();
+            TimeHelper.waitFor(LOAD_BEFORE_FAILURE_MS);
+
+            LOGGER.info("[{}] Injecting {} with session timeout {} ms", testName, failure, sessionMs);
+            load.markFailure();
+            long failureStart = System.nanoTime();
+            switch (failure) {
+                case BROKER_KILL -> primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.FORCE_STOP);
+                case ZK_NODE_LOSS -> lostNode.stop();
+                case ZK_PARTITION -> {
+                    for (Proxy proxy : primaryZkProxies) {
+                        proxy.disable();
+                    }
+                }
+            }
+            if (failure == Failure.ZK_NODE_LOSS) {
+                // the quorum holds, wait twice the session timeout for a failover which must not happen
+                TimeHelper.waitFor(e -> !isLive(primary) || isLive(backup), Constants.DURATION_100_MILLISECONDS, 2L * sessionMs);
+                primaryStayedLive = isLive(primary);
+                backupStayedBackup = !isLive(backup);
+                results.put("primary_down_ms", "-1");
+                results.put("backup_activation_ms", "-1");
+                LOGGER.info("[{}] {}: primary live {}, backup live {}", testName, failure, primaryStayedLive, !backupStayedBackup);
+            } else {
+                TimeHelper.waitFor(e -> !isLive(primary), Constants.DURATION_100_MILLISECONDS, FAILOVER_TIMEOUT_MS);
+                long primaryDownMs = elapsedMs(failureStart);
+                results.put("primary_down_ms", String.valueOf(isLive(primary) ? -1 : primaryDownMs));
+                TimeHelper.waitFor(e -> isLive(backup), Constants.DURATION_100_MILLISECONDS,
+                        Math.max(0, FAILOVER_TIMEOUT_MS - primaryDownMs));
+                long activationMs = elapsedMs(failureStart);
+                results.put("backup_activation_ms", String.valueOf(isLive(backup) ? activationMs : -1));
+                LOGGER.info("[{}] {}: primary down after {}, backup live after {}", testName, failure,
+                        results.get("primary_down_ms"), results.get("backup_activation_ms"));
+            }
+
+            TimeHelper.waitFor(LOAD_AFTER_FAILOVER_MS);
+            load.stop(Constants.DURATION_1_MINUTE);
+            results.putAll(load.summarize());
+        } finally {
+            load.close();
+            for (Proxy proxy : primaryZkProxies) {
+                proxy.enable();
+            }
+            if (!lostNode.isRunning()) {
+                lostNode.start();
+            }
+            backup.stop();
+            primary.stop();
+        }
+        storeResults(scenario, results);
+        if (failure == Failure.ZK_NODE_LOSS) {
+            assertThat("primary live after losing one ensemble node", primaryStayedLive, equalTo(true));
+            assertThat("backup still backup after losing one ensemble node", backupStayedBackup, equalTo(true));
+        }
+    }
+
+    /**
+     * @return whether the broker is live, false also when its JMX is not reachable (process stopped)
+     */
+    private static boolean isLive(ArtemisContainer artemis) {
+        try {
+            return ArtemisJmxHelper.isLive(artemis, true, 1, 0);
+        } catch (ClaireRuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a broker of the pair with the ZooKeeper session timeout of the scenario, set in broker.properties on top
+     * of the tune file, so that the HA config is not copied for every timeout.
+     */
+    private ArtemisContainer startBroker(String name, String tuneFile, int sessionMs, boolean isBackup) {
+        ArtemisContainer artemis = getArtemisInstance(name, generateYacfgProfilesContainerTestDir(tuneFile),
+                new ArrayList<>(), new HashMap<>(), isBackup, false);
+        String brokerPropertiesFile = testNameDir + Constants.FILE_SEPARATOR + name + "-broker.properties";
+        TestUtils.createFile(brokerPropertiesFile, SESSION_MS_PROPERTY + "=" + sessionMs + Constants.LINE_SEPARATOR);
+        artemis.withConfigFile(brokerPropertiesFile, "broker.properties");
+        artemis.start();
+        ensureBrokerStarted(artemis);
+        if (isBackup) {
+            ensureBrokerIsBackup(artemis);
+        } else {
+            ensureBrokerIsLive(artemis);
+        }
+        return artemis;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.FailoverLoad;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.ZookeeperContainerCluster;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.ha.replication.FailoverReplicationTests;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.TimeHelper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Replication failover downtime under a sustained load. The pair uses the tune files of
+ * {@link FailoverReplicationTests}, but where that test fails over an idle pair, a failover client here keeps
+ * sending and receiving at a fixed rate while the primary is stopped, killed or loses its whole container. Reported
+ * are the outage window seen by the clients (last send/receive before the failure to the first one after it), the
+ * backup activation time, the lost and duplicate messages, and how long the
+ * restarted primary takes until the pair is in sync again.
+ */
+public class ReplicationFailoverPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationFailoverPerformanceTests.class);
+    private static final int RATE = 500;
+    private static final long LOAD_BEFORE_FAILURE_MS = Constants.DURATION_10_SECONDS;
+    private static final long LOAD_AFTER_FAILOVER_MS = Constants.DURATION_10_SECONDS;
+    private static final long FAILOVER_TIMEOUT_MS = Constants.DURATION_2_MINUTES;
+    private static final long RESYNC_TIMEOUT_MS = Constants.DURATION_5_MINUTES;
+    private static final String CLIENT_FAILOVER_OPTIONS = "failover.maxReconnectAttempts=-1&failover.initialReconnectDelay=100"
+            + "&failover.useReconnectBackOff=false&failover.amqpOpenServerListAction=IGNORE";
+
+    enum Failure {
+        // graceful stop and kill -9 of the broker process, the container and its network stay
+        STOP, KILL,
+        // kill of the whole container, as a lost node
+        CONTAINER_KILL
+    }
+
+    @BeforeAll
+    void setupEnv() {
+        // brokers coordinate through the ensemble (pluggable quorum), see the tune files
+        ZookeeperContainerCluster zkCluster = new ZookeeperContainerCluster(3, "zk");
+        zkCluster.start();
+    }
+
+    @ParameterizedTest(name = "{index} => failure={0}")
+    @EnumSource(Failure.class)
+    void testReplicationFailoverUnderLoad(Failure failure) {
+        String scenario = failure.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("failure", failure.name());
+
+        ArtemisContainer primary = getArtemisInstance("primary-" + scenario,
+                generateYacfgProfilesContainerTestDir(FailoverReplicationTests.class, "primary-tune.yaml.jinja2"));
+        ArtemisContainer backup = getArtemisInstance("backup-" + scenario,
+                generateYacfgProfilesContainerTestDir(FailoverReplicationTests.class, "backup-tune.yaml.jinja2"), true);
+        ensureBrokerReplicaIsInSync(backup);
+        String url = AmqpUtil.buildAmqFailoverUrl(CLIENT_FAILOVER_OPTIONS,
+                primary.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT),
+                backup.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT));
+        FailoverLoad load = new FailoverLoad(url, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS,
+                "replicationFailover." + TestUtils.generateRandomName(), RATE);
+        try {
+            load.start();
+            TimeHelper.waitFor(LOAD_BEFORE_FAILURE_MS);
+
+            LOGGER.info("[{}] Injecting {} on primary {}", testName, failure, primary.getName());
+            load.markFailure();
+            long failureStart = System.nanoTime();
+            switch (failure) {
+                case STOP -> primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.STOP);
+                case KILL -> primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.FORCE_STOP);
+                case CONTAINER_KILL -> primary.kill();
+            }
+            TimeHelper.waitFor(e -> ArtemisJmxHelper.isLive(backup, true, 1, 0), Constants.DURATION_100_MILLISECONDS,
+                    FAILOVER_TIMEOUT_MS);
+            long activationMs = elapsedMs(failureStart);
+            boolean activated = ArtemisJmxHelper.isLive(backup, true, 1, 0);
+            results.put("backup_activation_ms", String.valueOf(activated ? activationMs : -1));
+
+            TimeHelper.waitFor(LOAD_AFTER_FAILOVER_MS);
+            load.stop(Constants.DURATION_1_MINUTE);
+            results.putAll(load.summarize());
+            LOGGER.info("[{}] Client outage send={} ms receive={} ms, lost={}, duplicates={}", testName,
+                    load.getSendOutageMs(), load.getReceiveOutageMs(), load.getLostCount(), load.getDuplicateCount());
+
+            LOGGER.info("[{}] Restarting primary {} and waiting for the replica to be in sync", testName, primary.getName());
+            long restartStart = System.nanoTime();
+            if (failure == Failure.CONTAINER_KILL) {
+                primary.start();
+            } else {
+                primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.START);
+            }
+            // with failback the roles swap back once in sync, either broker may report it first
+            TimeHelper.waitFor(e -> isReplicaInSync(backup) || isReplicaInSync(primary), Constants.DURATION_100_MILLISECONDS,
+                    RESYNC_TIMEOUT_MS);
+            long resyncMs = elapsedMs(restartStart);
+            boolean inSync = isReplicaInSync(backup) || isReplicaInSync(primary);
+            results.put("replica_resync_ms", String.valueOf(inSync ? resyncMs : -1));
+        } finally {
+            load.close();
+            backup.stop();
+            primary.stop();
+        }
+        storeResults(scenario, results);
+        assertThat("acknowledged messages lost on failover", load.getLostCount(), equalTo(0L));
+    }
+
+    private static boolean isReplicaInSync(ArtemisContainer artemis) {
+        try {
+            return ArtemisJmxHelper.isReplicaInSync(artemis, true, 1, 0);
+        } catch (ClaireRuntimeException e) {
+            // JMX of a restarting broker is not available yet
+            return false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import eu.rekawek.toxiproxy.Proxy;
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.ArtemisVersion;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.ResourceManager;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.FailoverLoad;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.NfsServerContainer;
+import io.brokerqe.claire.container.StorageProfile;
+import io.brokerqe.claire.container.ToxiProxyContainer;
+import io.brokerqe.claire.ha.sharedstore.FailoverSharedStoreTests;
+import io.brokerqe.claire.helper.ArtemisJmxHelper;
+import io.brokerqe.claire.helper.TimeHelper;
+import io.brokerqe.claire.junit.TestValidSince;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Shared store failover timing on NFS under a steady load. A primary and a backup broker share the journal on one NFS
+ * export (each mounted through its own ToxiProxy), a failover client sends and receives at a fixed rate and the
+ * primary is stopped, killed or cut off from NFS. Reported are the time until the clients notice the failure, until
+ * the backup is live and until the clients send and receive again, with the lost and duplicate messages. Scenarios
+ * vary the NFS mount options and the journal lock acquisition timeout, to tune shared store HA for minimum downtime.
+ */
+@TestValidSince(ArtemisVersion.VERSION_2_28)
+public class SharedStoreFailoverPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedStoreFailoverPerformanceTests.class);
+    private static final String EXPORT_DIR_NAME = "sharedStore";
+    private static final int PRIMARY_NFS_PROXY_PORT = 8666;
+    private static final int BACKUP_NFS_PROXY_PORT = 8667;
+    private static final int RATE = 500;
+    private static final long LOAD_BEFORE_FAILURE_MS = Constants.DURATION_10_SECONDS;
+    private static final long LOAD_AFTER_FAILOVER_MS = Constants.DURATION_10_SECONDS;
+    private static final long FAILOVER_TIMEOUT_MS = Constants.DURATION_5_MINUTES;
+    // the previous scenario's NFS locks may be held until the NFS server lease expires
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(5);
+    private static final String CLIENT_FAILOVER_OPTIONS = "failover.maxReconnectAttempts=-1&failover.initialReconnectDelay=100"
+            + "&failover.useReconnectBackOff=false&failover.amqpOpenServerListAction=IGNORE";
+    // profiles differ in the NFS request timeout (tenths of a second) and retries only, default as NfsServerContainer
+    private static final String MOUNT_BASE_OPTIONS = "vers=4,proto=tcp,sync,noac,soft,lookupcache=none";
+    private static final Map<String, String> MOUNT_OPTIONS = Map.of(
+            "default", MOUNT_BASE_OPTIONS + ",timeo=15,retrans=1",
+            "fast", MOUNT_BASE_OPTIONS + ",timeo=5,retrans=1",
+            "tolerant", MOUNT_BASE_OPTIONS + ",timeo=30,retrans=3");
+
+    enum Failure {
+        STOP, KILL, NFS_LOSS
+    }
+
+    private NfsServerContainer nfsServer;
+    private ToxiProxyContainer toxiProxy;
+    private Proxy primaryNfsProxy;
+
+    @BeforeAll
+    void setupEnv() {
+        nfsServer = getNfsServerInstance(EXPORT_DIR_NAME);
+        toxiProxy = ResourceManager.getToxiProxyContainerInstance("toxiProxy");
+        toxiProxy.start();
+        primaryNfsProxy = toxiProxy.getProxy("primaryNfsProxy", "0.0.0.0:" + PRIMARY_NFS_PROXY_PORT, nfsServer.getName() + ":2049");
+        toxiProxy.getProxy("backupNfsProxy", "0.0.0.0:" + BACKUP_NFS_PROXY_PORT, nfsServer.getName() + ":2049");
+    }
+
+    @ParameterizedTest(name = "{index} => failure={0}, mount={1}, lockAcquisitionTimeoutMs={2}")
+    @CsvSource({
+        "STOP, default, -1",
+        "KILL, default, -1",
+        "KILL, fast, 5000",
+        "NFS_LOSS, default, -1",
+        "NFS_LOSS, fast, 5000",
+        "NFS_LOSS, tolerant, 30000"
+    })
+    void testSharedStoreFailover(Failure failure, String mountProfile, long lockAcquisitionTimeoutMs) throws IOException {
+        String scenario = String.join("-", failure.name().toLowerCase(Locale.ROOT).replace('_', '-'), mountProfile,
+                lockAcquisitionTimeoutMs < 0 ? "nolimit" : lockAcquisitionTimeoutMs + "ms");
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("failure", failure.name());
+        results.put("mount_options", MOUNT_OPTIONS.get(mountProfile));
+        results.put("lock_acquisition_timeout_ms", String.valueOf(lockAcquisitionTimeoutMs));
+
+        ArtemisContainer primary = startBroker("primary-" + scenario, "primary-tune.yaml.jinja2", PRIMARY_NFS_PROXY_PORT,
+                mountProfile, lockAcquisitionTimeoutMs, false);
+        ArtemisContainer backup = startBroker("backup-" + scenario, "backup-tune.yaml.jinja2", BACKUP_NFS_PROXY_PORT,
+                mountProfile, lockAcquisitionTimeoutMs, true);
+        String url = AmqpUtil.buildAmqFailoverUrl(CLIENT_FAILOVER_OPTIONS,
+                primary.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT),
+                backup.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT));
+        FailoverLoad load = new FailoverLoad(url, ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS,
+                "sharedStoreFailover." + TestUtils.generateRandomName(), RATE);
+        try {
+            load.start();
+            TimeHelper.waitFor(LOAD_BEFORE_FAILURE_MS);
+
+            LOGGER.info("[{}] Injecting {} on primary {}", testName, failure, primary.getName());
+            load.markFailure();
+            long failureStart = System.nanoTime();
+            switch (failure) {
+                case STOP -> primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.STOP);
+                case KILL -> primary.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.FORCE_STOP);
+                case NFS_LOSS -> primaryNfsProxy.disable();
+            }
+            TimeHelper.waitFor(e -> ArtemisJmxHelper.isLive(backup, true, 1, 0), Constants.DURATION_100_MILLISECONDS,
+                    FAILOVER_TIMEOUT_MS);
+            long activationMs = elapsedMs(failureStart);
+            boolean activated = ArtemisJmxHelper.isLive(backup, true, 1, 0);
+            results.put("backup_activation_ms", String.valueOf(activated ? activationMs : -1));
+            LOGGER.info("[{}] Backup {} live: {} after {} ms", testName, backup.getName(), activated, activationMs);
+
+            TimeHelper.waitFor(LOAD_AFTER_FAILOVER_MS);
+            load.stop(Constants.DURATION_1_MINUTE);
+            results.putAll(load.summarize());
+        } finally {
+            load.close();
+            primaryNfsProxy.enable();
+            // release the journal locks cleanly, so that the next scenario does not wait for the NFS lease
+            backup.artemisProcessController(ArtemisContainer.ArtemisProcessControllerActions.STOP);
+            backup.stop();
+            primary.stop();
+        }
+        storeResults(scenario, results);
+        // the primary is gone before the backup takes the lock, acknowledged sends are in the shared journal
+        if (failure != Failure.NFS_LOSS) {
+            assertThat("acknowledged messages lost on failover", load.getLostCount(), equalTo(0L));
+        }
+    }
+
+    private ArtemisContainer startBroker(String name, String tuneFile, int nfsProxyPort, String mountProfile,
+                                         long lockAcquisitionTimeoutMs, boolean isBackup) {
+        // the HA policy comes from FailoverSharedStoreTests, scenarios differ only in broker.properties and the mount
+        ArtemisContainer artemis = getArtemisInstance(name,
+                generateYacfgProfilesContainerTestDir(FailoverSharedStoreTests.class, tuneFile),
+                new ArrayList<>(), new HashMap<>(), isBackup, false);
+        artemis.withDataDir(null, StorageProfile.nfs(nfsServer, EXPORT_DIR_NAME, toxiProxy.getName(),
+                String.valueOf(nfsProxyPort), MOUNT_OPTIONS.get(mountProfile)));
+        String brokerPropertiesFile = testNameDir + Constants.FILE_SEPARATOR + name + "-broker.properties";
+        TestUtils.createFile(brokerPropertiesFile, "journalLockAcquisitionTimeout=" + lockAcquisitionTimeoutMs + Constants.LINE_SEPARATOR);
+        artemis.withConfigFile(brokerPropertiesFile, "broker.properties");
+        artemis.start(START_TIMEOUT);
+        ensureBrokerStarted(artemis);
+        if (isBackup) {
+            ensureBrokerIsBackup(artemis);
+        } else {
+            ensureBrokerIsLive(artemis);
+        }
+        return artemis;
+    }
+}
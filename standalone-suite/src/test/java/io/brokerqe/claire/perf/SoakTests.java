@@ -0,0 +1,163 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.EnvironmentStandalone;
+import io.brokerqe.claire.client.deployment.BundledClientDeployment;
+import io.brokerqe.claire.clients.bundled.ArtemisCommand;
+import io.brokerqe.claire.clients.bundled.BundledArtemisClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.helper.BrokerResourceProfiler;
+import io.brokerqe.claire.metrics.ColumnarMetricsWriter;
+import io.brokerqe.claire.metrics.MetricsChart;
+import io.brokerqe.claire.metrics.MetricsChartRenderer;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import io.brokerqe.claire.metrics.MetricsTimeSeries;
+import io.brokerqe.claire.metrics.TrendAnalyzer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives a steady load for hours (see {@link Constants#EV_SOAK_DURATION_MINUTES}) to find what short tests can not:
+ * memory or thread leaks, journal bloat and latency drift. The load runs as a sequence of perf client windows, each
+ * giving its latency percentiles, while the broker heap after GC, threads, file descriptors and journal size are
+ * sampled in the background. Series growing steadily over the whole run fail the test.
+ */
+@Tag(Constants.TAG_SOAK)
+public class SoakTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SoakTests.class);
+    private static final long WINDOW_SECONDS = 60;
+    private static final String JOURNAL_BYTES = "broker.journal_bytes";
+    private static final String SOAK_QUEUE = "queue://SOAK_QUEUE";
+    private static final TrendAnalyzer TREND_ANALYZER = new TrendAnalyzer(10, 0.75, 0.2);
+    private static final Pattern BROKER_TREND_COLUMNS = Pattern.compile(
+            "jvm\\.heap_after_gc|jvm\\.threads|jvm\\.open_file_descriptor_count|broker\\.journal_bytes");
+    private static final Pattern LATENCY_TREND_COLUMNS = Pattern.compile("latency\\..*_us_(50|99)(\\.0+)?");
+    private static final List<MetricsChart> BROKER_CHARTS = Stream.concat(BrokerResourceProfiler.CHARTS.stream(),
+            Stream.of(MetricsChart.of("Journal size", "broker\\.journal_bytes"))).toList();
+    private static final List<MetricsChart> LATENCY_CHARTS = List.of(MetricsChart.of("Latency percentiles (us)", "latency\\..*"));
+
+    @Test
+    void testSteadyLoadSoak() {
+        EnvironmentStandalone environment = EnvironmentStandalone.getInstance();
+        long durationMinutes = environment.getSoakDurationMinutes();
+        assumeTrue(durationMinutes > 0, "Soak test disabled, set " + Constants.EV_SOAK_DURATION_MINUTES + " to run this test");
+        ArtemisContainer artemis = getArtemisInstance("artemis-soak");
+        String journalDir = ArtemisContainer.ARTEMIS_INSTANCE_DATA_DIR + Constants.FILE_SEPARATOR + "journal";
+
+        // broker caches and JIT warm up in the first minutes, which would look like growth
+        LOGGER.info("[{}] Warming up broker with {} msgs/s for {} s", testName, environment.getSoakRate(), WINDOW_SECONDS);
+        runLoadWindow(environment.getSoakRate());
+
+        long intervalMs = Math.max(environment.getMetricsSampleIntervalMs(), Constants.DURATION_10_SECONDS);
+        MetricsSampler sampler = BrokerResourceProfiler.start(artemis, Paths.get(testNameDir, "metrics"), intervalMs,
+                () -> Map.of(JOURNAL_BYTES, (double) artemis.getDirectorySize(journalDir)));
+        Path latencyDir = Paths.get(testNameDir, "latency");
+        Map<String, String> results = new LinkedHashMap<>();
+        int windows = 0;
+        int failedWindows = 0;
+        LOGGER.info("[{}] Soaking broker with {} msgs/s for {} minutes", testName, environment.getSoakRate(), durationMinutes);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(durationMinutes);
+        try (ColumnarMetricsWriter latencyWriter = new ColumnarMetricsWriter(latencyDir)) {
+            while (System.nanoTime() < deadline) {
+                Map<String, String> perfOutput = runLoadWindow(environment.getSoakRate());
+                windows++;
+                if ("success".equals(perfOutput.get("result"))) {
+                    latencyWriter.append(System.currentTimeMillis(), toLatencies(perfOutput));
+                } else {
+                    LOGGER.warn("[{}] Load window {} failed: {}", testName, windows, perfOutput);
+                    failedWindows++;
+                }
+            }
+        } finally {
+            results.putAll(BrokerResourceProfiler.stop(sampler, BROKER_CHARTS));
+        }
+        results.put("duration_minutes", String.valueOf(durationMinutes));
+        results.put("rate", String.valueOf(environment.getSoakRate()));
+        results.put("windows", String.valueOf(windows));
+        results.put("failed_windows", String.valueOf(failedWindows));
+
+        MetricsTimeSeries latencies = MetricsTimeSeries.read(latencyDir);
+        MetricsChartRenderer.render(latencies, LATENCY_CHARTS, "latency", latencyDir.resolve("latency.html"));
+        List<TrendAnalyzer.Trend> trends = new ArrayList<>(TREND_ANALYZER.analyze(sampler.getTimeSeries(), BROKER_TREND_COLUMNS));
+        trends.addAll(TREND_ANALYZER.analyze(latencies, LATENCY_TREND_COLUMNS));
+        for (TrendAnalyzer.Trend trend : trends) {
+            LOGGER.info("[{}] {}", testName, trend);
+            results.put(trend.name() + "_growth_percent", String.format(Locale.ROOT, "%.2f", trend.relativeGrowth() * 100));
+            results.put(trend.name() + "_slope_per_hour", String.format(Locale.ROOT, "%.2f", trend.slopePerHour()));
+            results.put(trend.name() + "_growing", String.valueOf(trend.growing()));
+        }
+        // the broker is stopped by the class teardown, so a failing stop can not lose the results
+        storeResults("soak_" + durationMinutes + "min", results);
+
+        List<String> growing = trends.stream().filter(TrendAnalyzer.Trend::growing).map(TrendAnalyzer.Trend::toString).toList();
+        assertThat("failed load windows", failedWindows, equalTo(0));
+        assertThat("steadily growing broker metrics (leak, bloat or drift)", growing, equalTo(List.of()));
+    }
+
+    /**
+     * One perf client run, short enough for the client executor and giving one latency sample per window. A perf
+     * client which fails or times out fails only its window, so the soak goes on and the window is counted.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> runLoadWindow(int rate) {
+        String url = "tcp://localhost:" + ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT;
+        Map<String, String> perfClientOptions = Map.of(
+                "duration", String.valueOf(WINDOW_SECONDS),
+                "rate", String.valueOf(rate),
+                "protocol", "core",
+                "persistent", "",
+                "show-latency", "",
+                "url", url,
+                "consumer-url", url
+        );
+        BundledArtemisClient artemisClient = new BundledArtemisClient(new BundledClientDeployment(), ArtemisCommand.PERF_CLIENT,
+                perfClientOptions, SOAK_QUEUE);
+        try {
+            return (Map<String, String>) artemisClient.executeCommand(TimeUnit.SECONDS.toMillis(WINDOW_SECONDS) + Constants.DURATION_1_MINUTE);
+        } catch (ClaireRuntimeException e) {
+            LOGGER.warn("[{}] Perf client failed: {}", testName, e.getMessage());
+            return Map.of("result", "failed");
+        }
+    }
+
+    /**
+     * Latency percentiles (e.g. aggregated_end_to_end_latency_us_99.00) of the perf client output as latency.* columns.
+     */
+    private static Map<String, Double> toLatencies(Map<String, String> perfOutput) {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        perfOutput.forEach((key, value) -> {
+            if (key.contains("_us_")) {
+                try {
+                    latencies.put("latency." + key, Double.parseDouble(value.trim()));
+                } catch (NumberFormatException e) {
+                    LOGGER.debug("Skipping non numeric latency {}={}", key, value);
+                }
+            }
+        });
+        return latencies;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.ArtemisConstants;
+import io.brokerqe.claire.ArtemisVersion;
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.AmqpUtil;
+import io.brokerqe.claire.client.deployment.BundledClientDeployment;
+import io.brokerqe.claire.clients.bundled.ArtemisCommand;
+import io.brokerqe.claire.clients.bundled.BundledArtemisClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.exception.ClaireRuntimeException;
+import io.brokerqe.claire.junit.TestValidSince;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import io.brokerqe.claire.security.CertificateManager;
+import io.brokerqe.claire.security.KeyStoreData;
+import io.brokerqe.claire.security.KeyType;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.BindMode;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Measures what TLS costs the broker: TLS 1.2 handshakes per second with and without session resumption, AMQP
+ * connection establishment rate over amqps against plain amqp, and steady state throughput of core and AMQP over TLS
+ * against plaintext. Every key type of {@link CertificateManager} gets its own TLS acceptor, so RSA-4096, RSA-2048 and EC
+ * certificates are compared on the same broker.
+ */
+@TestValidSince(ArtemisVersion.VERSION_2_28)
+public class TlsPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TlsPerformanceTests.class);
+    private static final Map<KeyType, Integer> TLS_PORTS = new EnumMap<>(Map.of(
+            KeyType.RSA_4096, 61617,
+            KeyType.RSA_2048, 61618,
+            KeyType.EC_P256, 61619));
+    private static final String PLAINTEXT = "plaintext";
+    private static final String TLS_PROTOCOL = "TLSv1.2";
+    private static final int HANDSHAKES = 500;
+    private static final int CONNECTIONS = 200;
+    private static final long THROUGHPUT_SECONDS = 60;
+    private static final String THROUGHPUT_QUEUE = "queue://TLS_QUEUE";
+
+    private ArtemisContainer artemis;
+    private SSLContext trustAllContext;
+
+    @BeforeAll
+    void setupEnv() throws GeneralSecurityException {
+        artemis = getArtemisInstance("artemis-tls", null, new ArrayList<>(), new HashMap<>(), false, false);
+        StringBuilder brokerProperties = new StringBuilder();
+        KeyType originalKeyType = CertificateManager.getKeyType();
+        try {
+            for (Map.Entry<KeyType, Integer> tlsPort : TLS_PORTS.entrySet()) {
+                String acceptorName = "tls_" + tlsPort.getKey().name().toLowerCase(Locale.ROOT);
+                CertificateManager.setKeyType(tlsPort.getKey());
+                Map<String, KeyStoreData> keystores = CertificateManager.generateCertificateKeystores(
+                        CertificateManager.generateArtemisCloudDN("Broker", "localhost"), "broker_" + acceptorName,
+                        CertificateManager.generateArtemisCloudDN("Client", "client"), "client_" + acceptorName, null, null);
+                KeyStoreData keyStore = keystores.get(Constants.BROKER_KEYSTORE_ID);
+                String keyStoreContainerPath = ArtemisContainer.ARTEMIS_INSTANCE_DIR + Constants.FILE_SEPARATOR + keyStore.getKeyStorePathFileName();
+                artemis.withFileSystemBind(keyStore.getKeyStorePath(), keyStoreContainerPath, BindMode.READ_ONLY);
+                brokerProperties.append(tlsAcceptorProperties(acceptorName, tlsPort.getValue(), keyStoreContainerPath, keyStore.getPassword()));
+            }
+        } finally {
+            CertificateManager.setKeyType(originalKeyType);
+        }
+        String brokerPropertiesFile = testNameDir + Constants.FILE_SEPARATOR + "broker.properties";
+        TestUtils.createFile(brokerPropertiesFile, brokerProperties.toString());
+        artemis.withConfigFile(brokerPropertiesFile, "broker.properties");
+        artemis.withExposedPorts(TLS_PORTS.values().toArray(new Integer[0]));
+        artemis.start();
+        ensureBrokerStarted(artemis);
+        ensureBrokerIsLive(artemis);
+
+        trustAllContext = SSLContext.getInstance("TLS");
+        trustAllContext.init(null, CertificateManager.trustAllCertificates, new SecureRandom());
+    }
+
+    @ParameterizedTest(name = "{index} => keyType={0}")
+    @EnumSource(KeyType.class)
+    void testTlsHandshakeRate(KeyType keyType) {
+        int port = TLS_PORTS.get(keyType);
+        String scenario = keyType.name().toLowerCase(Locale.ROOT);
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("key_type", keyType.name());
+        int resumedSessions;
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try {
+            LatencyRecorder fullHandshakes = new LatencyRecorder("full_handshake");
+            LatencyRecorder resumedHandshakes = new LatencyRecorder("resumed_handshake");
+            long fullStart = System.nanoTime();
+            handshakes(port, fullHandshakes, false);
+            long fullMs = elapsedMs(fullStart);
+            long resumedStart = System.nanoTime();
+            resumedSessions = handshakes(port, resumedHandshakes, true);
+            long resumedMs = elapsedMs(resumedStart);
+            results.put("full_handshakes_per_sec", perSecond(HANDSHAKES, fullMs));
+            results.put("resumed_handshakes_per_sec", perSecond(HANDSHAKES, resumedMs));
+            results.put("resumed_sessions", String.valueOf(resumedSessions));
+            results.putAll(fullHandshakes.summarize());
+            results.putAll(resumedHandshakes.summarize());
+            // -1 when the broker did not resume any session, the resumed run was full handshakes only
+            results.put("resumption_speedup", resumedSessions == 0 ? "-1" : String.format(Locale.ROOT, "%.2f",
+                    fullHandshakes.getPercentileUs(50) / resumedHandshakes.getPercentileUs(50)));
+
+            LatencyRecorder amqpsConnections = new LatencyRecorder("amqps_connection");
+            LatencyRecorder amqpConnections = new LatencyRecorder("amqp_connection");
+            long amqpsMs = connections("amqps://" + artemis.getHostAndPort(port)
+                    + "?transport.trustAll=true&transport.verifyHost=false", amqpsConnections);
+            long amqpMs = connections(AmqpUtil.buildAmqpUrl(artemis.getHostAndPort(ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT)),
+                    amqpConnections);
+            results.put("amqps_connections_per_sec", perSecond(CONNECTIONS, amqpsMs));
+            results.put("amqp_connections_per_sec", perSecond(CONNECTIONS, amqpMs));
+            results.putAll(amqpsConnections.summarize());
+            results.putAll(amqpConnections.summarize());
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+        // the first handshake of the resumed run is a full one
+        assertThat("TLS sessions resumed by the broker", resumedSessions, equalTo(HANDSHAKES - 1));
+    }
+
+    static Stream<Arguments> transportsAndProtocols() {
+        return Stream.of("core", "amqp").flatMap(protocol -> Stream.concat(Stream.of(PLAINTEXT),
+                TLS_PORTS.keySet().stream().map(KeyType::name)).map(transport -> Arguments.of(transport, protocol)));
+    }
+
+    @ParameterizedTest(name = "{index} => transport={0}, protocol={1}")
+    @MethodSource("transportsAndProtocols")
+    void testTlsThroughput(String transport, String protocol) {
+        String url = perfClientUrl(transport, protocol);
+        String scenario = transport.toLowerCase(Locale.ROOT) + "_" + protocol;
+        Map<String, String> perfClientOptions = Map.of(
+                "duration", String.valueOf(THROUGHPUT_SECONDS),
+                "warmup", "10",
+                "protocol", protocol,
+                "show-latency", "",
+                "url", url,
+                "consumer-url", url
+        );
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("transport", transport);
+        results.put("protocol", protocol);
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try {
+            BundledArtemisClient artemisClient = new BundledArtemisClient(new BundledClientDeployment(),
+                    ArtemisCommand.PERF_CLIENT, perfClientOptions, THROUGHPUT_QUEUE);
+            @SuppressWarnings("unchecked")
+            Map<String, String> perfOutput = (Map<String, String>) artemisClient.executeCommand(
+                    TimeUnit.SECONDS.toMillis(THROUGHPUT_SECONDS) + Constants.DURATION_1_MINUTE);
+            results.putAll(perfOutput);
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+    }
+
+    /**
+     * Handshakes over fresh TCP connections, timed including the connect. Pinned to TLS 1.2, where the session is
+     * established by the handshake itself (a TLS 1.3 ticket arrives only after it and would need a read before the
+     * close). Without resumption the session is invalidated after each handshake, so that the next one is a full
+     * handshake. A resumed session keeps the creation time of the session it resumes.
+     * @return number of handshakes which resumed the previous session
+     */
+    private int handshakes(int port, LatencyRecorder latencies, boolean resume) {
+        SSLSocketFactory socketFactory = trustAllContext.getSocketFactory();
+        int resumed = 0;
+        long previousCreationTime = -1;
+        for (int i = 0; i < HANDSHAKES; i++) {
+            long handshakeStart = System.nanoTime();
+            try (SSLSocket socket = (SSLSocket) socketFactory.createSocket(artemis.getHost(), artemis.getPort(port))) {
+                socket.setEnabledProtocols(new String[] {TLS_PROTOCOL});
+                socket.startHandshake();
+                latencies.recordSince(handshakeStart);
+                SSLSession session = socket.getSession();
+                if (session.getCreationTime() == previousCreationTime) {
+                    resumed++;
+                }
+                previousCreationTime = session.getCreationTime();
+                if (!resume) {
+                    session.invalidate();
+                }
+            } catch (IOException e) {
+                String errMsg = String.format("Error on TLS handshake with %s: %s", artemis.getName(), e.getMessage());
+                LOGGER.error(errMsg);
+                throw new ClaireRuntimeException(errMsg, e);
+            }
+        }
+        return resumed;
+    }
+
+    /**
+     * JMS connections opened and closed one after another, the rate at which a broker takes a connection storm.
+     * @return total time in ms
+     */
+    private long connections(String url, LatencyRecorder latencies) {
+        JmsConnectionFactory connectionFactory = new JmsConnectionFactory(url);
+        long start = System.nanoTime();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            long connectionStart = System.nanoTime();
+            try (Connection connection = connectionFactory.createConnection(ArtemisConstants.ADMIN_NAME, ArtemisConstants.ADMIN_PASS)) {
+                connection.start();
+                latencies.recordSince(connectionStart);
+            } catch (JMSException e) {
+                String errMsg = String.format("Error on connection to %s: %s", url, e.getMessage());
+                LOGGER.error(errMsg);
+                throw new ClaireRuntimeException(errMsg, e);
+            }
+        }
+        return elapsedMs(start);
+    }
+
+    /**
+     * Perf client runs inside of the broker container, so the urls use unmapped ports.
+     */
+    private static String perfClientUrl(String transport, String protocol) {
+        if (PLAINTEXT.equals(transport)) {
+            return "core".equals(protocol) ? "tcp://localhost:" + ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT
+                    : "amqp://localhost:" + ArtemisConstants.DEFAULT_ALL_PROTOCOLS_PORT;
+        }
+        int port = TLS_PORTS.get(KeyType.valueOf(transport));
+        return "core".equals(protocol) ? "tcp://localhost:" + port + "?sslEnabled=true&trustAll=true&verifyHost=false"
+                : "amqps://localhost:" + port + "?transport.trustAll=true&transport.verifyHost=false";
+    }
+
+    private static String tlsAcceptorProperties(String acceptorName, int port, String keyStorePath, String keyStorePassword) {
+        String prefix = "acceptorConfigurations." + acceptorName + ".";
+        return prefix + "factoryClassName=org.apache.activemq.artemis.core.remoting.impl.netty.NettyAcceptorFactory" + Constants.LINE_SEPARATOR
+                + prefix + "params.host=0.0.0.0" + Constants.LINE_SEPARATOR
+                + prefix + "params.port=" + port + Constants.LINE_SEPARATOR
+                + prefix + "params.protocols=CORE,AMQP" + Constants.LINE_SEPARATOR
+                + prefix + "params.sslEnabled=true" + Constants.LINE_SEPARATOR
+                + prefix + "params.keyStorePath=" + keyStorePath + Constants.LINE_SEPARATOR
+                + prefix + "params.keyStorePassword=" + keyStorePassword + Constants.LINE_SEPARATOR;
+    }
+}
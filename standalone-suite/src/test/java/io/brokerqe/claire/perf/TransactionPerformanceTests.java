@@ -0,0 +1,118 @@
+/*
+ * Copyright Broker QE authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.brokerqe.claire.perf;
+
+import io.brokerqe.claire.Constants;
+import io.brokerqe.claire.TestUtils;
+import io.brokerqe.claire.client.JmsClient;
+import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.metrics.LatencyRecorder;
+import io.brokerqe.claire.metrics.MetricsSampler;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sweeps the transaction batch size (messages per commit) of producers and consumers on a persistent queue and
+ * measures the throughput and commit latency of each, giving the curve behind a transaction batching
+ * recommendation. Semantics of commit and rollback are covered by TransactionTests.
+ */
+public class TransactionPerformanceTests extends AbstractPerformanceTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionPerformanceTests.class);
+    // multiple of every batch size, so that no batch is left uncommitted
+    private static final int NUM_OF_MESSAGES = 20000;
+    private static final int MSG_SIZE_KB = 1;
+    // smallest batch size reaching this share of the best throughput is recommended
+    private static final double RECOMMENDED_THROUGHPUT_RATIO = 0.9;
+
+    private final Map<Integer, Double> produceCurve = new TreeMap<>();
+    private final Map<Integer, Double> consumeCurve = new TreeMap<>();
+    private ArtemisContainer artemis;
+
+    @BeforeAll
+    void setupEnv() {
+        artemis = getArtemisInstance("artemis-transactions");
+    }
+
+    @ParameterizedTest(name = "{index} => batchSize={0}")
+    @ValueSource(ints = {1, 10, 100, 1000})
+    void testTransactionBatchSize(int batchSize) {
+        String queueName = "transactions." + TestUtils.generateRandomName();
+        String scenario = "batch_" + batchSize;
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("messages", String.valueOf(NUM_OF_MESSAGES));
+        results.put("message_size_kb", String.valueOf(MSG_SIZE_KB));
+        results.put("batch_size", String.valueOf(batchSize));
+
+        MetricsSampler sampler = startMetricsSampler(artemis, testNameDir + Constants.FILE_SEPARATOR + "metrics_" + scenario);
+        try {
+            LatencyRecorder produceCommits = new LatencyRecorder("produce_commit");
+            JmsClient producer = createClient(artemis, "producer-" + queueName, queueName, "", produceCommits);
+            long produceStart = System.nanoTime();
+            producer.produce(NUM_OF_MESSAGES, MSG_SIZE_KB, null, batchSize, 0, true);
+            producer.getProducedMsgs();
+            long produceMs = elapsedMs(produceStart);
+            producer.disconnect();
+            ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, NUM_OF_MESSAGES);
+            results.put("produce_ms", String.valueOf(produceMs));
+            results.put("produce_msgs_per_sec", perSecond(NUM_OF_MESSAGES, produceMs));
+            results.putAll(produceCommits.summarize());
+
+            LatencyRecorder consumeCommits = new LatencyRecorder("consume_commit");
+            JmsClient consumer = createClient(artemis, "consumer-" + queueName, queueName, "", consumeCommits);
+            long consumeStart = System.nanoTime();
+            consumer.consume(NUM_OF_MESSAGES, null, Constants.DURATION_30_SECONDS, batchSize, 0, true);
+            consumer.getConsumedMsgs();
+            long consumeMs = elapsedMs(consumeStart);
+            consumer.disconnect();
+            ensureQueueCount(artemis, queueName, queueName, RoutingType.ANYCAST, 0);
+            results.put("consume_ms", String.valueOf(consumeMs));
+            results.put("consume_msgs_per_sec", perSecond(NUM_OF_MESSAGES, consumeMs));
+            results.putAll(consumeCommits.summarize());
+
+            produceCurve.put(batchSize, Double.parseDouble(results.get("produce_msgs_per_sec")));
+            consumeCurve.put(batchSize, Double.parseDouble(results.get("consume_msgs_per_sec")));
+        } finally {
+            results.putAll(finishMetricsSampler(sampler));
+        }
+        storeResults(scenario, results);
+    }
+
+    @AfterAll
+    void storeCurve() {
+        if (produceCurve.isEmpty()) {
+            return;
+        }
+        Map<String, String> curve = new LinkedHashMap<>();
+        produceCurve.forEach((batchSize, rate) -> curve.put("produce_msgs_per_sec_batch_" + batchSize, String.valueOf(rate)));
+        consumeCurve.forEach((batchSize, rate) -> curve.put("consume_msgs_per_sec_batch_" + batchSize, String.valueOf(rate)));
+        curve.put("recommended_produce_batch_size", String.valueOf(recommendedBatchSize(produceCurve)));
+        curve.put("recommended_consume_batch_size", String.valueOf(recommendedBatchSize(consumeCurve)));
+        LOGGER.info("[{}] Transaction batch size curve: {}", artemis.getName(), curve);
+        storeResults("curve", curve);
+    }
+
+    /**
+     * @return smallest batch size giving at least {@link #RECOMMENDED_THROUGHPUT_RATIO} of the best throughput,
+     * larger batches only add latency and redelivery on rollback for little gain
+     */
+    private static int recommendedBatchSize(Map<Integer, Double> curve) {
+        double best = curve.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        return curve.entrySet().stream()
+                .filter(entry -> entry.getValue() >= best * RECOMMENDED_THROUGHPUT_RATIO)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+    }
+}
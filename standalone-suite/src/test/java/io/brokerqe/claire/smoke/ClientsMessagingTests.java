@@ -26,6 +26,7 @@ import io.brokerqe.claire.client.deployment.StProtonDotnetClientDeployment;
 import io.brokerqe.claire.client.deployment.StProtonPythonClientDeployment;
 import io.brokerqe.claire.client.deployment.StRheaClientDeployment;
 import io.brokerqe.claire.container.ArtemisContainer;
+import io.brokerqe.claire.container.StorageProfile;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -51,7 +52,7 @@ public class ClientsMessagingTests extends AbstractSystemTests {
     void setupEnv() {
         String artemisName = "artemis";
         LOGGER.info("Creating artemis instance: " + artemisName);
-        artemis = getArtemisInstance(artemisName);
+        artemis = getArtemisInstance(artemisName, null, StorageProfile.TMPFS);
     }
 
     @Test